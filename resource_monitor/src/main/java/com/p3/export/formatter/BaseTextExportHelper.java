@@ -4,6 +4,7 @@ import com.p3.export.options.Options;
 import com.p3.export.specifics.BlobKeySplitBean;
 import com.p3.export.specifics.DataType;
 import com.p3.export.specifics.ExcelSpecificDataType;
+import com.p3.export.specifics.ExportRow;
 import com.p3.export.utility.html.Alignment;
 import com.p3.export.utility.html.TableCell;
 import com.p3.export.utility.html.TableHeaderCell;
@@ -11,7 +12,11 @@ import com.p3.export.utility.html.TableRow;
 import com.p3.export.utility.others.Color;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +31,14 @@ abstract class BaseTextExportHelper implements TextExportHelper {
   String title;
   String outputFolderPath;
   private List<String> columnNames;
+
+  /** Bytes written to the current file, {@code null} when writing to a given writer. */
+  private CountingStream fileBytes;
+
+  /** Line buffer of {@link #writeRow(ExportRow)}, reused for every row. */
+  private final StringBuilder line = new StringBuilder(1024);
+  private char[] lineChars = new char[1024];
+
   public BaseTextExportHelper(ExportFormat exportFormat,
                               String title, String outputFolderPath, Options options) throws IOException {
     //final PrintWriter out,
@@ -38,7 +51,7 @@ abstract class BaseTextExportHelper implements TextExportHelper {
     this.options.setOutputFileTitle(outputFileTitle);
     String outputFilePath = outputFolderPath + File.separator + outputFileTitle + exportFormat.getExtension();
     this.outputFilePath = outputFilePath;
-    this.out = new PrintWriter(outputFilePath, options.getOutputCharset());
+    this.out = openFile(outputFilePath);
     options.incrementFileCount();
   }
   public BaseTextExportHelper(PrintWriter out,ExportFormat exportFormat
@@ -47,6 +60,11 @@ abstract class BaseTextExportHelper implements TextExportHelper {
     this.exportFormat = exportFormat;
   }
 
+  private PrintWriter openFile(String path) throws IOException {
+    fileBytes = new CountingStream(new FileOutputStream(path));
+    return new PrintWriter(new OutputStreamWriter(fileBytes, options.getOutputCharset()));
+  }
+
   static String separator(final String pattern) {
     final StringBuilder dashedSeparator = new StringBuilder(72);
     for (int i = 0; i < 72 / pattern.length(); i++) {
@@ -82,22 +100,7 @@ abstract class BaseTextExportHelper implements TextExportHelper {
       case dynamic_export_html_blob_only:
         break;
       default:
-        {
-          long size = new File(outputFilePath).length();
-          if(
-                  (options.getRecordsProcessed() > 0 && (options.getRecordsProcessed() % options.getRecordPerFile() == 0))
-                  || (size >= ((options.getSizePerFile()* 1024 * 1024) - (options.getThresholdSize() * 1024)))
-          ) {
-            log.debug("File Size : {}",size);
-            String outputFileTitle = title + "-" + options.getFileCountForTitle();
-            this.options.setOutputFileTitle(outputFileTitle);
-            out.close();
-            this.outputFilePath = outputFolderPath + File.separator + outputFileTitle + exportFormat.getExtension();
-            this.out = new PrintWriter(outputFilePath,options.getOutputCharset());
-            options.incrementFileCount();
-            writeRowHeader(columnNames);
-          }
-        }
+        rollFileIfFull();
         break;
     }
     ExportFormat exportFormat = this.exportFormat;
@@ -145,8 +148,120 @@ abstract class BaseTextExportHelper implements TextExportHelper {
         row.add(newTableCell(element.toString(), "data_number", exportFormat));
       } else row.add(newTableCell(element.toString(), "", exportFormat));
     }
-    out.println(row);
+    final String line = row.toString();
+    out.println(line);
     out.flush();
+    if (options != null) {
+      options.reportBytesWritten(line.length() + 1);
+    }
+  }
+
+  /**
+   * Writes a row of a plain text format straight into the file: no cell objects, no line string
+   * and no flush per row. Renders values exactly like {@link TableCell}s; other formats take the
+   * list path.
+   */
+  @Override
+  public void writeRow(ExportRow row) throws Exception {
+    char separator;
+    switch (exportFormat) {
+      case csv:
+        separator = ',';
+        break;
+      case ssv:
+        separator = ';';
+        break;
+      case tsv:
+      case txt:
+        separator = '\t';
+        break;
+      default:
+        writeRow(row, null, null);
+        return;
+    }
+    rollFileIfFull();
+    boolean quoted = separator != '\t';
+    line.setLength(0);
+    for (int i = 0; i < row.size(); i++) {
+      if (i > 0) {
+        line.append(separator);
+      }
+      appendCell(row.get(i), separator, quoted);
+    }
+    line.append(System.lineSeparator());
+    int length = line.length();
+    if (lineChars.length < length) {
+      lineChars = new char[Math.max(length, 2 * lineChars.length)];
+    }
+    line.getChars(0, length, lineChars, 0);
+    out.write(lineChars, 0, length);
+    if (options != null) {
+      options.reportBytesWritten(length);
+    }
+  }
+
+  private void appendCell(Object value, char separator, boolean quoted) {
+    if (value instanceof Long || value instanceof Integer) {
+      line.append(((Number) value).longValue());
+      return;
+    }
+    String text;
+    if (value == null) {
+      text = "";
+    } else if (value instanceof BlobKeySplitBean) {
+      BlobKeySplitBean blobKeySplitBean = (BlobKeySplitBean) value;
+      text =
+          blobKeySplitBean.getError() == null
+              ? blobKeySplitBean.getOutputFileName()
+                  + " (PATH : "
+                  + blobKeySplitBean.getRelativePath()
+                  + ")"
+              : blobKeySplitBean.getOutputFileName()
+                  + " (MESSAGE : "
+                  + blobKeySplitBean.getError()
+                  + ")";
+    } else {
+      text = value.toString();
+    }
+    if (!quoted) {
+      line.append(text);
+      return;
+    }
+    if (text.isEmpty()) {
+      line.append("\"\"");
+    } else if (text.indexOf(separator) < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+      line.append(text);
+    } else {
+      line.append('"');
+      for (int i = 0; i < text.length(); i++) {
+        char c = text.charAt(i);
+        if (c == '"') {
+          line.append('"');
+        }
+        line.append(c);
+      }
+      line.append('"');
+    }
+  }
+
+  /** Starts the next file once the current one has reached the record or size limit. */
+  private void rollFileIfFull() throws IOException {
+    // The list path flushes every row and the row path is at most a buffer behind, so the count
+    // stands in for the file length without asking the file system for it per row.
+    long size = fileBytes != null ? fileBytes.count : new File(outputFilePath).length();
+    if(
+            (options.getRecordsProcessed() > 0 && (options.getRecordsProcessed() % options.getRecordPerFile() == 0))
+            || (size >= ((options.getSizePerFile()* 1024 * 1024) - (options.getThresholdSize() * 1024)))
+    ) {
+      log.debug("File Size : {}",size);
+      String outputFileTitle = title + "-" + options.getFileCountForTitle();
+      this.options.setOutputFileTitle(outputFileTitle);
+      out.close();
+      this.outputFilePath = outputFolderPath + File.separator + outputFileTitle + exportFormat.getExtension();
+      this.out = openFile(outputFilePath);
+      options.incrementFileCount();
+      writeRowHeader(columnNames);
+    }
   }
 
   @Override
@@ -181,4 +296,24 @@ abstract class BaseTextExportHelper implements TextExportHelper {
     return new TableCell(
         text, escapeText, 0, Alignment.inherit, false, styleClass, Color.white, 1, exportFormat);
   }
+
+  private static final class CountingStream extends FilterOutputStream {
+    private long count;
+
+    CountingStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+  }
 }
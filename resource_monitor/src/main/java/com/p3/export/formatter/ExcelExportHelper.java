@@ -55,6 +55,7 @@ public class ExcelExportHelper implements TextExportHelper {
   public void writeDocumentEnd() throws Exception {
     if(currentFileCount>0) {
       excelEngineHandler.writeExcel();
+      options.reportBytesWritten(new File(outputFilePath).length());
     }
     cleanUp();
   }
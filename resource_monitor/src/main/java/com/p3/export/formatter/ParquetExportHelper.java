@@ -4,6 +4,7 @@ import static com.p3.export.utility.CommonMessageConstants.ERROR_LOG_TEMPLATE;
 
 import com.p3.export.options.ColumnInfo;
 import com.p3.export.options.Options;
+import com.p3.export.specifics.BlobKeySplitBean;
 import com.p3.export.specifics.ColumnEntity;
 import com.p3.export.specifics.DataType;
 import com.p3.export.specifics.ExcelSpecificDataType;
@@ -57,6 +58,7 @@ public class ParquetExportHelper implements TextExportHelper {
       parquetWriter = createParquetWriter(outputTitle,outputPath);
       this.outputFolderPath = outputFolderPath;
       this.options = options;
+      this.options.incrementFileCount();
       this.title = title;
     } catch (Exception exception) {
       log.error(ERROR_LOG_TEMPLATE, exception);
@@ -219,12 +221,31 @@ public class ParquetExportHelper implements TextExportHelper {
   @Override
   public void writeRow(List<Object> columnData, List<ExcelSpecificDataType> excelSpecificDataTypes,
                        List<DataType> dataTypes) throws Exception {
-
+    rollOverIfNeeded();
+    filesRecordCount += columnData.size();
+    long dataSizeBefore = parquetWriter.getDataSize();
+    parquetWriter.write(columnData);
+    options.reportBytesWritten(parquetWriter.getDataSize() - dataSizeBefore);
   }
 
   @Override
   public void writeRow(List<Object> currentRow, List<ExcelSpecificDataType> excelSpecificDataTypes,
                        List<ColumnEntity> columnEntities, List<String> attachementList) throws Exception {
+    rollOverIfNeeded();
+    filesRecordCount +=currentRow.size();
+    if (attachmentFileWriter != null) {
+      for (String attachmentFileName : attachementList) {
+        attachmentFileWriter.write(attachmentFileName);
+        attachmentFileWriter.write("\n");
+        attachmentFileWriter.flush();
+      }
+    }
+    long dataSizeBefore = parquetWriter.getDataSize();
+    parquetWriter.write(processRow(currentRow,columnEntities));
+    options.reportBytesWritten(parquetWriter.getDataSize() - dataSizeBefore);
+  }
+
+  private void rollOverIfNeeded() throws Exception {
     long size = parquetWriter.getDataSize();
     if((options.getRecordsProcessed() > 0 && (options.getRecordsProcessed() % options.getRecordPerFile() == 0))
             || (size >= ((options.getSizePerFile()* 1024 * 1024) - (options.getThresholdSize() * 1024)))){
@@ -236,15 +257,6 @@ public class ParquetExportHelper implements TextExportHelper {
       String outputFile = outputFolderPath + File.separator + outputFileTitle + ".parquet";
       parquetWriter = createParquetWriter(outputFileTitle,outputFile);
     }
-    filesRecordCount +=currentRow.size();
-    if (attachmentFileWriter != null) {
-      for (String attachmentFileName : attachementList) {
-        attachmentFileWriter.write(attachmentFileName);
-        attachmentFileWriter.write("\n");
-        attachmentFileWriter.flush();
-      }
-    }
-    parquetWriter.write(processRow(currentRow,columnEntities));
   }
 
   @Override
@@ -255,8 +267,13 @@ public class ParquetExportHelper implements TextExportHelper {
   private List<Object> processRow(List<Object> currentRow, List<ColumnEntity> columnEntities) {
     List<Object> objectList = new ArrayList<>();
     for (int i = 0; i < currentRow.size(); i++) {
-      if (columnEntities.get(i).getType().equals(DataType.BLOB.toString())) {
-        String objectValue = currentRow.get(i).toString();
+      if (columnEntities.get(i).getType().equals(DataType.BLOB.toString())
+          && currentRow.get(i) != null) {
+        Object value = currentRow.get(i);
+        String objectValue =
+            value instanceof BlobKeySplitBean
+                ? ((BlobKeySplitBean) value).getRelativePath()
+                : value.toString();
         objectValue = attachmentFileFolderName + "::" + objectValue;
         objectList.add(objectValue);
       }else{
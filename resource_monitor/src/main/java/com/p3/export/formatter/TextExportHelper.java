@@ -3,6 +3,7 @@ package com.p3.export.formatter;
 import com.p3.export.specifics.ColumnEntity;
 import com.p3.export.specifics.DataType;
 import com.p3.export.specifics.ExcelSpecificDataType;
+import com.p3.export.specifics.ExportRow;
 import java.util.List;
 
 /** Methods to format entire rows of output. */
@@ -22,6 +23,11 @@ public interface TextExportHelper {
       List<DataType> dataTypes)
       throws Exception;
 
+  /** Writes a reused row, by default like any other list of values. */
+  default void writeRow(ExportRow row) throws Exception {
+    writeRow(row, null, null);
+  }
+
   void writeRowHeader(List<String> columnNames) throws Exception;
 
   void flush() throws Exception;
@@ -2,8 +2,10 @@ package com.p3.export.operation;
 
 import com.p3.export.formatter.ExportFormat;
 import com.p3.export.options.ColumnInfo;
+import com.p3.export.options.ExportProgressListener;
 import com.p3.export.options.Options;
 import com.p3.export.specifics.ColumnEntity;
+import com.p3.export.specifics.ExportRow;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -29,10 +31,13 @@ public class ExportEngine {
   private ExportEngineHandler eh;
   private String dateFormat;
   private String fileEncoding;
+  private ExportProgressListener progressListener;
   @Builder.Default private Long blobPerFolder = 100L;
   @Builder.Default private Long sizePerFile = 50L;
   @Builder.Default private Long thresholdSize = 500L;
   @Builder.Default private Long recordPerFile = 10000L;
+  /** Number of files already written by an earlier run; numbering continues after them. */
+  @Builder.Default private Long startFileIndex = 0L;
 
   public ExportEngineHandler getExportEngineHandler() throws Exception {
     Options options = initiateOptions();
@@ -49,12 +54,14 @@ public class ExportEngine {
     Options options = Options.builder()
             .exportFormat(exportFormat)
             .build();
+    options.setFileCount(startFileIndex);
     options.setOutputFilePath(basePath, title);
     options.setXmlCaseSensitive(xsltFilePath != null);
     options.setTemplatePath(xsltFilePath);
     options.setSizePerFile(sizePerFile);
     options.setRecordPerFile(recordPerFile);
     options.setOutputEncodingCharset(Charset.forName(fileEncoding));
+    options.setProgressListener(progressListener);
     return options;
   }
 
@@ -81,6 +88,16 @@ public class ExportEngine {
     eh.iterateRows(values);
   }
 
+  /** Row holder of this engine's width, to be filled and passed to {@link #writeRow} per row. */
+  public ExportRow newRow() {
+    return new ExportRow(columnsInfo.size());
+  }
+
+  /** Writes the row without keeping it, so the caller can refill the same holder. */
+  public void writeRow(ExportRow row) throws Exception {
+    eh.writeRow(row);
+  }
+
   public void handleDataEnd() throws Exception {
     eh.handleDataEnd();
   }
@@ -88,6 +105,11 @@ public class ExportEngine {
     eh.handleDataEnd(reportDetails);
   }
 
+  /** Number of output files opened so far, including {@link #startFileIndex}. */
+  public long getFileCount() {
+    return oe.getOptions().getFileCount();
+  }
+
   public void generateReport() {
     oe.generateReport();
   }
@@ -2,6 +2,7 @@ package com.p3.export.operation;
 
 import com.p3.export.formatter.TextExportHelper;
 import com.p3.export.specifics.ColumnEntity;
+import com.p3.export.specifics.ExportRow;
 import java.util.List;
 
 public interface ExportEngineHandler {
@@ -12,4 +13,9 @@ public interface ExportEngineHandler {
   void handleDataEnd(Object reportDetails) throws Exception;
   void iterateRows(List<Object> values, List<String> attachementList)throws Exception;
   void iterateRows(List<Object> values, List<String> attachementList, List<ColumnEntity> columnMetadata) throws Exception;
+
+  /** Writes a reused row; engines without a path of their own write it like any other list. */
+  default void writeRow(ExportRow row) throws Exception {
+    iterateRows(row);
+  }
 }
@@ -5,6 +5,7 @@ import com.p3.export.formatter.TextExportHelper;
 import com.p3.export.options.ColumnInfo;
 import com.p3.export.options.Options;
 import com.p3.export.specifics.ColumnEntity;
+import com.p3.export.specifics.ExportRow;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,6 +26,14 @@ final class TextExportEngine extends BaseExporter implements ExportEngineHandler
     generateProgressReport(title);
   }
 
+  /** Unlike {@link #iterateRows(List)} this leaves flushing to the writer's buffer. */
+  @Override
+  public void writeRow(ExportRow row) throws Exception {
+    exportHelper.writeRow(row);
+    options.incrementRecordProcessed();
+    generateProgressReport(title);
+  }
+
   @Override
   public void handleDataStart() throws Exception {
     exportHelper.writeDocumentStart();
@@ -0,0 +1,9 @@
+package com.p3.export.options;
+
+/** Receives counts from the export hot path; implementations must be cheap and thread safe. */
+public interface ExportProgressListener {
+  void recordsWritten(long records);
+
+  /** Approximate bytes appended to the output, counted in characters for text formats. */
+  void bytesWritten(long bytes);
+}
@@ -56,6 +56,7 @@ public class Options {
   @Builder.Default private Long sizePerFile = 50L;
   @Builder.Default private Long thresholdSize = 500L;
   @Builder.Default private Long recordPerFile = 10000L;
+  private ExportProgressListener progressListener;
 
   /** Character encoding for input files, such as scripts and templates. */
   public Charset getInputCharset() {
@@ -129,6 +130,15 @@ public class Options {
 
   public void incrementRecordProcessed() {
     recordsProcessed++;
+    if (progressListener != null) {
+      progressListener.recordsWritten(1);
+    }
+  }
+
+  public void reportBytesWritten(long bytes) {
+    if (progressListener != null) {
+      progressListener.bytesWritten(bytes);
+    }
   }
 
   protected void copyZipResource(String resource, File dest) {
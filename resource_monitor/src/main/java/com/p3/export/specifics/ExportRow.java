@@ -0,0 +1,40 @@
+package com.p3.export.specifics;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Reusable row of fixed width, filled in place for every row instead of building a new list. It
+ * is a {@code List}, so engines without a row path of their own still take it through {@code
+ * iterateRows}; engines must not keep it past the call, since the next row overwrites it.
+ */
+public final class ExportRow extends AbstractList<Object> implements RandomAccess {
+  private final Object[] cells;
+
+  public ExportRow(int columns) {
+    cells = new Object[columns];
+  }
+
+  @Override
+  public Object get(int index) {
+    return cells[index];
+  }
+
+  @Override
+  public Object set(int index, Object value) {
+    Object previous = cells[index];
+    cells[index] = value;
+    return previous;
+  }
+
+  @Override
+  public int size() {
+    return cells.length;
+  }
+
+  /** Drops the values of the last row, so they can be collected while the row waits for reuse. */
+  public void reset() {
+    Arrays.fill(cells, null);
+  }
+}
@@ -187,17 +187,23 @@ public class ExcelEngine implements ExcelEngineHandler {
         case NUMBER:
           cell.setCellStyle(data ? dataCellStyleNumber : aggregationCellStyleNumber);
           cell.setCellValue(
-              value instanceof Integer ? (Integer) value : Integer.parseInt(value.toString()));
+              value instanceof Number
+                  ? ((Number) value).longValue()
+                  : Long.parseLong(value.toString()));
           break;
         case DOUBLE:
           cell.setCellStyle(data ? dataCellStyleDouble : aggregationCellStyleDouble);
           cell.setCellValue(
-              value instanceof Double ? (Double) value : Double.parseDouble(value.toString()));
+              value instanceof Number
+                  ? ((Number) value).doubleValue()
+                  : Double.parseDouble(value.toString()));
           break;
         case CURRENCY:
           cell.setCellStyle(data ? dataCellStyleCurrency : aggregationCellStyleCurrency);
           cell.setCellValue(
-              value instanceof Double ? (Double) value : Double.parseDouble(value.toString()));
+              value instanceof Number
+                  ? ((Number) value).doubleValue()
+                  : Double.parseDouble(value.toString()));
           break;
         case DATE:
           cell.setCellStyle(data ? dataCellStyleDate : aggregationCellStyleDate);
@@ -54,15 +54,29 @@ public class ParquetWriteSupport extends WriteSupport<List<Object>> {
         recordConsumer.startField(columnDescriptors.get(i).getPath()[0], i);
         switch (columnDescriptors.get(i).getPrimitiveType().getPrimitiveTypeName()) {
           case BOOLEAN:
-            recordConsumer.addBoolean(Boolean.parseBoolean(value.toString()));
+            recordConsumer.addBoolean(
+                value instanceof Boolean
+                    ? (Boolean) value
+                    : Boolean.parseBoolean(value.toString()));
             break;
           case FLOAT:
             recordConsumer.addFloat(Float.parseFloat(value.toString()));
             break;
           case DOUBLE:
-            recordConsumer.addDouble(Double.parseDouble(value.toString()));
+            recordConsumer.addDouble(
+                value instanceof Number
+                    ? ((Number) value).doubleValue()
+                    : Double.parseDouble(value.toString()));
             break;
           case INT32:
+            if (value instanceof java.sql.Date) {
+              recordConsumer.addInteger((int) ((java.sql.Date) value).toLocalDate().toEpochDay());
+              break;
+            }
+            if (value instanceof Number) {
+              recordConsumer.addInteger(((Number) value).intValue());
+              break;
+            }
             if (columnDescriptors.get(i).getPrimitiveType().getOriginalType() != null
                 && columnDescriptors
                     .get(i)
@@ -79,6 +93,14 @@ public class ParquetWriteSupport extends WriteSupport<List<Object>> {
             recordConsumer.addInteger(Integer.parseInt(value.toString()));
             break;
           case INT64:
+            if (value instanceof Date) {
+              recordConsumer.addLong(((Date) value).getTime());
+              break;
+            }
+            if (value instanceof Number) {
+              recordConsumer.addLong(((Number) value).longValue());
+              break;
+            }
             final ColumnDescriptor columnDescriptor1 = columnDescriptors.get(i);
             final PrimitiveType primitiveType1 = columnDescriptor1.getPrimitiveType();
             final OriginalType originalType1 = primitiveType1.getOriginalType();
@@ -0,0 +1,107 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.p3.export.specifics.BlobKeySplitBean;
+import java.util.List;
+
+/**
+ * Fetch size for a streaming cursor, chosen so that one fetched batch of rows stays within a
+ * memory budget. Starts from a width estimated from column metadata and is re-tuned once per
+ * batch from the rows actually read, since declared sizes say little about text or bytea columns.
+ */
+public class AdaptiveFetchSizer {
+  static final int MIN_FETCH_SIZE = 10;
+  static final int MAX_FETCH_SIZE = 10000;
+
+  /** Approximate heap cost of one value besides its characters: String, array and reference. */
+  private static final long VALUE_OVERHEAD_BYTES = 48;
+
+  /** Assumed width of columns without a useful declared size (text, bytea, json). */
+  private static final long UNBOUNDED_COLUMN_BYTES = 1024;
+
+  /** Payload of a number, date or timestamp: a long, plus the nanos of a timestamp. */
+  private static final long FIXED_VALUE_BYTES = 16;
+
+  private static final double SMOOTHING = 0.05;
+
+  private final long budgetBytes;
+  private double averageRowBytes;
+  private int fetchSize;
+  private int rowsSinceTune;
+
+  public AdaptiveFetchSizer(long budgetBytes, long estimatedRowBytes) {
+    this.budgetBytes = budgetBytes;
+    this.averageRowBytes = Math.max(1, estimatedRowBytes);
+    this.fetchSize = sizeFor(averageRowBytes);
+  }
+
+  /** Row width estimate from the declared {@code COLUMN_SIZE} of each column. */
+  public static long estimateRowBytes(List<Integer> columnSizes) {
+    long bytes = 0;
+    for (Integer size : columnSizes) {
+      boolean unbounded = size == null || size <= 0 || size > 65535;
+      bytes += VALUE_OVERHEAD_BYTES + (unbounded ? UNBOUNDED_COLUMN_BYTES : 2L * size);
+    }
+    return bytes;
+  }
+
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
+  /**
+   * Records the size of a row that was read.
+   *
+   * @return {@code true} when the fetch size changed noticeably and should be applied to the
+   *     result set before the next batch is fetched
+   */
+  public boolean observe(List<Object> row) {
+    return observe(row, 0);
+  }
+
+  /**
+   * Like {@link #observe(List)} for a row whose binary values were streamed to files by a {@link
+   * BlobWriter}: the driver still fetched them, so their {@code streamedBytes} count instead of
+   * the file references in the row.
+   */
+  public boolean observe(List<Object> row, long streamedBytes) {
+    long bytes = streamedBytes;
+    // Called for every row read, so sized by index and without converting values to text.
+    for (int i = 0; i < row.size(); i++) {
+      bytes += VALUE_OVERHEAD_BYTES + valueBytes(row.get(i));
+    }
+    averageRowBytes += SMOOTHING * (bytes - averageRowBytes);
+    if (++rowsSinceTune < fetchSize) {
+      return false;
+    }
+    rowsSinceTune = 0;
+    int tuned = sizeFor(averageRowBytes);
+    // Ignore small drifts so the size does not flap from batch to batch.
+    if (Math.abs(tuned - fetchSize) * 5 < fetchSize) {
+      return false;
+    }
+    fetchSize = tuned;
+    return true;
+  }
+
+  /**
+   * Heap size of a value's content: two bytes per character of text, the length of a byte array
+   * and a fixed width for anything else. Streamed blobs are counted by the caller.
+   */
+  static long valueBytes(Object value) {
+    if (value == null || value instanceof BlobKeySplitBean) {
+      return 0;
+    }
+    if (value instanceof CharSequence text) {
+      return 2L * text.length();
+    }
+    if (value instanceof byte[] bytes) {
+      return bytes.length;
+    }
+    return FIXED_VALUE_BYTES;
+  }
+
+  private int sizeFor(double rowBytes) {
+    long rows = (long) (budgetBytes / Math.max(1, rowBytes));
+    return (int) Math.max(MIN_FETCH_SIZE, Math.min(MAX_FETCH_SIZE, rows));
+  }
+}
@@ -0,0 +1,54 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+/**
+ * PostgreSQL types whose binary {@code COPY} representation {@link BinaryCopyReader} decodes, by
+ * type OID. Tables with a column of any other type are read through JDBC instead.
+ */
+public enum BinaryColumnType {
+  BOOL(16, Storage.BOOLEAN),
+  BYTEA(17, Storage.OBJECT),
+  NAME(19, Storage.OBJECT),
+  INT8(20, Storage.LONG),
+  INT2(21, Storage.LONG),
+  INT4(23, Storage.LONG),
+  TEXT(25, Storage.OBJECT),
+  FLOAT4(700, Storage.DOUBLE),
+  FLOAT8(701, Storage.DOUBLE),
+  BPCHAR(1042, Storage.OBJECT),
+  VARCHAR(1043, Storage.OBJECT),
+  DATE(1082, Storage.LONG),
+  TIMESTAMP(1114, Storage.LONG),
+  TIMESTAMPTZ(1184, Storage.LONG),
+  NUMERIC(1700, Storage.OBJECT),
+  UUID(2950, Storage.OBJECT);
+
+  /** Buffer a decoded value is kept in, see {@link ColumnBatch}. */
+  enum Storage {
+    LONG,
+    DOUBLE,
+    BOOLEAN,
+    OBJECT
+  }
+
+  private final long oid;
+  private final Storage storage;
+
+  BinaryColumnType(long oid, Storage storage) {
+    this.oid = oid;
+    this.storage = storage;
+  }
+
+  Storage getStorage() {
+    return storage;
+  }
+
+  /** Type with the given OID, or {@code null} if its binary form is not decoded. */
+  public static BinaryColumnType forOid(long oid) {
+    for (BinaryColumnType type : values()) {
+      if (type.oid == oid) {
+        return type;
+      }
+    }
+    return null;
+  }
+}
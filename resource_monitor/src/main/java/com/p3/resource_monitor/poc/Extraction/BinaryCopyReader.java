@@ -0,0 +1,196 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import org.postgresql.copy.CopyOut;
+import org.postgresql.copy.PGCopyInputStream;
+
+/**
+ * Decodes the tuples of a {@code COPY ... TO STDOUT WITH (FORMAT binary)} into a {@link
+ * ColumnBatch}, one batch at a time. Fixed-width values are read straight into the batch's
+ * primitive buffers; text, bytea, numeric and uuid values become one object each.
+ *
+ * <p>The stream is read through {@link PGCopyInputStream} because the file header and the first
+ * tuple arrive in the same COPY message. Closing the reader before the end cancels the copy.
+ */
+public class BinaryCopyReader implements Closeable {
+  private static final int BUFFER_BYTES = 256 * 1024;
+
+  private static final byte[] SIGNATURE = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0
+  };
+
+  /** Header flag bit set when every tuple carries the row OID. */
+  private static final int OIDS_FLAG = 1 << 16;
+
+  private static final int NUMERIC_NEGATIVE = 0x4000;
+  private static final int NUMERIC_NAN = 0xC000;
+  private static final int NUMERIC_POSITIVE_INFINITY = 0xD000;
+  private static final int NUMERIC_NEGATIVE_INFINITY = 0xF000;
+  private static final BigInteger NUMERIC_BASE = BigInteger.valueOf(10000);
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final DataInputStream in;
+  private boolean headerRead;
+  private boolean ended;
+
+  public BinaryCopyReader(CopyOut copyOut) {
+    this((InputStream) new PGCopyInputStream(copyOut));
+  }
+
+  /** Reads a binary COPY stream that has already been taken off the connection. */
+  BinaryCopyReader(InputStream stream) {
+    this.in = new DataInputStream(new BufferedInputStream(stream, BUFFER_BYTES));
+  }
+
+  /**
+   * Decodes up to {@link ColumnBatch#getCapacity()} tuples into {@code batch}, replacing what it
+   * held before.
+   *
+   * @return tuples decoded, {@code 0} once the copy has ended
+   */
+  public int read(ColumnBatch batch) throws IOException {
+    if (!headerRead) {
+      readHeader();
+      headerRead = true;
+    }
+    batch.clear();
+    while (!ended && batch.getSize() < batch.getCapacity()) {
+      short fields = in.readShort();
+      if (fields == -1) {
+        ended = true;
+        if (in.read() != -1) {
+          throw new IOException("Unexpected data after the binary COPY trailer");
+        }
+        break;
+      }
+      if (fields != batch.getColumnCount()) {
+        throw new IOException(
+            "Binary COPY tuple has " + fields + " fields, expected " + batch.getColumnCount());
+      }
+      int row = batch.getSize();
+      for (int column = 0; column < fields; column++) {
+        int length = in.readInt();
+        if (length == -1) {
+          batch.setNull(column, row);
+        } else {
+          readValue(batch, column, row, length);
+        }
+      }
+      batch.rowDecoded();
+    }
+    return batch.getSize();
+  }
+
+  private void readHeader() throws IOException {
+    byte[] signature = new byte[SIGNATURE.length];
+    in.readFully(signature);
+    if (!Arrays.equals(signature, SIGNATURE)) {
+      throw new IOException("Not a binary COPY stream");
+    }
+    int flags = in.readInt();
+    if ((flags & OIDS_FLAG) != 0) {
+      throw new IOException("Binary COPY with row OIDs is not supported");
+    }
+    in.skipNBytes(in.readInt());
+  }
+
+  private void readValue(ColumnBatch batch, int column, int row, int length) throws IOException {
+    switch (batch.getType(column)) {
+      case BOOL:
+        batch.setBoolean(column, row, in.readByte() != 0);
+        break;
+      case INT2:
+        batch.setLong(column, row, in.readShort());
+        break;
+      case INT4:
+      case DATE:
+        batch.setLong(column, row, in.readInt());
+        break;
+      case INT8:
+      case TIMESTAMP:
+      case TIMESTAMPTZ:
+        batch.setLong(column, row, in.readLong());
+        break;
+      case FLOAT4:
+        batch.setDouble(column, row, in.readFloat());
+        break;
+      case FLOAT8:
+        batch.setDouble(column, row, in.readDouble());
+        break;
+      case NUMERIC:
+        batch.setObject(column, row, readNumeric());
+        break;
+      case UUID:
+        batch.setObject(column, row, new UUID(in.readLong(), in.readLong()));
+        break;
+      case BYTEA:
+        batch.setObject(column, row, hex(readBytes(length)));
+        break;
+      default:
+        batch.setObject(column, row, new String(readBytes(length), StandardCharsets.UTF_8));
+    }
+  }
+
+  private byte[] readBytes(int length) throws IOException {
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  /**
+   * Numeric as base-10000 digits, the first of them at power {@code weight}. NaN and the
+   * infinities have no {@code BigDecimal} form and are returned as their text.
+   */
+  private Object readNumeric() throws IOException {
+    int digits = in.readUnsignedShort();
+    int weight = in.readShort();
+    int sign = in.readUnsignedShort();
+    int displayScale = in.readUnsignedShort();
+    switch (sign) {
+      case NUMERIC_NAN:
+        return "NaN";
+      case NUMERIC_POSITIVE_INFINITY:
+        return "Infinity";
+      case NUMERIC_NEGATIVE_INFINITY:
+        return "-Infinity";
+      default:
+        break;
+    }
+    BigInteger unscaled = BigInteger.ZERO;
+    for (int i = 0; i < digits; i++) {
+      unscaled = unscaled.multiply(NUMERIC_BASE).add(BigInteger.valueOf(in.readShort()));
+    }
+    BigDecimal value = new BigDecimal(unscaled).scaleByPowerOfTen(4 * (weight - digits + 1));
+    // The last base-10000 digit may carry zeros beyond the display scale.
+    value = value.setScale(displayScale, RoundingMode.DOWN);
+    return sign == NUMERIC_NEGATIVE ? value.negate() : value;
+  }
+
+  /** Bytea in the hex format PostgreSQL uses for its text output. */
+  private static String hex(byte[] bytes) {
+    char[] chars = new char[2 + 2 * bytes.length];
+    chars[0] = '\\';
+    chars[1] = 'x';
+    for (int i = 0; i < bytes.length; i++) {
+      chars[2 + 2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+      chars[3 + 2 * i] = HEX_DIGITS[bytes[i] & 0xF];
+    }
+    return new String(chars);
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
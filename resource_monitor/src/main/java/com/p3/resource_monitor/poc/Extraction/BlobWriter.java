@@ -0,0 +1,156 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.p3.export.options.ExportProgressListener;
+import com.p3.export.specifics.BlobKeySplitBean;
+import com.p3.export.utility.others.Utility;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams the binary columns of a table into files of their own, in the {@code BLOBs} folder
+ * layout of {@link Utility#createOutputFolderBlobs}, and puts a {@link BlobKeySplitBean}
+ * referencing the file in the row instead of the value. Values are copied from the driver's stream
+ * in chunks, so they are never held in the heap as a whole, let alone as hex text.
+ *
+ * <p>Not thread safe: each reader of a table, e.g. each range, has a writer of its own.
+ */
+@Slf4j
+public class BlobWriter {
+  private static final String BLOBS_FOLDER = "BLOBs";
+  private static final int BUFFER_BYTES = 64 * 1024;
+
+  /** From the data files in {@code DATA/<schema>-<table>} back up to the output directory. */
+  private static final String DATA_TO_OUTPUT = ".." + File.separator + ".." + File.separator;
+
+  private final String outputPath;
+  private final String schema;
+  private final String tableName;
+  private final String namePrefix;
+  private final ExportProgressListener progressListener;
+  private final byte[] buffer = new byte[BUFFER_BYTES];
+
+  /** Folder created last per column, so folders are only created once every 250 rows. */
+  private final Map<String, String> createdFolders = new HashMap<>();
+
+  private long row;
+  private long rowBytes;
+
+  /**
+   * @param outputPath output directory of the job
+   * @param namePrefix keeps the file names of concurrent writers of one table apart
+   * @param firstRow rows of the table exported before this writer's first row
+   * @param progressListener told about the bytes written, may be {@code null}
+   */
+  public BlobWriter(
+      String outputPath,
+      String schema,
+      String tableName,
+      String namePrefix,
+      long firstRow,
+      ExportProgressListener progressListener) {
+    this.outputPath = outputPath + File.separator;
+    this.schema = schema;
+    this.tableName = tableName;
+    this.namePrefix = namePrefix;
+    this.row = firstRow;
+    this.progressListener = progressListener;
+  }
+
+  /** Folder holding the files of every binary column of the table. */
+  public static String tableFolder(String outputPath, String schema, String tableName) {
+    return outputPath
+        + File.separator
+        + BLOBS_FOLDER
+        + File.separator
+        + Utility.checkValidFolder(schema.toUpperCase())
+        + "-"
+        + Utility.checkValidFolder(tableName.toUpperCase());
+  }
+
+  /**
+   * Copies column {@code index} (1-based) of the current row into a file. A value that cannot be
+   * read from the source is reported in the row through the error of its reference instead of
+   * failing the table.
+   *
+   * @return the reference to the file, or {@code null} for SQL NULL
+   * @throws IOException if the file cannot be created or written, e.g. because the disk is full;
+   *     the rows after it would fail the same way, so the table fails
+   */
+  public BlobKeySplitBean write(ResultSet resultSet, int index, String column)
+      throws SQLException, IOException {
+    InputStream value = resultSet.getBinaryStream(index);
+    if (value == null) {
+      return null;
+    }
+    String folder = Utility.createOutputFolderBlobs(schema, tableName, column, row, outputPath);
+    BlobKeySplitBean blob =
+        BlobKeySplitBean.builder().name(namePrefix + (row + 1) + ".bin").build();
+    blob.setRelativePath(
+        DATA_TO_OUTPUT + folder.substring(outputPath.length()) + blob.getOutputFileName());
+    try (InputStream in = value) {
+      if (!folder.equals(createdFolders.get(column))) {
+        Files.createDirectories(Path.of(folder));
+        createdFolders.put(column, folder);
+      }
+      copy(in, Path.of(folder, blob.getOutputFileName()));
+    } catch (SourceReadException e) {
+      log.warn(
+          "Could not read {} of row {} of {}: {}", column, row + 1, tableName, e.getMessage());
+      blob.setError(e.getMessage());
+    }
+    return blob;
+  }
+
+  /** Copies {@code in} into {@code file}, see {@link SourceReadException}. */
+  private void copy(InputStream in, Path file) throws IOException {
+    long bytes = 0;
+    try (OutputStream out = Files.newOutputStream(file)) {
+      int read;
+      while ((read = read(in)) != -1) {
+        out.write(buffer, 0, read);
+        bytes += read;
+      }
+    } finally {
+      rowBytes += bytes;
+      if (progressListener != null) {
+        progressListener.bytesWritten(bytes);
+      }
+    }
+  }
+
+  private int read(InputStream in) throws SourceReadException {
+    try {
+      return in.read(buffer);
+    } catch (IOException e) {
+      throw new SourceReadException(e);
+    }
+  }
+
+  /**
+   * Moves on to the next row once every binary column of the current one is written.
+   *
+   * @return bytes written for the row
+   */
+  public long rowDone() {
+    long bytes = rowBytes;
+    rowBytes = 0;
+    row++;
+    return bytes;
+  }
+
+  /** A value could not be read from the source, as opposed to a file that could not be written. */
+  private static class SourceReadException extends IOException {
+    SourceReadException(IOException cause) {
+      super(cause.getMessage(), cause);
+    }
+  }
+}
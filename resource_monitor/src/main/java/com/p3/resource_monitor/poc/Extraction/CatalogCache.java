@@ -0,0 +1,156 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.google.gson.Gson;
+import com.p3.resource_monitor.poc.beans.ConnectionBean;
+import com.p3.resource_monitor.poc.beans.JobInputBean;
+import com.p3.resource_monitor.poc.catalog.Catalog;
+import com.p3.resource_monitor.poc.catalog.CatalogTable;
+import com.p3.resource_monitor.poc.persistance.models.CatalogSnapshot;
+import com.p3.resource_monitor.poc.persistance.repos.CatalogSnapshotRepository;
+import com.p3.resource_monitor.poc.util.JDBCConnection;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Catalog of one source database kept across jobs. Each job still lists the tables of the source,
+ * which is cheap and keeps row estimates current, but only reads the columns and keys of tables
+ * whose fingerprint changed since the cached catalog, see {@link
+ * com.p3.resource_monitor.poc.dialect.SourceDialect#readCatalog(java.sql.Connection, Catalog)}.
+ *
+ * <p>The cache only saves work, so failing to load or store it never fails a job; the catalog is
+ * then read in full.
+ */
+@Slf4j
+public class CatalogCache {
+  private final CatalogSnapshotRepository repository;
+  private final String scope;
+  private final String jobId;
+
+  public CatalogCache(CatalogSnapshotRepository repository, String scope, String jobId) {
+    this.repository = repository;
+    this.scope = scope;
+    this.jobId = jobId;
+  }
+
+  /** Cache that keeps nothing, used when an extraction runs outside the dispatcher. */
+  public static CatalogCache disabled() {
+    return new CatalogCache(null, null, null);
+  }
+
+  /** The source database of the job. */
+  public static String scopeOf(JobInputBean inputBean) {
+    ConnectionBean connection = inputBean.getConnection();
+    return inputBean.getConnectionType()
+        + "://"
+        + connection.getHost()
+        + ":"
+        + connection.getPort()
+        + "/"
+        + connection.getDatabase();
+  }
+
+  /** Catalog of {@code source}, reusing what is unchanged since the cached one. */
+  public Catalog read(JDBCConnection source) throws SQLException {
+    if (repository == null || !source.supportsCatalogFingerprints()) {
+      return source.readCatalog();
+    }
+    CatalogSnapshot snapshot = load();
+    Catalog cached = snapshot == null ? null : decode(snapshot);
+    Catalog catalog = source.readCatalog(cached);
+    if (cached == null || !sameDefinitions(cached, catalog)) {
+      store(snapshot, catalog);
+    }
+    return catalog;
+  }
+
+  private CatalogSnapshot load() {
+    try {
+      return repository.findByScope(scope).orElse(null);
+    } catch (RuntimeException e) {
+      log.warn("Could not load cached catalog of {}: {}", scope, e.getMessage());
+      return null;
+    }
+  }
+
+  private Catalog decode(CatalogSnapshot snapshot) {
+    try (Reader reader =
+        new InputStreamReader(
+            new GZIPInputStream(new ByteArrayInputStream(snapshot.getCatalog())),
+            StandardCharsets.UTF_8)) {
+      Snapshot content = new Gson().fromJson(reader, Snapshot.class);
+      Catalog catalog = new Catalog();
+      content.schemas.forEach(catalog::addSchema);
+      content.tables.forEach(catalog::addTable);
+      return catalog;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Ignoring unreadable cached catalog of {}: {}", scope, e.getMessage());
+      return null;
+    }
+  }
+
+  private void store(CatalogSnapshot snapshot, Catalog catalog) {
+    Snapshot content = new Snapshot();
+    content.schemas = catalog.getSchemas();
+    content.tables = catalog.getTables();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (Writer writer =
+        new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+      new Gson().toJson(content, writer);
+    } catch (IOException e) {
+      log.warn("Could not encode catalog of {}: {}", scope, e.getMessage());
+      return;
+    }
+    CatalogSnapshot stored =
+        snapshot == null ? CatalogSnapshot.builder().scope(scope).build() : snapshot;
+    stored.setCatalog(bytes.toByteArray());
+    stored.setTableCount(content.tables.size());
+    stored.setJobId(jobId);
+    stored.setUpdatedAt(Instant.now());
+    try {
+      repository.save(stored);
+      log.info("Cached catalog of {} with {} tables", scope, content.tables.size());
+    } catch (RuntimeException e) {
+      // E.g. a concurrent job against the same database stored it first.
+      log.warn("Could not cache catalog of {}: {}", scope, e.getMessage());
+    }
+  }
+
+  /** Whether both catalogs hold the same schemas and tables with the same fingerprints. */
+  private static boolean sameDefinitions(Catalog cached, Catalog catalog) {
+    if (!cached.getSchemas().equals(catalog.getSchemas())) {
+      return false;
+    }
+    List<CatalogTable> tables = catalog.getTables();
+    if (tables.size() != cached.getTables().size()) {
+      return false;
+    }
+    for (CatalogTable table : tables) {
+      CatalogTable cachedTable = cached.getTable(table.getSchema(), table.getName());
+      if (cachedTable == null
+          || !Objects.equals(cachedTable.getFingerprint(), table.getFingerprint())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Stored form of a {@link Catalog}, whose tables are indexed twice. */
+  private static class Snapshot {
+    private List<String> schemas = new ArrayList<>();
+    private List<CatalogTable> tables = new ArrayList<>();
+  }
+}
@@ -0,0 +1,139 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.p3.resource_monitor.poc.persistance.models.ExtractionCheckpoint;
+import com.p3.resource_monitor.poc.persistance.repos.ExtractionCheckpointRepository;
+import com.p3.resource_monitor.poc.util.JDBCConnection;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records per-table checkpoints of one extraction job so that a restarted job can skip finished
+ * tables and continue large tables after the last fully written data file.
+ *
+ * <p>Checkpoints of keyed tables are only written when a data file is rolled over: at that point
+ * every row up to the previous key is in a closed file, so resuming never duplicates or loses rows.
+ */
+@Slf4j
+public class CheckpointTracker {
+  private final ExtractionCheckpointRepository repository;
+  private final String jobId;
+  private final Map<String, ExtractionCheckpoint> checkpoints = new ConcurrentHashMap<>();
+
+  /** Tables with at least this many estimated rows are read in key order so they can resume. */
+  @Getter private final long keyedTableMinRows;
+
+  public CheckpointTracker(
+      ExtractionCheckpointRepository repository, String jobId, long keyedTableMinRows) {
+    this.repository = repository;
+    this.jobId = jobId;
+    this.keyedTableMinRows = keyedTableMinRows;
+  }
+
+  /** Tracker that keeps nothing, used when an extraction runs outside the dispatcher. */
+  public static CheckpointTracker disabled() {
+    return new CheckpointTracker(null, null, Long.MAX_VALUE);
+  }
+
+  /**
+   * Loads the checkpoints left by a previous run of the job.
+   *
+   * @return {@code true} if there is anything to resume from
+   */
+  public boolean load() {
+    checkpoints.clear();
+    if (repository == null) {
+      return false;
+    }
+    for (ExtractionCheckpoint checkpoint : repository.findByJobId(jobId)) {
+      checkpoints.put(
+          JDBCConnection.tableKey(checkpoint.getSchemaName(), checkpoint.getTableName()),
+          checkpoint);
+    }
+    log.info("Loaded {} checkpoints for job {}", checkpoints.size(), jobId);
+    return !checkpoints.isEmpty();
+  }
+
+  /** Drops all checkpoints of the job, e.g. when its output directory no longer exists. */
+  public void reset() {
+    checkpoints.clear();
+    if (repository != null) {
+      repository.deleteByJobId(jobId);
+    }
+  }
+
+  public Collection<ExtractionCheckpoint> getAll() {
+    return checkpoints.values();
+  }
+
+  public boolean isTableCompleted(String schema, String tableName) {
+    ExtractionCheckpoint checkpoint = checkpoints.get(JDBCConnection.tableKey(schema, tableName));
+    return checkpoint != null && ExtractionCheckpoint.COMPLETED.equals(checkpoint.getStatus());
+  }
+
+  /** Checkpoint of the table, or {@code null} if a previous run never started it. */
+  public ExtractionCheckpoint get(String schema, String tableName) {
+    return checkpoints.get(JDBCConnection.tableKey(schema, tableName));
+  }
+
+  public void tableStarted(String schema, String tableName, String keyColumn) {
+    ExtractionCheckpoint checkpoint = checkpoint(schema, tableName);
+    checkpoint.setStatus(ExtractionCheckpoint.IN_PROGRESS);
+    checkpoint.setKeyColumn(keyColumn);
+    checkpoint.setLastKey(null);
+    checkpoint.setFilesCompleted(0L);
+    checkpoint.setRowsExported(0L);
+    save(checkpoint);
+  }
+
+  /**
+   * Records that {@code filesCompleted} data files of the table are closed and hold every row up to
+   * and including {@code lastKey}.
+   */
+  public void fileRolled(
+      String schema, String tableName, long filesCompleted, String lastKey, long rowsExported) {
+    ExtractionCheckpoint checkpoint = checkpoint(schema, tableName);
+    checkpoint.setFilesCompleted(filesCompleted);
+    checkpoint.setLastKey(lastKey);
+    checkpoint.setRowsExported(rowsExported);
+    save(checkpoint);
+  }
+
+  /** Records the watermark the table is read up to, see {@link WatermarkStore}. */
+  public void watermarkPlanned(
+      String schema, String tableName, String watermarkColumn, String watermark) {
+    ExtractionCheckpoint checkpoint = checkpoint(schema, tableName);
+    checkpoint.setWatermarkColumn(watermarkColumn);
+    checkpoint.setWatermark(watermark);
+    save(checkpoint);
+  }
+
+  public void tableCompleted(String schema, String tableName, long rowsExported) {
+    ExtractionCheckpoint checkpoint = checkpoint(schema, tableName);
+    checkpoint.setStatus(ExtractionCheckpoint.COMPLETED);
+    checkpoint.setRowsExported(rowsExported);
+    save(checkpoint);
+  }
+
+  private ExtractionCheckpoint checkpoint(String schema, String tableName) {
+    return checkpoints.computeIfAbsent(
+        JDBCConnection.tableKey(schema, tableName),
+        key ->
+            ExtractionCheckpoint.builder()
+                .jobId(jobId)
+                .schemaName(schema)
+                .tableName(tableName)
+                .build());
+  }
+
+  private void save(ExtractionCheckpoint checkpoint) {
+    checkpoint.setUpdatedAt(Instant.now());
+    if (repository != null) {
+      ExtractionCheckpoint saved = repository.save(checkpoint);
+      checkpoint.setId(saved.getId());
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.p3.export.specifics.DataType;
+import com.p3.export.specifics.ExportRow;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.postgresql.PGStatement;
+
+/**
+ * Column-major buffers for a batch of rows decoded by {@link BinaryCopyReader}. Integers, dates and
+ * timestamps are kept in {@code long} arrays, floats in {@code double} arrays and booleans in
+ * {@code boolean} arrays, so decoding allocates nothing for them; the arrays are reused from batch
+ * to batch. Values are only boxed when a row is handed to an export engine by {@link #row}.
+ */
+public class ColumnBatch {
+  private static final LocalDate POSTGRES_EPOCH_DATE = LocalDate.of(2000, 1, 1);
+  private static final long POSTGRES_EPOCH_SECONDS = 946684800L;
+
+  private final BinaryColumnType[] types;
+  private final DataType[] targets;
+  private final int capacity;
+  private final long[][] longs;
+  private final double[][] doubles;
+  private final boolean[][] booleans;
+  private final Object[][] objects;
+  private final boolean[][] nulls;
+  private int size;
+
+  /**
+   * @param types decoded type of each column
+   * @param targets export data type of each column, see {@link ColumnTypeMapper}
+   * @param capacity rows per batch
+   */
+  public ColumnBatch(List<BinaryColumnType> types, List<DataType> targets, int capacity) {
+    int columns = types.size();
+    this.types = types.toArray(new BinaryColumnType[0]);
+    this.targets = targets.toArray(new DataType[0]);
+    this.capacity = capacity;
+    longs = new long[columns][];
+    doubles = new double[columns][];
+    booleans = new boolean[columns][];
+    objects = new Object[columns][];
+    nulls = new boolean[columns][capacity];
+    for (int column = 0; column < columns; column++) {
+      switch (this.types[column].getStorage()) {
+        case LONG:
+          longs[column] = new long[capacity];
+          break;
+        case DOUBLE:
+          doubles[column] = new double[capacity];
+          break;
+        case BOOLEAN:
+          booleans[column] = new boolean[capacity];
+          break;
+        default:
+          objects[column] = new Object[capacity];
+      }
+    }
+  }
+
+  public int getColumnCount() {
+    return types.length;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  BinaryColumnType getType(int column) {
+    return types[column];
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  /** Completes the row currently being decoded at index {@link #getSize()}. */
+  void rowDecoded() {
+    size++;
+  }
+
+  void setNull(int column, int row) {
+    nulls[column][row] = true;
+  }
+
+  void setLong(int column, int row, long value) {
+    nulls[column][row] = false;
+    longs[column][row] = value;
+  }
+
+  void setDouble(int column, int row, double value) {
+    nulls[column][row] = false;
+    doubles[column][row] = value;
+  }
+
+  void setBoolean(int column, int row, boolean value) {
+    nulls[column][row] = false;
+    booleans[column][row] = value;
+  }
+
+  void setObject(int column, int row, Object value) {
+    nulls[column][row] = false;
+    objects[column][row] = value;
+  }
+
+  /**
+   * Fills {@code values} with row {@code row} of the batch, each value in the Java type of its
+   * export data type.
+   */
+  public void row(int row, ExportRow values) {
+    for (int column = 0; column < types.length; column++) {
+      values.set(column, nulls[column][row] ? null : convert(value(column, row), targets[column]));
+    }
+  }
+
+  /** Value in its natural Java type, the way the PostgreSQL driver would return it. */
+  private Object value(int column, int row) {
+    switch (types[column]) {
+      case BOOL:
+        return booleans[column][row];
+      case INT2:
+      case INT4:
+      case INT8:
+        return longs[column][row];
+      case FLOAT4:
+      case FLOAT8:
+        return doubles[column][row];
+      case DATE:
+        return date(longs[column][row]);
+      case TIMESTAMP:
+        return timestamp(longs[column][row], false);
+      case TIMESTAMPTZ:
+        return timestamp(longs[column][row], true);
+      default:
+        return objects[column][row];
+    }
+  }
+
+  /**
+   * Value of a column in the server's text form, e.g. for a literal the server reads back as the
+   * same value. Unlike the export value it is not narrowed to the export data type, and timestamps
+   * do not depend on the JVM's time zone. {@code null} for SQL {@code NULL}.
+   */
+  String text(int column, int row) {
+    if (nulls[column][row]) {
+      return null;
+    }
+    switch (types[column]) {
+      case BOOL:
+        return booleans[column][row] ? "t" : "f";
+      case INT2:
+      case INT4:
+      case INT8:
+        return Long.toString(longs[column][row]);
+      case FLOAT4:
+        return Float.toString((float) doubles[column][row]);
+      case FLOAT8:
+        return Double.toString(doubles[column][row]);
+      case DATE:
+        return dateText(longs[column][row]);
+      case TIMESTAMP:
+        return timestampText(longs[column][row], false);
+      case TIMESTAMPTZ:
+        return timestampText(longs[column][row], true);
+      default:
+        Object value = objects[column][row];
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+    }
+  }
+
+  private static Object convert(Object value, DataType target) {
+    switch (target) {
+      case NUMBER:
+        return value instanceof Number number ? number.longValue() : value;
+      case DECIMAL:
+        return value instanceof Number number ? number.doubleValue() : value;
+      case DATE:
+      case DATETIME:
+      case BOOLEAN:
+        return value;
+      default:
+        if (value instanceof BigDecimal decimal) {
+          return decimal.toPlainString();
+        }
+        if (value instanceof Boolean bool) {
+          return bool ? "t" : "f";
+        }
+        return value.toString();
+    }
+  }
+
+  /** Days since 2000-01-01, with the driver's constants for {@code infinity}. */
+  private static Date date(long days) {
+    if (days == Integer.MAX_VALUE) {
+      return new Date(PGStatement.DATE_POSITIVE_INFINITY);
+    }
+    if (days == Integer.MIN_VALUE) {
+      return new Date(PGStatement.DATE_NEGATIVE_INFINITY);
+    }
+    return Date.valueOf(POSTGRES_EPOCH_DATE.plusDays(days));
+  }
+
+  private static String dateText(long days) {
+    if (days == Integer.MAX_VALUE) {
+      return "infinity";
+    }
+    if (days == Integer.MIN_VALUE) {
+      return "-infinity";
+    }
+    return POSTGRES_EPOCH_DATE.plusDays(days).toString();
+  }
+
+  /** ISO 8601 text, in UTC for {@code timestamptz}. */
+  private static String timestampText(long micros, boolean withTimeZone) {
+    if (micros == Long.MAX_VALUE) {
+      return "infinity";
+    }
+    if (micros == Long.MIN_VALUE) {
+      return "-infinity";
+    }
+    LocalDateTime dateTime = localDateTime(micros);
+    return withTimeZone ? dateTime.atOffset(ZoneOffset.UTC).toString() : dateTime.toString();
+  }
+
+  /**
+   * Microseconds since 2000-01-01 00:00. Without a time zone the value is a wall clock time and is
+   * read in the JVM's zone, like {@code getTimestamp} does; with one it is an instant in UTC.
+   */
+  private static Timestamp timestamp(long micros, boolean withTimeZone) {
+    if (micros == Long.MAX_VALUE) {
+      return new Timestamp(PGStatement.DATE_POSITIVE_INFINITY);
+    }
+    if (micros == Long.MIN_VALUE) {
+      return new Timestamp(PGStatement.DATE_NEGATIVE_INFINITY);
+    }
+    LocalDateTime dateTime = localDateTime(micros);
+    if (withTimeZone) {
+      return Timestamp.from(dateTime.toInstant(ZoneOffset.UTC));
+    }
+    return Timestamp.valueOf(dateTime);
+  }
+
+  /** Microseconds since 2000-01-01 00:00 as a date and time without a zone. */
+  private static LocalDateTime localDateTime(long micros) {
+    long seconds = POSTGRES_EPOCH_SECONDS + Math.floorDiv(micros, 1_000_000L);
+    int nanos = (int) Math.floorMod(micros, 1_000_000L) * 1000;
+    return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+  }
+}
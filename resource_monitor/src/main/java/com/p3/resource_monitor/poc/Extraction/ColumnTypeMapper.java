@@ -0,0 +1,141 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.p3.export.options.ColumnInfo;
+import com.p3.export.specifics.DataType;
+import com.p3.export.specifics.ExcelSpecificDataType;
+import com.p3.resource_monitor.poc.catalog.CatalogColumn;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Maps the JDBC type of a source column to the export data types and reads its values in their
+ * native Java type, so engines that write typed columns (Parquet, Excel) get numbers and dates
+ * instead of text they have to parse back.
+ *
+ * <p>Types without a lossless native mapping stay {@link DataType#STRING} and are read with {@code
+ * getString}. That includes numerics wider than a {@code double}. Binary columns are {@link
+ * DataType#BLOB}s, which are not read into the row at all but streamed to files by a {@link
+ * BlobWriter}.
+ */
+public final class ColumnTypeMapper {
+  /** Significant digits a {@code double} holds without rounding. */
+  private static final int MAX_DOUBLE_PRECISION = 15;
+
+  /** Significant digits a {@code long} always holds. */
+  private static final int MAX_LONG_PRECISION = 18;
+
+  private ColumnTypeMapper() {}
+
+  /** Export column of a catalog column, with its data type and Excel cell type. */
+  public static ColumnInfo columnInfo(CatalogColumn column) {
+    DataType dataType =
+        dataType(
+            column.getDataType(),
+            column.getTypeName(),
+            column.getColumnSize(),
+            column.getDecimalDigits());
+    return ColumnInfo.builder()
+        .column(column.getName())
+        .dataType(dataType)
+        .excelDataType(excelDataType(dataType))
+        .build();
+  }
+
+  /**
+   * @param jdbcType {@code DATA_TYPE} from {@code DatabaseMetaData.getColumns}
+   * @param typeName {@code TYPE_NAME}, used where drivers report several types under one code
+   * @param precision {@code COLUMN_SIZE}
+   * @param scale {@code DECIMAL_DIGITS}
+   */
+  public static DataType dataType(int jdbcType, String typeName, int precision, int scale) {
+    switch (jdbcType) {
+      case Types.TINYINT:
+      case Types.SMALLINT:
+      case Types.INTEGER:
+      case Types.BIGINT:
+        return DataType.NUMBER;
+      case Types.REAL:
+      case Types.FLOAT:
+      case Types.DOUBLE:
+        return DataType.DECIMAL;
+      case Types.NUMERIC:
+      case Types.DECIMAL:
+        if (precision <= 0) {
+          return DataType.STRING;
+        }
+        if (scale == 0 && precision <= MAX_LONG_PRECISION) {
+          return DataType.NUMBER;
+        }
+        return precision <= MAX_DOUBLE_PRECISION ? DataType.DECIMAL : DataType.STRING;
+      case Types.DATE:
+        return DataType.DATE;
+      case Types.TIMESTAMP:
+      case Types.TIMESTAMP_WITH_TIMEZONE:
+        return DataType.DATETIME;
+      case Types.BOOLEAN:
+        return DataType.BOOLEAN;
+      case Types.BINARY:
+      case Types.VARBINARY:
+      case Types.LONGVARBINARY:
+      case Types.BLOB:
+        return DataType.BLOB;
+      case Types.BIT:
+        // PostgreSQL reports both boolean and bit(n) as BIT.
+        return "bool".equalsIgnoreCase(typeName) || "boolean".equalsIgnoreCase(typeName)
+            ? DataType.BOOLEAN
+            : DataType.STRING;
+      default:
+        return DataType.STRING;
+    }
+  }
+
+  public static ExcelSpecificDataType excelDataType(DataType dataType) {
+    switch (dataType) {
+      case NUMBER:
+        return ExcelSpecificDataType.NUMBER;
+      case DECIMAL:
+        return ExcelSpecificDataType.DOUBLE;
+      case DATE:
+        return ExcelSpecificDataType.DATE;
+      case DATETIME:
+        return ExcelSpecificDataType.DATETIME;
+      default:
+        return ExcelSpecificDataType.STRING;
+    }
+  }
+
+  /** Whether the column is a {@link DataType#BLOB} to stream to files. */
+  public static boolean isBlob(CatalogColumn column) {
+    return columnInfo(column).getDataType() == DataType.BLOB;
+  }
+
+  /**
+   * Reads column {@code index} (1-based) of the current row as the type chosen by {@link
+   * #dataType}. Not for {@link DataType#BLOB}s, see {@link BlobWriter#write}.
+   *
+   * @return the value, or {@code null} for SQL NULL
+   */
+  public static Object read(ResultSet resultSet, int index, DataType dataType)
+      throws SQLException {
+    switch (dataType) {
+      case NUMBER:
+        long longValue = resultSet.getLong(index);
+        return resultSet.wasNull() ? null : longValue;
+      case DECIMAL:
+        double doubleValue = resultSet.getDouble(index);
+        return resultSet.wasNull() ? null : doubleValue;
+      case BOOLEAN:
+        boolean booleanValue = resultSet.getBoolean(index);
+        return resultSet.wasNull() ? null : booleanValue;
+      case DATE:
+        return resultSet.getDate(index);
+      case DATETIME:
+        return resultSet.getTimestamp(index);
+      case BLOB:
+        throw new IllegalArgumentException("Binary column " + index + " must be streamed");
+      default:
+        return resultSet.getString(index);
+    }
+  }
+}
@@ -0,0 +1,167 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.p3.export.formatter.ExportFormat;
+import com.p3.export.options.ExportProgressListener;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes the rows of a {@code COPY ... TO STDOUT WITH (FORMAT csv)} into rolled data files named
+ * like the export engine's ({@code <title>-00000001.csv}), each starting with a header row.
+ *
+ * <p>PostgreSQL sends every row of a COPY out as a message of its own, so files are rolled at row
+ * boundaries without scanning the bytes, and rows are written exactly as received.
+ */
+public class CopyOutWriter implements Closeable {
+  private static final int BUFFER_BYTES = 256 * 1024;
+  private static final byte QUOTE = '"';
+
+  private final String folder;
+  private final String title;
+  private final String extension;
+  private final byte delimiter;
+  private final byte[] header;
+  private final long recordsPerFile;
+  private final long bytesPerFile;
+  private final ExportProgressListener progress;
+
+  private long fileCount;
+  private OutputStream out;
+  private long fileRecords;
+  private long fileBytes;
+
+  /**
+   * Opens the first file right away, so an empty result still leaves a file with a header like the
+   * export engine does.
+   *
+   * @param startFileIndex files already written by an earlier run; numbering continues after them
+   */
+  public CopyOutWriter(
+      String folder,
+      String title,
+      ExportFormat format,
+      List<String> columnNames,
+      long recordsPerFile,
+      long bytesPerFile,
+      long startFileIndex,
+      ExportProgressListener progress)
+      throws IOException {
+    this.folder = folder;
+    this.title = title;
+    this.extension = format.getExtension();
+    this.delimiter = delimiterOf(format);
+    this.header = headerRow(columnNames, delimiter);
+    this.recordsPerFile = recordsPerFile;
+    this.bytesPerFile = bytesPerFile;
+    this.progress = progress;
+    this.fileCount = startFileIndex;
+    openNextFile();
+  }
+
+  /** Field delimiter of the COPY output for {@code format}: a tab for tsv, a comma otherwise. */
+  private static byte delimiterOf(ExportFormat format) {
+    return (byte) (format == ExportFormat.tsv ? '\t' : ',');
+  }
+
+  /** Files opened so far, including those of earlier runs, like {@code ExportEngine}. */
+  public long getFileCount() {
+    return fileCount;
+  }
+
+  /** Writes one row, first rolling over to a new file when the current one is full. */
+  public void write(byte[] row) throws IOException {
+    if (fileRecords >= recordsPerFile || fileBytes >= bytesPerFile) {
+      openNextFile();
+    }
+    out.write(row);
+    fileRecords++;
+    fileBytes += row.length;
+    if (progress != null) {
+      progress.recordsWritten(1);
+      progress.bytesWritten(row.length);
+    }
+  }
+
+  /** Unquoted value of field {@code index} of a row written by this writer. */
+  public String field(byte[] row, int index) {
+    ByteArrayOutputStream value = new ByteArrayOutputStream();
+    int field = 0;
+    boolean quoted = false;
+    for (int i = 0; i < row.length && field <= index; i++) {
+      byte b = row[i];
+      if (quoted) {
+        if (b != QUOTE) {
+          write(value, b, field == index);
+        } else if (i + 1 < row.length && row[i + 1] == QUOTE) {
+          write(value, b, field == index);
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (b == QUOTE) {
+        quoted = true;
+      } else if (b == delimiter || b == '\n' || b == '\r') {
+        field++;
+      } else {
+        write(value, b, field == index);
+      }
+    }
+    return value.toString(StandardCharsets.UTF_8);
+  }
+
+  private static void write(ByteArrayOutputStream value, byte b, boolean selected) {
+    if (selected) {
+      value.write(b);
+    }
+  }
+
+  private void openNextFile() throws IOException {
+    if (out != null) {
+      out.close();
+    }
+    fileCount++;
+    String path =
+        folder + File.separator + title + "-" + String.format("%08d", fileCount) + extension;
+    out = new BufferedOutputStream(new FileOutputStream(path), BUFFER_BYTES);
+    out.write(header);
+    fileRecords = 0;
+    fileBytes = header.length;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (out != null) {
+      out.close();
+      out = null;
+    }
+  }
+
+  /** Header row quoted the way COPY quotes values. */
+  private static byte[] headerRow(List<String> columnNames, byte delimiter) {
+    StringBuilder row = new StringBuilder();
+    for (String columnName : columnNames) {
+      if (row.length() > 0) {
+        row.append((char) delimiter);
+      }
+      boolean quote =
+          columnName.isEmpty()
+              || columnName.indexOf(delimiter) >= 0
+              || columnName.indexOf(QUOTE) >= 0
+              || columnName.indexOf('\n') >= 0
+              || columnName.indexOf('\r') >= 0;
+      if (quote) {
+        row.append('"').append(columnName.replace("\"", "\"\"")).append('"');
+      } else {
+        row.append(columnName);
+      }
+    }
+    return row.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
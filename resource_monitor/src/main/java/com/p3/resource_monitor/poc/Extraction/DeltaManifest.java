@@ -0,0 +1,26 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Written as {@code DELTA.json} next to the data files of a table read by watermark. The files
+ * hold the rows whose watermark is above {@code after} (all rows when it is absent) and at most
+ * {@code upTo}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeltaManifest {
+  public static final String FILE_NAME = "DELTA.json";
+
+  private String schema;
+  private String table;
+  private String watermarkColumn;
+  private String after;
+  private String upTo;
+  private long rows;
+}
@@ -0,0 +1,15 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.p3.resource_monitor.poc.beans.JobStatus;
+import lombok.Getter;
+
+/** Thrown out of the extraction loops once a stop was requested for the running job. */
+@Getter
+public class ExtractionCancelledException extends RuntimeException {
+  private final JobStatus status;
+
+  public ExtractionCancelledException(JobStatus status, String reason) {
+    super(reason);
+    this.status = status;
+  }
+}
@@ -0,0 +1,162 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.p3.resource_monitor.poc.beans.JobStatus;
+import com.p3.resource_monitor.poc.util.SourceConnectionRegistry;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/** Per-job state shared between the dispatcher and a running {@link ProcessExtraction}. */
+@Slf4j
+@Getter
+public class ExtractionContext {
+  private final String jobId;
+  private final JobProgress progress = new JobProgress();
+  private final Set<Statement> runningStatements = ConcurrentHashMap.newKeySet();
+  private final Set<QueryCanceller> runningCopies = ConcurrentHashMap.newKeySet();
+
+  /** Wall clock limit for the job, {@code null} when unbounded. */
+  @Setter private Instant deadline;
+
+  /** Run directory to write into; reused when the job is resumed. */
+  @Setter private String outputPath;
+
+  @Setter private CheckpointTracker checkpoints = CheckpointTracker.disabled();
+
+  @Setter private WatermarkStore watermarks = WatermarkStore.disabled();
+
+  @Setter private CatalogCache catalogCache = CatalogCache.disabled();
+
+  /** Source connection pools of the instance, shared with the other jobs. */
+  @Setter private SourceConnectionRegistry sourceConnections = SourceConnectionRegistry.disabled();
+
+  /** Tables with at least this many estimated rows are exported as concurrent ranges. */
+  @Setter private long rangeSplitMinRows = Long.MAX_VALUE;
+
+  @Setter private int rangesPerTable = 4;
+
+  /**
+   * Also split tables below {@link #rangeSplitMinRows} when a parallel job's plan finds them to
+   * cost more than a worker's share of the job, see {@link ExtractionPlan}.
+   */
+  @Setter private boolean splitDominantTables;
+
+  /**
+   * Heap the job may use for rows fetched but not yet written, shared by all of its cursors. Rows
+   * are streamed through server-side cursors sized to stay within it.
+   */
+  @Setter private long fetchMemoryBudgetBytes = 64L * 1024 * 1024;
+
+  /** Stream csv/tsv table data from PostgreSQL with {@code COPY ... TO STDOUT}. */
+  @Setter private boolean copyEnabled;
+
+  /**
+   * Row batches in flight between the thread reading a JDBC result set and the one writing its
+   * rows. Together they hold about half of a cursor's share of the fetch memory budget.
+   */
+  @Setter private int pipelineBatches = 4;
+
+  public boolean isRangeSplitEnabled() {
+    return rangesPerTable > 1 && (rangeSplitMinRows < Long.MAX_VALUE || splitDominantTables);
+  }
+
+  private volatile JobStatus stopStatus;
+  private volatile String stopReason;
+
+  public ExtractionContext(String jobId) {
+    this.jobId = jobId;
+  }
+
+  public boolean isStopRequested() {
+    return stopStatus != null;
+  }
+
+  public boolean isPastDeadline(Instant now) {
+    return deadline != null && now.isAfter(deadline);
+  }
+
+  /**
+   * Asks the extraction to stop and cancels any query it is currently blocked on. Only the first
+   * request is kept, so a timeout racing a user cancel reports whichever happened first.
+   */
+  public void requestStop(JobStatus status, String reason) {
+    synchronized (this) {
+      if (stopStatus != null) {
+        return;
+      }
+      stopReason = reason;
+      stopStatus = status;
+    }
+    log.info("Stopping job {} ({}): {}", jobId, status, reason);
+    for (Statement statement : runningStatements) {
+      try {
+        statement.cancel();
+      } catch (SQLException e) {
+        log.warn("Could not cancel running statement for job {}: {}", jobId, e.getMessage());
+      }
+    }
+    for (QueryCanceller copy : runningCopies) {
+      cancel(copy);
+    }
+  }
+
+  /** Throws {@link ExtractionCancelledException} if a stop was requested. */
+  public void checkStopped() {
+    if (stopStatus != null) {
+      throw stopException();
+    }
+  }
+
+  public ExtractionCancelledException stopException() {
+    return new ExtractionCancelledException(stopStatus, stopReason);
+  }
+
+  public void registerStatement(Statement statement) {
+    runningStatements.add(statement);
+    if (isStopRequested()) {
+      try {
+        statement.cancel();
+      } catch (SQLException e) {
+        log.warn("Could not cancel running statement for job {}: {}", jobId, e.getMessage());
+      }
+    }
+  }
+
+  public void unregisterStatement(Statement statement) {
+    runningStatements.remove(statement);
+  }
+
+  /**
+   * Registers a running {@code COPY}, which has no {@link Statement} to cancel. The canceller must
+   * be safe to call from another thread while the copy is blocked reading.
+   */
+  public void registerCopy(QueryCanceller copy) {
+    runningCopies.add(copy);
+    if (isStopRequested()) {
+      cancel(copy);
+    }
+  }
+
+  public void unregisterCopy(QueryCanceller copy) {
+    runningCopies.remove(copy);
+  }
+
+  private void cancel(QueryCanceller copy) {
+    try {
+      copy.cancel();
+    } catch (SQLException e) {
+      log.warn("Could not cancel running copy for job {}: {}", jobId, e.getMessage());
+    }
+  }
+
+  /** Cancels a query running on another thread, e.g. through the driver's cancel request. */
+  @FunctionalInterface
+  public interface QueryCanceller {
+    void cancel() throws SQLException;
+  }
+}
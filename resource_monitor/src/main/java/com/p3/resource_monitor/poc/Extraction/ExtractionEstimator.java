@@ -0,0 +1,277 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.p3.export.formatter.ExportFormat;
+import com.p3.export.operation.ExportEngine;
+import com.p3.export.options.ColumnInfo;
+import com.p3.export.options.ExportProgressListener;
+import com.p3.export.specifics.ExportRow;
+import com.p3.export.utility.others.FileUtil;
+import com.p3.resource_monitor.poc.beans.ExtractionEstimate;
+import com.p3.resource_monitor.poc.beans.JobInputBean;
+import com.p3.resource_monitor.poc.beans.SamplingMethod;
+import com.p3.resource_monitor.poc.catalog.Catalog;
+import com.p3.resource_monitor.poc.catalog.CatalogColumn;
+import com.p3.resource_monitor.poc.catalog.CatalogFilter;
+import com.p3.resource_monitor.poc.catalog.CatalogTable;
+import com.p3.resource_monitor.poc.dialect.TableSample;
+import com.p3.resource_monitor.poc.util.JDBCConnection;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Projects what extracting a job input would produce, without extracting it. Rows come from the
+ * catalog estimates, bytes per row from a sample of each table written through the job's export
+ * engine into a scratch directory, and files from the record and size limits the extraction rolls
+ * its data files at. Tables the source can sample are sampled from random pages, the others from
+ * their first rows.
+ */
+@Slf4j
+public class ExtractionEstimator {
+  static final int SAMPLE_ROWS = 200;
+
+  /**
+   * Rows a table sample aims for, above {@link #SAMPLE_ROWS} since page samples vary in size. The
+   * rows past {@code SAMPLE_ROWS} are cut off by the limit.
+   */
+  private static final int TABLE_SAMPLE_ROWS = 2 * SAMPLE_ROWS;
+
+  /** Room the text engines leave below the size limit, {@code ExportEngine}'s thresholdSize. */
+  private static final long ROLL_HEADROOM_BYTES = 500L * 1024;
+
+  /**
+   * @param observedBytesPerSecond throughput of recent extractions to project the duration with,
+   *     or {@code null} when there is none
+   */
+  public ExtractionEstimate estimate(
+      JobInputBean inputBean, ExtractionContext context, Double observedBytesPerSecond)
+      throws Exception {
+    ExportFormat format =
+        Objects.requireNonNullElse(inputBean.getExportFormat(), ExportFormat.csv);
+    long maxRows =
+        inputBean.getMaxRowsPerTable() != null && inputBean.getMaxRowsPerTable() >= 0
+            ? inputBean.getMaxRowsPerTable()
+            : JDBCConnection.NO_LIMIT;
+    if (inputBean.getSampleRows() != null && inputBean.getSampleRows() >= 0) {
+      maxRows =
+          maxRows == JDBCConnection.NO_LIMIT
+              ? inputBean.getSampleRows()
+              : Math.min(maxRows, inputBean.getSampleRows());
+    }
+    JDBCConnection source =
+        new JDBCConnection(
+            inputBean.getConnection(),
+            inputBean.getConnectionType(),
+            1,
+            context.getSourceConnections());
+    Path scratch = Files.createTempDirectory("estimate-");
+    try {
+      CatalogFilter catalogFilter = new CatalogFilter(inputBean.getSelection());
+      Catalog catalog = catalogFilter.apply(context.getCatalogCache().read(source));
+      ExtractionEstimate estimate =
+          ExtractionEstimate.builder()
+              .exportFormat(format.name())
+              .observedBytesPerSecond(observedBytesPerSecond)
+              .build();
+      int index = 0;
+      for (CatalogTable table : catalog.getTables()) {
+        context.checkStopped();
+        Path sampleDir = Files.createDirectory(scratch.resolve(String.valueOf(index++)));
+        ExtractionEstimate.TableEstimate tableEstimate =
+            estimateTable(source, table, catalogFilter, format, maxRows, sampleDir);
+        estimate.getTableEstimates().add(tableEstimate);
+        estimate.setTables(estimate.getTables() + 1);
+        estimate.setRows(estimate.getRows() + tableEstimate.getRows());
+        estimate.setOutputBytes(estimate.getOutputBytes() + tableEstimate.getOutputBytes());
+        estimate.setFiles(estimate.getFiles() + tableEstimate.getFiles());
+      }
+      estimate.setFreeDiskBytes(usableSpace(inputBean.getOutputDir()));
+      if (observedBytesPerSecond != null && observedBytesPerSecond > 0) {
+        estimate.setEstimatedSeconds(
+            Math.round(estimate.getOutputBytes() / observedBytesPerSecond));
+      }
+      log.info(
+          "Estimated {} rows, {} bytes in {} files for {} tables",
+          estimate.getRows(),
+          estimate.getOutputBytes(),
+          estimate.getFiles(),
+          estimate.getTables());
+      return estimate;
+    } finally {
+      FileUtil.deleteDirectory(scratch.toFile());
+      source.closeConnection();
+    }
+  }
+
+  /**
+   * Rows of a table with a selection filter are still its row estimate, since what share of the
+   * table the filter keeps is unknown, so its estimate is an upper bound.
+   */
+  private ExtractionEstimate.TableEstimate estimateTable(
+      JDBCConnection source,
+      CatalogTable table,
+      CatalogFilter catalogFilter,
+      ExportFormat format,
+      long maxRows,
+      Path sampleDir)
+      throws Exception {
+    String filter = catalogFilter.getTableFilter(table.getSchema(), table.getName());
+    List<ColumnInfo> columnInfoList = new ArrayList<>();
+    List<Integer> columnSizes = new ArrayList<>();
+    for (CatalogColumn column : table.getColumns()) {
+      columnInfoList.add(ColumnTypeMapper.columnInfo(column));
+      columnSizes.add(column.getColumnSize());
+    }
+    long sampledRows = 0;
+    double bytesPerRow;
+    long rows;
+    try {
+      TableSample tableSample =
+          source.supportsTableSample(table.getType())
+              ? TableSample.of(
+                  SamplingMethod.SYSTEM, TABLE_SAMPLE_ROWS, table.getRowEstimate(), null)
+              : null;
+      SampleBytes sampleBytes = new SampleBytes();
+      sampledRows =
+          sample(
+              source, table, columnInfoList, tableSample, filter, format, sampleDir, sampleBytes);
+      if (sampledRows == 0 && tableSample != null) {
+        // The sampled pages held no matching rows; the first ones of the table will have to do.
+        tableSample = null;
+        sampleBytes = new SampleBytes();
+        Path headDir = Files.createDirectory(sampleDir.resolve("head"));
+        sampledRows =
+            sample(source, table, columnInfoList, null, filter, format, headDir, sampleBytes);
+      }
+      bytesPerRow = sampledRows == 0 ? 0 : (double) sampleBytes.bytes / sampledRows;
+      // A limited read short of what was asked for is the whole table, whatever the statistics
+      // say. A short sample only means the sampled pages were sparse.
+      rows =
+          tableSample == null && sampledRows < SAMPLE_ROWS
+              ? sampledRows
+              : Math.max(table.getRowEstimate(), sampledRows);
+    } catch (SQLException e) {
+      log.warn(
+          "Could not sample {}, estimating from declared column sizes: {}",
+          JDBCConnection.tableKey(table.getSchema(), table.getName()),
+          e.getMessage());
+      bytesPerRow = AdaptiveFetchSizer.estimateRowBytes(columnSizes);
+      rows = table.getRowEstimate();
+    }
+    if (maxRows != JDBCConnection.NO_LIMIT) {
+      rows = Math.min(rows, maxRows);
+    }
+    long outputBytes = Math.round(rows * bytesPerRow);
+    return ExtractionEstimate.TableEstimate.builder()
+        .schema(table.getSchema())
+        .table(table.getName())
+        .rows(rows)
+        .sampledRows(sampledRows)
+        .bytesPerRow(bytesPerRow)
+        .outputBytes(outputBytes)
+        .files(files(rows, outputBytes))
+        .build();
+  }
+
+  /**
+   * Writes up to {@link #SAMPLE_ROWS} rows of {@code tableSample}, or the first rows of the table
+   * without one, that match {@code filter} with the export engine of the job's format.
+   */
+  private long sample(
+      JDBCConnection source,
+      CatalogTable table,
+      List<ColumnInfo> columnInfoList,
+      TableSample tableSample,
+      String filter,
+      ExportFormat format,
+      Path sampleDir,
+      SampleBytes sampleBytes)
+      throws Exception {
+    if (columnInfoList.isEmpty()) {
+      return 0;
+    }
+    ExportEngine engine =
+        ExportEngine.builder()
+            .basePath(sampleDir.toString())
+            .exportFormat(format)
+            .title(table.getName())
+            .columnsInfo(columnInfoList)
+            .recordPerFile(ProcessExtraction.DATA_RECORDS_PER_FILE)
+            .sizePerFile(ProcessExtraction.DATA_MEGABYTES_PER_FILE)
+            .fileEncoding(StandardCharsets.UTF_8.name())
+            .progressListener(sampleBytes)
+            .build();
+    engine.initialize();
+    engine.handleDataStart();
+    String query =
+        source.getSampleSelectQuery(
+            table.getSchema(), table.getName(), columnInfoList, tableSample, filter, SAMPLE_ROWS);
+    long rows = 0;
+    Connection connection = source.getConnection();
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(query)) {
+      ExportRow row = engine.newRow();
+      // Binary values count with the size of the files they are streamed to.
+      BlobWriter blobWriter =
+          new BlobWriter(
+              sampleDir.toString(), table.getSchema(), table.getName(), "", 0, sampleBytes);
+      while (resultSet.next()) {
+        ProcessExtraction.readRow(resultSet, columnInfoList, row, blobWriter);
+        blobWriter.rowDone();
+        engine.writeRow(row);
+        rows++;
+      }
+    } finally {
+      // Formats that only know their size once the file is closed report it here.
+      engine.handleDataEnd();
+    }
+    return rows;
+  }
+
+  /** Data files the extraction rolls {@code rows} rows of {@code bytes} bytes into. */
+  static long files(long rows, long bytes) {
+    if (rows == 0) {
+      return 0;
+    }
+    long filesByRecords = divideRoundingUp(rows, ProcessExtraction.DATA_RECORDS_PER_FILE);
+    long fileBytes = ProcessExtraction.DATA_MEGABYTES_PER_FILE * 1024 * 1024 - ROLL_HEADROOM_BYTES;
+    return Math.max(filesByRecords, divideRoundingUp(bytes, fileBytes));
+  }
+
+  private static long divideRoundingUp(long dividend, long divisor) {
+    return (dividend + divisor - 1) / divisor;
+  }
+
+  /** Usable space of the output directory, or of its closest existing parent. */
+  private static Long usableSpace(String outputDir) {
+    if (outputDir == null) {
+      return null;
+    }
+    File existing = new File(outputDir).getAbsoluteFile();
+    while (existing != null && !existing.exists()) {
+      existing = existing.getParentFile();
+    }
+    return existing == null ? null : existing.getUsableSpace();
+  }
+
+  private static final class SampleBytes implements ExportProgressListener {
+    private long bytes;
+
+    @Override
+    public void recordsWritten(long records) {}
+
+    @Override
+    public void bytesWritten(long bytes) {
+      this.bytes += bytes;
+    }
+  }
+}
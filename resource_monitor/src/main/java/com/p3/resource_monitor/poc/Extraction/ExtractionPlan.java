@@ -0,0 +1,152 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.google.gson.GsonBuilder;
+import com.p3.resource_monitor.poc.catalog.CatalogColumn;
+import com.p3.resource_monitor.poc.catalog.CatalogTable;
+import com.p3.resource_monitor.poc.util.JDBCConnection;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+
+/**
+ * Order in which the tables of a job are extracted, with the cost estimate each position was
+ * planned from and, once the table is done, what it actually took. Written as {@code PLAN.json}
+ * in the output directory of the job, so estimates can be compared with actuals when tuning.
+ */
+@Data
+public class ExtractionPlan {
+  public static final String FILE_NAME = "PLAN.json";
+
+  /** Tables below this estimate are never split for being dominant; ranges would not pay off. */
+  static final long MIN_SPLIT_ROWS = 100_000;
+
+  public enum Outcome {
+    COMPLETED,
+    FAILED,
+    STOPPED,
+    /** Completed by an earlier run of the job. */
+    SKIPPED
+  }
+
+  @Data
+  public static class PlannedTable {
+    private int order;
+    private String schema;
+    private String table;
+    private long rowEstimate;
+
+    /** On-disk size when the source reports it, otherwise rows times estimated row width. */
+    private long estimatedBytes;
+
+    /** Split into ranges because it costs more than a worker's share of the whole job. */
+    private boolean split;
+
+    /** Milliseconds from planning until the table was started. */
+    private Long startedAfterMillis;
+
+    private Long millis;
+    private Long rows;
+    private Outcome outcome;
+  }
+
+  private String plannedAt;
+  private int parallelism;
+  private long estimatedBytes;
+  private List<PlannedTable> tables = new ArrayList<>();
+
+  /** Milliseconds from planning until every table was done, set by {@link #finish()}. */
+  private Long makespanMillis;
+
+  private transient long plannedAtMillis;
+  private transient Map<String, PlannedTable> tablesByKey = new HashMap<>();
+
+  /**
+   * Plans the given tables. With more than one worker the costliest tables go first, so no large
+   * table starts late and runs alone at the end of the job; a single worker keeps catalog order,
+   * where the order does not change the total time.
+   *
+   * @param splitDominant mark tables costing more than {@code 1 / parallelism} of the job to be
+   *     split into ranges, since no ordering keeps such a table from outlasting the others
+   */
+  public static ExtractionPlan of(
+      List<CatalogTable> catalogTables, int parallelism, boolean splitDominant) {
+    ExtractionPlan plan = new ExtractionPlan();
+    plan.plannedAtMillis = System.currentTimeMillis();
+    plan.plannedAt = Instant.ofEpochMilli(plan.plannedAtMillis).toString();
+    plan.parallelism = parallelism;
+    for (CatalogTable catalogTable : catalogTables) {
+      PlannedTable table = new PlannedTable();
+      table.setSchema(catalogTable.getSchema());
+      table.setTable(catalogTable.getName());
+      table.setRowEstimate(catalogTable.getRowEstimate());
+      table.setEstimatedBytes(estimateBytes(catalogTable));
+      plan.estimatedBytes += table.getEstimatedBytes();
+      plan.tables.add(table);
+      plan.tablesByKey.put(JDBCConnection.tableKey(table.getSchema(), table.getTable()), table);
+    }
+    if (parallelism > 1) {
+      // Stable, so tables of equal cost stay in catalog order.
+      plan.tables.sort(Comparator.comparingLong(PlannedTable::getEstimatedBytes).reversed());
+    }
+    for (int i = 0; i < plan.tables.size(); i++) {
+      PlannedTable table = plan.tables.get(i);
+      table.setOrder(i + 1);
+      table.setSplit(
+          splitDominant
+              && parallelism > 1
+              && table.getRowEstimate() >= MIN_SPLIT_ROWS
+              && table.getEstimatedBytes() > plan.estimatedBytes / parallelism);
+    }
+    return plan;
+  }
+
+  private static long estimateBytes(CatalogTable table) {
+    if (table.getSizeBytes() > 0) {
+      return table.getSizeBytes();
+    }
+    List<Integer> columnSizes = new ArrayList<>();
+    for (CatalogColumn column : table.getColumns()) {
+      columnSizes.add(column.getColumnSize());
+    }
+    return table.getRowEstimate() * AdaptiveFetchSizer.estimateRowBytes(columnSizes);
+  }
+
+  public boolean isSplit(String schema, String tableName) {
+    PlannedTable table = tablesByKey.get(JDBCConnection.tableKey(schema, tableName));
+    return table != null && table.isSplit();
+  }
+
+  public synchronized void tableStarted(String schema, String tableName) {
+    PlannedTable table = tablesByKey.get(JDBCConnection.tableKey(schema, tableName));
+    if (table != null) {
+      table.setStartedAfterMillis(System.currentTimeMillis() - plannedAtMillis);
+    }
+  }
+
+  public synchronized void tableFinished(
+      String schema, String tableName, long rows, Outcome outcome) {
+    PlannedTable table = tablesByKey.get(JDBCConnection.tableKey(schema, tableName));
+    if (table == null) {
+      return;
+    }
+    long now = System.currentTimeMillis() - plannedAtMillis;
+    if (table.getStartedAfterMillis() == null) {
+      table.setStartedAfterMillis(now);
+    }
+    table.setMillis(now - table.getStartedAfterMillis());
+    table.setRows(rows);
+    table.setOutcome(outcome);
+  }
+
+  public synchronized void finish() {
+    makespanMillis = System.currentTimeMillis() - plannedAtMillis;
+  }
+
+  public synchronized String toJson() {
+    return new GsonBuilder().setPrettyPrinting().create().toJson(this);
+  }
+}
@@ -0,0 +1,98 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.p3.export.options.ExportProgressListener;
+import com.p3.resource_monitor.poc.beans.JobProgressSnapshot;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live progress of one extraction job. Row and byte counts are {@link LongAdder}s so the export
+ * hot path only touches a striped cell; totals are summed when a snapshot is requested.
+ */
+public class JobProgress implements ExportProgressListener {
+  private final Instant startedAt = Instant.now();
+  private final LongAdder rowsExported = new LongAdder();
+  private final LongAdder bytesWritten = new LongAdder();
+  private final AtomicInteger tablesDone = new AtomicInteger();
+  private final AtomicLong estimatedTotalRows = new AtomicLong();
+  private final Set<String> currentTables = ConcurrentHashMap.newKeySet();
+  private volatile int tablesTotal;
+
+  private long lastSnapshotRows = -1;
+  private Instant lastProgressTime = startedAt;
+
+  @Override
+  public void recordsWritten(long records) {
+    rowsExported.add(records);
+  }
+
+  @Override
+  public void bytesWritten(long bytes) {
+    bytesWritten.add(bytes);
+  }
+
+  public void setTablesTotal(int tablesTotal) {
+    this.tablesTotal = tablesTotal;
+  }
+
+  public void addEstimatedRows(long rows) {
+    if (rows > 0) {
+      estimatedTotalRows.addAndGet(rows);
+    }
+  }
+
+  public void tableStarted(String table) {
+    currentTables.add(table);
+  }
+
+  public void tableFinished(String table) {
+    currentTables.remove(table);
+    tablesDone.incrementAndGet();
+  }
+
+  public long getRowsExported() {
+    return rowsExported.sum();
+  }
+
+  public long getBytesWritten() {
+    return bytesWritten.sum();
+  }
+
+  public synchronized JobProgressSnapshot snapshot(String jobId, String status) {
+    Instant now = Instant.now();
+    long rows = rowsExported.sum();
+    long bytes = bytesWritten.sum();
+    if (rows != lastSnapshotRows) {
+      lastSnapshotRows = rows;
+      lastProgressTime = now;
+    }
+    double elapsedSeconds = Math.max(1, Duration.between(startedAt, now).toMillis()) / 1000.0;
+    double rowsPerSecond = rows / elapsedSeconds;
+    long estimatedRows = estimatedTotalRows.get();
+    Long secondsRemaining = null;
+    if (rowsPerSecond > 0 && estimatedRows > 0) {
+      secondsRemaining = (long) (Math.max(0, estimatedRows - rows) / rowsPerSecond);
+    }
+    return JobProgressSnapshot.builder()
+        .jobId(jobId)
+        .status(status)
+        .tablesDone(tablesDone.get())
+        .tablesTotal(tablesTotal)
+        .currentTables(new ArrayList<>(currentTables))
+        .rowsExported(rows)
+        .bytesWritten(bytes)
+        .estimatedTotalRows(estimatedRows)
+        .rowsPerSecond(rowsPerSecond)
+        .bytesPerSecond(bytes / elapsedSeconds)
+        .elapsedSeconds((long) elapsedSeconds)
+        .estimatedSecondsRemaining(secondsRemaining)
+        .lastProgressTime(lastProgressTime)
+        .build();
+  }
+}
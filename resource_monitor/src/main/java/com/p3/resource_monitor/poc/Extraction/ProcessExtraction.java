@@ -1,9 +1,11 @@
 package com.p3.resource_monitor.poc.Extraction;
 
+import com.google.gson.GsonBuilder;
 import com.p3.export.formatter.ExportFormat;
 import com.p3.export.operation.ExportEngine;
 import com.p3.export.options.ColumnInfo;
 import com.p3.export.specifics.DataType;
+import com.p3.export.specifics.ExportRow;
 
 import java.io.File;
 import java.io.IOException;
@@ -12,81 +14,324 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.p3.export.utility.others.FileUtil;
+import com.p3.export.utility.others.Utility;
+import com.p3.resource_monitor.poc.beans.ExtractionMode;
 import com.p3.resource_monitor.poc.beans.JobInputBean;
+import com.p3.resource_monitor.poc.beans.JobStatus;
+import com.p3.resource_monitor.poc.beans.SamplingMethod;
+import com.p3.resource_monitor.poc.catalog.Catalog;
+import com.p3.resource_monitor.poc.catalog.CatalogColumn;
+import com.p3.resource_monitor.poc.catalog.CatalogFilter;
+import com.p3.resource_monitor.poc.catalog.CatalogTable;
+import com.p3.resource_monitor.poc.dialect.CopyOutDialect;
+import com.p3.resource_monitor.poc.dialect.SourceDialect;
+import com.p3.resource_monitor.poc.dialect.TableSample;
+import com.p3.resource_monitor.poc.persistance.models.ExtractionCheckpoint;
 import com.p3.resource_monitor.poc.util.JDBCConnection;
+import com.p3.resource_monitor.poc.util.SourceConnectionRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.postgresql.copy.CopyOut;
 import org.springframework.stereotype.Component;
 
 @Slf4j
 @Component
 public class ProcessExtraction {
-  private ExportEngine schemaExportEngine;
-  private ExportEngine tableExportEngine;
-  private ExportEngine columnExportEngine;
+  static final long DATA_RECORDS_PER_FILE = 10000L;
+  static final long DATA_MEGABYTES_PER_FILE = 50L;
+
+  /**
+   * Length of the failed tables listed in the error of a job, which becomes its status reason and
+   * has to fit that column's 255 characters.
+   */
+  private static final int FAILED_TABLES_MAX_CHARS = 180;
+
+  /** Folder of the output directory holding a data folder per table. */
+  static final String DATA_FOLDER = "DATA";
+
+  private SynchronizedExportSink schemaSink;
+  private SynchronizedExportSink tableSink;
+  private SynchronizedExportSink columnSink;
+  private ExtractionContext context;
+  private JDBCConnection source;
+  private ExportFormat dataFormat = ExportFormat.csv;
+  private ExtractionMode extractionMode = ExtractionMode.FULL;
+  private long maxRowsPerTable = JDBCConnection.NO_LIMIT;
+
+  /** Rows sampled per table, see {@link JobInputBean#getSampleRows()}. */
+  private long sampleRows = JDBCConnection.NO_LIMIT;
+
+  private SamplingMethod samplingMethod = SamplingMethod.SYSTEM;
+  private Long sampleSeed;
+
+  /** Watermark column per table key, see {@link JobInputBean#getWatermarkColumns()}. */
+  private Map<String, String> watermarkColumns = Map.of();
+
+  private final Map<String, WatermarkScan> watermarkScans = new ConcurrentHashMap<>();
+
+  /** Fetch memory budget of one cursor: the job's budget shared by its concurrent cursors. */
+  private long cursorBudgetBytes;
+  private Catalog catalog = new Catalog();
+  private CatalogFilter catalogFilter = new CatalogFilter(null);
+
+  private int parallelism = 1;
+  private ExtractionPlan plan = ExtractionPlan.of(List.of(), 1, false);
+
+  /** Table workers in parallel mode, {@code null} when tables are extracted one at a time. */
+  private ExecutorService tableExecutor;
+
+  private final List<Future<?>> tableTasks = new ArrayList<>();
+
+  /**
+   * Tables, or schemas whose walk broke off, that failed to export. The other tables are still
+   * exported, then the job fails, keeping its checkpoints so a resume only redoes what is missing.
+   */
+  private final Set<String> failedTables = ConcurrentHashMap.newKeySet();
+
+  /** Reader threads of the {@link RowPipeline}s of JDBC reads, one per running cursor. */
+  private ExecutorService rowReaders;
 
   public void extraction(JobInputBean inputBean) throws Exception {
+    extraction(inputBean, new ExtractionContext(null));
+  }
+
+  public void extraction(JobInputBean inputBean, ExtractionContext context) throws Exception {
+    this.context = context;
+    dataFormat = Objects.requireNonNullElse(inputBean.getExportFormat(), ExportFormat.csv);
+    extractionMode =
+        Objects.requireNonNullElse(inputBean.getExtractionMode(), ExtractionMode.FULL);
+    if (inputBean.getMaxRowsPerTable() != null && inputBean.getMaxRowsPerTable() >= 0) {
+      maxRowsPerTable = inputBean.getMaxRowsPerTable();
+    }
+    if (inputBean.getSampleRows() != null && inputBean.getSampleRows() >= 0) {
+      sampleRows = inputBean.getSampleRows();
+    }
+    samplingMethod =
+        Objects.requireNonNullElse(inputBean.getSamplingMethod(), SamplingMethod.SYSTEM);
+    sampleSeed = inputBean.getSampleSeed();
+    watermarkColumns = Objects.requireNonNullElse(inputBean.getWatermarkColumns(), Map.of());
+    catalogFilter = new CatalogFilter(inputBean.getSelection());
+    parallelism = Math.max(1, Objects.requireNonNullElse(inputBean.getParallelism(), 1));
+    // Each table worker may hold one connection per range besides its own, and one extra
+    // connection stays with the schema/table walk that feeds the workers. A sequential job
+    // exports its tables on the walk's connection.
+    int connectionsPerTable = context.isRangeSplitEnabled() ? 1 + context.getRangesPerTable() : 1;
+    SourceConnectionRegistry sourceConnections = context.getSourceConnections();
+    int maxConnections = sourceConnections.getMaxConnectionsPerSource();
+    if (sourceConnections.isEnabled()
+        && parallelism > 1
+        && parallelism * connectionsPerTable + 1 > maxConnections) {
+      // The job reserves its whole budget from the shared pool when it leases it, see
+      // SourceConnectionRegistry, so the budget itself must fit in the pool.
+      int fitting = Math.max(1, (maxConnections - 1) / connectionsPerTable);
+      log.warn(
+          "Lowering parallelism from {} to {} to stay within {} connections to the source",
+          parallelism,
+          fitting,
+          maxConnections);
+      parallelism = fitting;
+    }
     JDBCConnection jdbcConnection =
-        new JDBCConnection(inputBean.getConnection(), inputBean.getConnectionType());
-    String outputDir = inputBean.getOutputDir();
-    String currentDir = outputDir + File.separator + System.currentTimeMillis();
+        new JDBCConnection(
+            inputBean.getConnection(),
+            inputBean.getConnectionType(),
+            parallelism > 1 ? parallelism * connectionsPerTable + 1 : connectionsPerTable,
+            sourceConnections);
+    source = jdbcConnection;
+    int cursorsPerTable = context.isRangeSplitEnabled() ? context.getRangesPerTable() : 1;
+    cursorBudgetBytes =
+        Math.max(1, context.getFetchMemoryBudgetBytes() / ((long) parallelism * cursorsPerTable));
+    if (parallelism > 1) {
+      tableExecutor = Executors.newFixedThreadPool(parallelism);
+    }
+    rowReaders = Executors.newCachedThreadPool();
+    String currentDir = context.getOutputPath();
+    if (currentDir == null) {
+      currentDir = inputBean.getOutputDir() + File.separator + System.currentTimeMillis();
+      context.setOutputPath(currentDir);
+    }
+    try {
+      prepareOutput(currentDir);
+      context.getWatermarks().load();
+      initProgress(jdbcConnection);
+      exportMetadata(jdbcConnection, currentDir);
+      if (!failedTables.isEmpty()) {
+        throw new IllegalStateException(
+            "Failed to export "
+                + failedTables.size()
+                + " of "
+                + catalog.getTables().size()
+                + " tables, see the log: "
+                + describeFailedTables());
+      }
+    } catch (ExtractionCancelledException e) {
+      handleStoppedOutput(currentDir, e, Boolean.TRUE.equals(inputBean.getCleanupOnCancel()));
+      throw e;
+    } finally {
+      if (tableExecutor != null) {
+        tableExecutor.shutdownNow();
+      }
+      rowReaders.shutdownNow();
+      end(jdbcConnection);
+    }
+  }
+
+  /**
+   * Reuses the output directory of an earlier run of the job when it still exists, otherwise starts
+   * over with an empty directory and no checkpoints.
+   */
+  private void prepareOutput(String currentDir) throws Exception {
+    CheckpointTracker checkpoints = context.getCheckpoints();
+    if (Files.isDirectory(Path.of(currentDir)) && checkpoints.load()) {
+      log.info("Resuming job {} in {}", context.getJobId(), currentDir);
+      for (JobStatus status : List.of(JobStatus.CANCELLED, JobStatus.TIMED_OUT)) {
+        FileUtil.deleteFile(currentDir + File.separator + "_" + status.name());
+      }
+      return;
+    }
+    checkpoints.reset();
     FileUtil.checkCreateDirectory(currentDir);
-    exportMetadata(jdbcConnection, currentDir);
-    end(jdbcConnection);
+  }
+
+  /** Removes or marks the output of a job that was stopped before it finished. */
+  private void handleStoppedOutput(
+      String currentDir, ExtractionCancelledException e, boolean cleanup) {
+    if (cleanup) {
+      FileUtil.deleteDirectory(currentDir);
+      log.info("Deleted output {} of stopped job {}", currentDir, context.getJobId());
+      return;
+    }
+    try {
+      FileUtil.writeFile(
+          currentDir + File.separator + "_" + e.getStatus().name(),
+          e.getMessage() + System.lineSeparator());
+    } catch (IOException ioException) {
+      log.warn("Could not mark output {} as {}", currentDir, e.getStatus(), ioException);
+    }
+  }
+
+  private void initProgress(JDBCConnection jdbcConnection) throws SQLException {
+    catalog = catalogFilter.apply(context.getCatalogCache().read(jdbcConnection));
+    List<CatalogTable> tables = catalog.getTables();
+    plan = ExtractionPlan.of(tables, parallelism, context.isSplitDominantTables());
+    JobProgress progress = context.getProgress();
+    progress.setTablesTotal(tables.size());
+    long cap = minLimit(maxRowsPerTable, sampleRows);
+    for (CatalogTable table : tables) {
+      progress.addEstimatedRows(
+          cap == JDBCConnection.NO_LIMIT
+              ? table.getRowEstimate()
+              : Math.min(table.getRowEstimate(), cap));
+    }
   }
 
   public void exportMetadata(JDBCConnection jdbcConnection, String currentDir) throws Exception {
-    Connection connection = jdbcConnection.getConnection();
-    DatabaseMetaData metaData = connection.getMetaData();
-    exportSchemasToCsv(metaData, currentDir, jdbcConnection);
-    if (schemaExportEngine != null) {
-      schemaExportEngine.handleDataEnd();
-      schemaExportEngine.generateReport();
+    schemaSink = new SynchronizedExportSink(() -> getSchemaExportEngine(currentDir));
+    tableSink = new SynchronizedExportSink(() -> getTableExportEngine(currentDir));
+    columnSink = new SynchronizedExportSink(() -> getColumnExportEngine(currentDir));
+    writePlan(currentDir);
+    try {
+      exportSchemasToCsv(currentDir, jdbcConnection);
+      if (tableExecutor != null) {
+        submitTables(currentDir, jdbcConnection);
+      }
+      awaitTableTasks();
+    } finally {
+      if (tableExecutor != null) {
+        // Only reached with workers still busy when the walk itself was stopped or failed.
+        tableExecutor.shutdownNow();
+        tableExecutor.awaitTermination(1, TimeUnit.MINUTES);
+      }
+      schemaSink.close();
+      tableSink.close();
+      columnSink.close();
+      plan.finish();
+      writePlan(currentDir);
     }
-    if (tableExportEngine != null) {
-      tableExportEngine.handleDataEnd();
-      tableExportEngine.generateReport();
+  }
+
+  /** Hands the tables to the workers in plan order, which is costliest first. */
+  private void submitTables(String outputFilePath, JDBCConnection jdbcConnection) {
+    for (ExtractionPlan.PlannedTable planned : plan.getTables()) {
+      CatalogTable table = catalog.getTable(planned.getSchema(), planned.getTable());
+      tableTasks.add(
+          tableExecutor.submit(() -> exportTableOnWorker(table, outputFilePath, jdbcConnection)));
     }
-    if (columnExportEngine != null) {
-      columnExportEngine.handleDataEnd();
-      columnExportEngine.generateReport();
+  }
+
+  /** The plan is kept for tuning only, so failing to write it does not fail the job. */
+  private void writePlan(String currentDir) {
+    try {
+      FileUtil.writeFile(currentDir + File.separator + ExtractionPlan.FILE_NAME, plan.toJson());
+    } catch (IOException e) {
+      log.warn("Could not write extraction plan to {}", currentDir, e);
     }
   }
 
-  private void exportSchemasToCsv(
-      DatabaseMetaData metaData, String outputFilePath, JDBCConnection jdbcConnection)
+  /**
+   * Waits for every submitted table. A stop request is rethrown once all workers are done; other
+   * table failures are recorded like in sequential mode and fail the job at its end.
+   */
+  private void awaitTableTasks() throws Exception {
+    ExtractionCancelledException cancelled = null;
+    for (Future<?> task : tableTasks) {
+      try {
+        task.get();
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof ExtractionCancelledException cancelledException) {
+          cancelled = cancelledException;
+        } else {
+          // Only reached for failures the worker did not attribute to its table.
+          tableFailed("table worker", e.getCause());
+        }
+      }
+    }
+    if (cancelled != null) {
+      throw cancelled;
+    }
+  }
+
+  private void exportSchemasToCsv(String outputFilePath, JDBCConnection jdbcConnection)
       throws Exception {
     log.info("Starting export of schemas...");
     try {
-      schemaExportEngine = getSchemaExportEngine(outputFilePath);
-      ResultSet schemas = metaData.getSchemas();
       int count = 0;
-      while (schemas.next()) {
-        String schemaName = schemas.getString("TABLE_SCHEM");
+      for (String schemaName : catalog.getSchemas()) {
+        context.checkStopped();
         List<Object> data = new LinkedList<>();
         data.add(schemaName);
-        writeRecords(data, schemaExportEngine);
-        exportTablesToCsv(metaData, schemaName, outputFilePath, jdbcConnection);
+        schemaSink.write(data);
+        exportTablesToCsv(schemaName, outputFilePath, jdbcConnection);
         count++;
       }
-      schemas.close();
       log.info("Exported {} schemas to {}", count, outputFilePath);
+    } catch (ExtractionCancelledException e) {
+      throw e;
     } catch (Exception e) {
-      e.printStackTrace();
+      tableFailed("schema walk", e);
     } finally {
-      if (schemaExportEngine != null) {
-        schemaExportEngine.handleDataEnd();
-        schemaExportEngine.generateReport();
-        schemaExportEngine = null;
-      }
+      schemaSink.close();
     }
   }
 
-  private void writeRecords(List<Object> data, ExportEngine exportEngine) throws Exception {
-    exportEngine.iterateRows(data);
+  private void writeRecords(ExportRow data, ExportEngine exportEngine) throws Exception {
+    exportEngine.writeRow(data);
   }
 
   private ExportEngine getSchemaExportEngine(String currentDir) throws Exception {
@@ -109,35 +354,45 @@ public class ProcessExtraction {
   }
 
   private void exportTablesToCsv(
-      DatabaseMetaData metaData,
-      String schema,
-      String outputFilePath,
-      JDBCConnection jdbcConnection)
-      throws Exception {
+      String schema, String outputFilePath, JDBCConnection jdbcConnection) throws Exception {
     log.info("Starting export of tables...");
-    if (tableExportEngine == null) {
-      tableExportEngine = getTableExportEngine(outputFilePath);
-    }
     try {
-      ResultSet tables = metaData.getTables(null, schema, "%", null);
       int count = 0;
-      while (tables.next()) {
-        String tableName = tables.getString("TABLE_NAME");
+      for (CatalogTable table : catalog.getTables(schema)) {
         List<Object> data = new LinkedList<>();
-        data.add(tables.getString("TABLE_SCHEM"));
-        data.add(tableName);
-        data.add(tables.getString("TABLE_TYPE"));
-        writeRecords(data, tableExportEngine);
-        exportColumnsToCsv(metaData, schema, tableName, outputFilePath, jdbcConnection);
+        data.add(table.getSchema());
+        data.add(table.getName());
+        data.add(table.getType());
+        tableSink.write(data);
+        // Parallel jobs submit their tables once the walk is done, see submitTables.
+        if (tableExecutor == null) {
+          exportColumnsToCsv(table, outputFilePath, jdbcConnection.getConnection());
+        }
         count++;
       }
-      tables.close();
       log.info("Exported {} tables to {}", count, outputFilePath);
     } catch (SQLException | IOException e) {
-      e.printStackTrace();
+      tableFailed("tables of schema " + schema, e);
     }
   }
 
+  /** Exports one table on a pooled connection of its own, so workers never share a connection. */
+  private Void exportTableOnWorker(
+      CatalogTable table, String outputFilePath, JDBCConnection jdbcConnection) throws Exception {
+    context.checkStopped();
+    try (Connection connection = jdbcConnection.borrowConnection()) {
+      exportColumnsToCsv(table, outputFilePath, connection);
+    } catch (ExtractionCancelledException e) {
+      throw e;
+    } catch (Exception e) {
+      if (context.isStopRequested()) {
+        throw context.stopException();
+      }
+      tableFailed(JDBCConnection.tableKey(table.getSchema(), table.getName()), e);
+    }
+    return null;
+  }
+
   private ExportEngine getTableExportEngine(String outputFilePath) throws Exception {
     ExportEngine ee;
     ee =
@@ -159,85 +414,1053 @@ public class ProcessExtraction {
     return ee;
   }
 
-  private void exportColumnsToCsv(
-      DatabaseMetaData metaData,
-      String schema,
-      String tableName,
-      String outputFilePath,
-      JDBCConnection jdbcConnection)
+  private void exportColumnsToCsv(CatalogTable table, String outputFilePath, Connection connection)
       throws Exception {
+    context.checkStopped();
+    String schema = table.getSchema();
+    String tableName = table.getName();
     log.info("Starting export of columns for table: {}.{}", schema, tableName);
-    if (columnExportEngine == null) {
-      columnExportEngine = getColumnExportEngine(outputFilePath);
-    }
     try {
-      ResultSet columns = metaData.getColumns(null, schema, tableName, null);
       int count = 0;
 
       List<ColumnInfo> columnInfoList = new LinkedList<>();
+      List<Integer> columnSizes = new ArrayList<>();
 
-      while (columns.next()) {
-        String columnName = columns.getString("COLUMN_NAME");
-        columnInfoList.add(
-            ColumnInfo.builder().column(columnName).dataType(DataType.STRING).build());
+      for (CatalogColumn column : table.getColumns()) {
+        columnInfoList.add(ColumnTypeMapper.columnInfo(column));
 
         List<Object> data = new LinkedList<>();
-        data.add(columns.getString("TABLE_SCHEM"));
-        data.add(columns.getString("TABLE_NAME"));
-        data.add(columnName);
-        data.add(columns.getInt("DATA_TYPE"));
-        data.add(columns.getString("TYPE_NAME"));
-        data.add(columns.getInt("COLUMN_SIZE"));
-        data.add(columns.getString("IS_NULLABLE"));
-        writeRecords(data, columnExportEngine);
+        data.add(schema);
+        data.add(tableName);
+        data.add(column.getName());
+        data.add(column.getDataType());
+        data.add(column.getTypeName());
+        data.add(column.getColumnSize());
+        data.add(column.isNullable() ? "YES" : "NO");
+        columnSizes.add(column.getColumnSize());
+        columnSink.write(data);
         count++;
       }
-      columns.close();
       log.info("Exported {} columns from {}.{} to {}", count, schema, tableName, outputFilePath);
 
-      exportData(schema, tableName, columnInfoList, jdbcConnection, outputFilePath);
+      long estimatedRowBytes = AdaptiveFetchSizer.estimateRowBytes(columnSizes);
+      exportData(table, columnInfoList, estimatedRowBytes, connection, outputFilePath);
 
     } catch (SQLException | IOException e) {
-      log.error("Error exporting columns from {}.{}: {}", schema, tableName, e.getMessage(), e);
+      if (context.isStopRequested()) {
+        throw context.stopException();
+      }
+      tableFailed(JDBCConnection.tableKey(schema, tableName), e);
     }
   }
 
+  /** The failed tables, cut short to fit the job's status reason. */
+  private String describeFailedTables() {
+    String names = String.join(", ", new TreeSet<>(failedTables));
+    if (names.length() <= FAILED_TABLES_MAX_CHARS) {
+      return names;
+    }
+    return names.substring(0, FAILED_TABLES_MAX_CHARS) + "...";
+  }
+
+  /** Records a failed table; the job goes on with the other tables and fails at its end. */
+  private void tableFailed(String tableKey, Throwable e) {
+    log.error("Error exporting {}: {}", tableKey, e.getMessage(), e);
+    failedTables.add(tableKey);
+  }
+
   private void exportData(
+      CatalogTable table,
+      List<ColumnInfo> columnInfoList,
+      long estimatedRowBytes,
+      Connection connection,
+      String outputFilePath)
+      throws Exception {
+    String schema = table.getSchema();
+    String tableName = table.getName();
+    String tableKey = JDBCConnection.tableKey(schema, tableName);
+    CheckpointTracker checkpoints = context.getCheckpoints();
+    ExtractionCheckpoint checkpoint = checkpoints.get(schema, tableName);
+    if (checkpoints.isTableCompleted(schema, tableName)) {
+      log.info("Skipping {}, exported by an earlier run", tableKey);
+      context.getProgress().recordsWritten(checkpoint.getRowsExported());
+      context.getProgress().tableFinished(tableKey);
+      plan.tableFinished(
+          schema, tableName, checkpoint.getRowsExported(), ExtractionPlan.Outcome.SKIPPED);
+      return;
+    }
+    context.getProgress().tableStarted(tableKey);
+    plan.tableStarted(schema, tableName);
+    planWatermark(table, checkpoint, connection);
+    logSampling(table);
+    List<TableRange> ranges = planRanges(table, connection);
+    if (ranges.size() > 1) {
+      if (checkpoint != null) {
+        deletePartialTableData(schema, tableName, outputFilePath);
+      }
+      checkpoints.tableStarted(schema, tableName, null);
+      exportDataInRanges(table, columnInfoList, estimatedRowBytes, ranges, outputFilePath);
+      return;
+    }
+    String keyColumn = keyColumnFor(table);
+    long rows = 0;
+    long filesCompleted = 0;
+    String lastKey = null;
+    if (checkpoint != null
+        && keyColumn != null
+        && keyColumn.equals(checkpoint.getKeyColumn())
+        && checkpoint.getLastKey() != null) {
+      rows = checkpoint.getRowsExported();
+      filesCompleted = checkpoint.getFilesCompleted();
+      lastKey = checkpoint.getLastKey();
+      deleteDataFilesAfter(schema, tableName, outputFilePath, filesCompleted);
+      context.getProgress().recordsWritten(rows);
+      log.info(
+          "Resuming {} after {} = {} ({} rows already exported)",
+          tableKey,
+          keyColumn,
+          lastKey,
+          rows);
+    } else {
+      if (checkpoint != null) {
+        deletePartialTableData(schema, tableName, outputFilePath);
+      }
+      checkpoints.tableStarted(schema, tableName, keyColumn);
+    }
+
+    ResumePoint resume = new ResumePoint(keyColumn, lastKey, rows, filesCompleted);
+    boolean stopped = false;
+    boolean completed = false;
+    try {
+      connection.setAutoCommit(false);
+      long started = System.currentTimeMillis();
+      String path;
+      if (isCopyOutEnabled(table)) {
+        path = "COPY csv";
+        rows = copyTable(table, columnInfoList, resume, connection, outputFilePath);
+      } else if (isBinaryCopyEnabled(table)) {
+        path = "COPY binary";
+        rows =
+            binaryCopyTable(
+                table, columnInfoList, estimatedRowBytes, resume, connection, outputFilePath);
+      } else {
+        path = "JDBC";
+        rows =
+            fetchTable(
+                table, columnInfoList, estimatedRowBytes, resume, connection, outputFilePath);
+      }
+      logThroughput(tableKey, path, table.getColumns().size(), rows - resume.rows(), started);
+      writeDeltaManifest(table, rows, outputFilePath);
+      completed = true;
+    } catch (Exception e) {
+      if (context.isStopRequested()) {
+        // A cancelled query surfaces as an SQLException; report it as the stop instead.
+        stopped = true;
+        throw context.stopException();
+      }
+      tableFailed(tableKey, e);
+    } finally {
+      if (stopped) {
+        keepCheckpointedData(schema, tableName, outputFilePath);
+      } else {
+        deleteFolderIfEmpty(schema, tableName, outputFilePath);
+      }
+      if (completed) {
+        checkpoints.tableCompleted(schema, tableName, rows);
+      }
+      context.getProgress().tableFinished(tableKey);
+      plan.tableFinished(schema, tableName, rows, outcome(completed, stopped));
+    }
+  }
+
+  /**
+   * Reads the table through a JDBC cursor on a reader thread and writes it with the export engine
+   * on this one, checkpointing keyed tables whenever a row starts a new file.
+   *
+   * @return rows exported, including those of earlier runs
+   */
+  private long fetchTable(
+      CatalogTable table,
+      List<ColumnInfo> columnInfoList,
+      long estimatedRowBytes,
+      ResumePoint resume,
+      Connection connection,
+      String outputFilePath)
+      throws Exception {
+    String schema = table.getSchema();
+    String tableName = table.getName();
+    String keyColumn = resume.keyColumn();
+    String lastKey = resume.lastKey();
+    long rows = resume.rows();
+    CheckpointTracker checkpoints = context.getCheckpoints();
+    String filter = scanFilter(table);
+    String selectQuery =
+        keyColumn == null
+            ? source.getSampleSelectQuery(
+                schema,
+                tableName,
+                columnInfoList,
+                tableSample(table),
+                filter,
+                rowLimit(table, rows))
+            : source.getKeyedSelectQuery(
+                schema,
+                tableName,
+                columnInfoList,
+                keyColumn,
+                lastKey != null,
+                filter,
+                rowLimit(table, rows));
+    ExportEngine dataExportEngine =
+        getDataExportEngine(
+            schema, tableName, columnInfoList, outputFilePath, resume.filesCompleted());
+    try (PreparedStatement statement = connection.prepareStatement(selectQuery)) {
+      if (lastKey != null) {
+        source.bindKey(statement, 1, lastKey);
+      }
+      AdaptiveFetchSizer fetchSizer = getFetchSizer(statement, estimatedRowBytes);
+      context.registerStatement(statement);
+      try (ResultSet resultSet = statement.executeQuery();
+          RowPipeline pipeline =
+              readRows(
+                  resultSet,
+                  columnInfoList,
+                  estimatedRowBytes,
+                  keyColumn,
+                  fetchSizer,
+                  getBlobWriter(table, outputFilePath, "", rows))) {
+        long fileCount = dataExportEngine.getFileCount();
+        String previousKey = lastKey;
+        RowBatch batch;
+        while ((batch = pipeline.next()) != null) {
+          for (int i = 0; i < batch.getSize(); i++) {
+            if (context.isStopRequested()) {
+              throw context.stopException();
+            }
+            writeRecords(batch.getRow(i), dataExportEngine);
+            if (keyColumn != null) {
+              long opened = dataExportEngine.getFileCount();
+              if (opened != fileCount && previousKey != null) {
+                // This row started a new file, so everything up to the previous key is closed.
+                checkpoints.fileRolled(schema, tableName, opened - 1, previousKey, rows);
+              }
+              fileCount = opened;
+              previousKey = batch.getKey(i);
+            }
+            rows++;
+          }
+        }
+      } finally {
+        context.unregisterStatement(statement);
+      }
+    } finally {
+      dataExportEngine.handleDataEnd();
+      dataExportEngine.generateReport();
+    }
+    return rows;
+  }
+
+  /**
+   * Streams the table with {@code COPY ... TO STDOUT} straight into data files, see {@link
+   * CopyOutWriter}. Checkpoints and resumes keyed tables the same way as {@link #fetchTable}.
+   *
+   * @return rows exported, including those of earlier runs
+   */
+  private long copyTable(
+      CatalogTable table,
+      List<ColumnInfo> columnInfoList,
+      ResumePoint resume,
+      Connection connection,
+      String outputFilePath)
+      throws Exception {
+    String schema = table.getSchema();
+    String tableName = table.getName();
+    String selectQuery = copySelectQuery(table, columnInfoList, resume);
+    int keyIndex = keyIndex(columnInfoList, resume.keyColumn());
+    try (CopyOutWriter writer =
+        getCopyOutWriter(
+            tableDataName(schema, tableName),
+            schema,
+            tableName,
+            columnInfoList,
+            outputFilePath,
+            resume.filesCompleted())) {
+      return copyRows(connection, selectQuery, writer, schema, tableName, keyIndex, resume.rows());
+    }
+  }
+
+  /**
+   * Streams the table with a binary {@code COPY ... TO STDOUT}, decodes it into typed column
+   * batches (see {@link BinaryCopyReader}) and writes the rows with the export engine.
+   * Checkpoints and resumes keyed tables the same way as {@link #fetchTable}.
+   *
+   * @return rows exported, including those of earlier runs
+   */
+  private long binaryCopyTable(
+      CatalogTable table,
+      List<ColumnInfo> columnInfoList,
+      long estimatedRowBytes,
+      ResumePoint resume,
+      Connection connection,
+      String outputFilePath)
+      throws Exception {
+    String schema = table.getSchema();
+    String tableName = table.getName();
+    String selectQuery = copySelectQuery(table, columnInfoList, resume);
+    int keyIndex = keyIndex(columnInfoList, resume.keyColumn());
+    ColumnBatch batch = getColumnBatch(table, columnInfoList, estimatedRowBytes);
+    ExportEngine dataExportEngine =
+        getDataExportEngine(
+            schema, tableName, columnInfoList, outputFilePath, resume.filesCompleted());
+    try {
+      return binaryCopyRows(
+          connection,
+          selectQuery,
+          batch,
+          dataExportEngine,
+          schema,
+          tableName,
+          keyIndex,
+          resume.rows());
+    } finally {
+      dataExportEngine.handleDataEnd();
+      dataExportEngine.generateReport();
+    }
+  }
+
+  /** Select for a COPY of the table, continuing after the resume point for keyed tables. */
+  private String copySelectQuery(
+      CatalogTable table, List<ColumnInfo> columnInfoList, ResumePoint resume) {
+    String keyColumn = resume.keyColumn();
+    String filter = scanFilter(table);
+    long limit = rowLimit(table, resume.rows());
+    if (keyColumn == null) {
+      return source.getSampleSelectQuery(
+          table.getSchema(), table.getName(), columnInfoList, tableSample(table), filter, limit);
+    }
+    return source.getKeyedSelectQueryAfter(
+        table.getSchema(),
+        table.getName(),
+        columnInfoList,
+        keyColumn,
+        resume.lastKey(),
+        filter,
+        limit);
+  }
+
+  /** Position of {@code keyColumn} in the select list, or {@code -1} without a key. */
+  private int keyIndex(List<ColumnInfo> columnInfoList, String keyColumn) {
+    for (int i = 0; keyColumn != null && i < columnInfoList.size(); i++) {
+      if (columnInfoList.get(i).getColumn().equals(keyColumn)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Copies the rows of {@code selectQuery} into {@code writer}. With a {@code keyIndex} the table
+   * is checkpointed each time a row starts a new file, using the key of the row before it.
+   *
+   * @return {@code rows} plus the rows copied
+   */
+  private long copyRows(
+      Connection connection,
+      String selectQuery,
+      CopyOutWriter writer,
       String schema,
       String tableName,
+      int keyIndex,
+      long rows)
+      throws Exception {
+    CopyOutDialect dialect = source.getCopyOut();
+    ExtractionContext.QueryCanceller canceller = dialect.canceller(connection);
+    context.registerCopy(canceller);
+    try {
+      CopyOut copyOut = dialect.copyOut(connection, dialect.copyOutQuery(selectQuery, dataFormat));
+      CheckpointTracker checkpoints = context.getCheckpoints();
+      long fileCount = writer.getFileCount();
+      byte[] previousRow = null;
+      byte[] row;
+      while ((row = copyOut.readFromCopy()) != null) {
+        if (context.isStopRequested()) {
+          copyOut.cancelCopy();
+          throw context.stopException();
+        }
+        writer.write(row);
+        if (keyIndex >= 0) {
+          long opened = writer.getFileCount();
+          if (opened != fileCount && previousRow != null) {
+            // This row started a new file, so everything up to the previous row is closed.
+            checkpoints.fileRolled(
+                schema, tableName, opened - 1, writer.field(previousRow, keyIndex), rows);
+          }
+          fileCount = opened;
+          previousRow = row;
+        }
+        rows++;
+      }
+    } finally {
+      context.unregisterCopy(canceller);
+    }
+    return rows;
+  }
+
+  /**
+   * Decodes the rows of a binary COPY of {@code selectQuery} batch by batch and writes them with
+   * {@code dataExportEngine}. With a {@code keyIndex} the table is checkpointed each time a row
+   * starts a new file, using the key of the row before it.
+   *
+   * @return {@code rows} plus the rows copied
+   */
+  private long binaryCopyRows(
+      Connection connection,
+      String selectQuery,
+      ColumnBatch batch,
+      ExportEngine dataExportEngine,
+      String schema,
+      String tableName,
+      int keyIndex,
+      long rows)
+      throws Exception {
+    CopyOutDialect dialect = source.getCopyOut();
+    ExtractionContext.QueryCanceller canceller = dialect.canceller(connection);
+    context.registerCopy(canceller);
+    String copyQuery = dialect.binaryCopyOutQuery(selectQuery);
+    try (BinaryCopyReader reader = new BinaryCopyReader(dialect.copyOut(connection, copyQuery))) {
+      CheckpointTracker checkpoints = context.getCheckpoints();
+      long fileCount = dataExportEngine.getFileCount();
+      String previousKey = null;
+      ExportRow data = dataExportEngine.newRow();
+      while (reader.read(batch) > 0) {
+        for (int row = 0; row < batch.getSize(); row++) {
+          if (context.isStopRequested()) {
+            // Closing the reader cancels the rest of the copy.
+            throw context.stopException();
+          }
+          batch.row(row, data);
+          writeRecords(data, dataExportEngine);
+          if (keyIndex >= 0) {
+            long opened = dataExportEngine.getFileCount();
+            if (opened != fileCount && previousKey != null) {
+              // This row started a new file, so everything up to the previous key is closed.
+              checkpoints.fileRolled(schema, tableName, opened - 1, previousKey, rows);
+            }
+            fileCount = opened;
+            // The decoded key as the server prints it; the export value may be narrowed.
+            previousKey = batch.text(keyIndex, row);
+          }
+          rows++;
+        }
+      }
+    } finally {
+      context.unregisterCopy(canceller);
+    }
+    return rows;
+  }
+
+  /** Tables with binary columns are always fetched, so their values can be streamed to files. */
+  private boolean isCopyOutEnabled(CatalogTable table) {
+    return context.isCopyEnabled()
+        && (dataFormat == ExportFormat.csv || dataFormat == ExportFormat.tsv)
+        && source.supportsCopyOut()
+        && blobColumns(table) == 0;
+  }
+
+  /**
+   * Whether the typed formats read {@code table} with a binary COPY: only when every column has a
+   * type {@link BinaryColumnType} decodes, so no table loses values to the faster path, and none
+   * is binary, since those are streamed to files by the JDBC path.
+   */
+  private boolean isBinaryCopyEnabled(CatalogTable table) {
+    if (!context.isCopyEnabled()
+        || dataFormat == ExportFormat.csv
+        || dataFormat == ExportFormat.tsv
+        || !source.supportsCopyOut()) {
+      return false;
+    }
+    for (CatalogColumn column : table.getColumns()) {
+      if (BinaryColumnType.forOid(column.getTypeOid()) == null || ColumnTypeMapper.isBlob(column)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long blobColumns(CatalogTable table) {
+    return table.getColumns().stream().filter(ColumnTypeMapper::isBlob).count();
+  }
+
+  /**
+   * Writer for the binary columns of the table, {@code null} when it has none.
+   *
+   * @param namePrefix keeps the files of concurrently read ranges apart
+   * @param firstRow rows of the table exported before, by an earlier run
+   */
+  private BlobWriter getBlobWriter(
+      CatalogTable table, String outputFilePath, String namePrefix, long firstRow) {
+    if (blobColumns(table) == 0) {
+      return null;
+    }
+    return new BlobWriter(
+        outputFilePath,
+        table.getSchema(),
+        table.getName(),
+        namePrefix,
+        firstRow,
+        context.getProgress());
+  }
+
+  /** Reusable batch sized like the cursor fetch of the JDBC path. */
+  private ColumnBatch getColumnBatch(
+      CatalogTable table, List<ColumnInfo> columnInfoList, long estimatedRowBytes) {
+    List<BinaryColumnType> types = new ArrayList<>(columnInfoList.size());
+    List<DataType> targets = new ArrayList<>(columnInfoList.size());
+    for (ColumnInfo columnInfo : columnInfoList) {
+      types.add(BinaryColumnType.forOid(table.getColumn(columnInfo.getColumn()).getTypeOid()));
+      targets.add(columnInfo.getDataType());
+    }
+    int capacity = new AdaptiveFetchSizer(cursorBudgetBytes, estimatedRowBytes).getFetchSize();
+    return new ColumnBatch(types, targets, capacity);
+  }
+
+  /** Logs the read rate of a table so the COPY and JDBC paths can be compared per table shape. */
+  private void logThroughput(String tableKey, String path, int columns, long rows, long started) {
+    long millis = Math.max(1, System.currentTimeMillis() - started);
+    log.info(
+        "Exported {} rows x {} columns of {} via {} in {} ms ({} rows/s)",
+        rows,
+        columns,
+        tableKey,
+        path,
+        millis,
+        rows * 1000 / millis);
+  }
+
+  /**
+   * Ranges for tables whose planner estimate reaches the split threshold or that the extraction
+   * plan marked as dominant, by integral primary key when there is one and by physical block
+   * otherwise. Empty when the table is not split.
+   */
+  private List<TableRange> planRanges(CatalogTable table, Connection connection)
+      throws SQLException {
+    boolean split =
+        table.getRowEstimate() >= context.getRangeSplitMinRows()
+            || plan.isSplit(table.getSchema(), table.getName());
+    // A sample is small by design and would be cut short unevenly by per-range caps.
+    if (!context.isRangeSplitEnabled() || !split || isSampling()) {
+      return List.of();
+    }
+    String keyColumn = table.getSingleColumnPrimaryKey();
+    if (keyColumn != null && !table.getColumn(keyColumn).isIntegral()) {
+      keyColumn = null;
+    }
+    return source.planRanges(
+        connection, table.getSchema(), table.getName(), keyColumn, context.getRangesPerTable());
+  }
+
+  /**
+   * Exports each range concurrently on its own connection into its own rolled file sequence
+   * ({@code <table>-r<range>-<n>}), then writes a manifest mapping ranges to files. The table is
+   * only checkpointed as a whole; an interrupted split table is exported again on resume.
+   */
+  private void exportDataInRanges(
+      CatalogTable table,
       List<ColumnInfo> columnInfoList,
-      JDBCConnection jdbcConnection,
+      long estimatedRowBytes,
+      List<TableRange> ranges,
       String outputFilePath)
       throws Exception {
-    ExportEngine dataExportEngine = getDataExportEngine(tableName, columnInfoList, outputFilePath);
+    String schema = table.getSchema();
+    String tableName = table.getName();
+    String tableKey = JDBCConnection.tableKey(schema, tableName);
+    log.info("Exporting {} in {} ranges", tableKey, ranges.size());
+    // The row cap applies to the table as a whole, so it is shared out across the ranges.
+    long limitPerRange =
+        maxRowsPerTable == JDBCConnection.NO_LIMIT
+            ? JDBCConnection.NO_LIMIT
+            : (long) Math.ceil((double) maxRowsPerTable / ranges.size());
+    ExecutorService rangeExecutor = Executors.newFixedThreadPool(ranges.size());
+    boolean stopped = false;
+    boolean completed = false;
+    long rows = 0;
     try {
-      String sampleSelectQuery =
-          jdbcConnection.getSampleSelectQuery(schema, tableName, columnInfoList);
-      Connection connection = jdbcConnection.getConnection();
-      connection.setAutoCommit(false);
-      Statement statement = connection.createStatement();
-      ResultSet resultSet = statement.executeQuery(sampleSelectQuery);
-      while (resultSet.next()) {
-        List<Object> data = new LinkedList<>();
-        for (ColumnInfo columnInfo : columnInfoList) {
-          data.add(resultSet.getString(columnInfo.getColumn()));
+      List<Future<Long>> rangeTasks = new ArrayList<>();
+      for (TableRange range : ranges) {
+        rangeTasks.add(
+            rangeExecutor.submit(
+                () ->
+                    exportRange(
+                        table,
+                        columnInfoList,
+                        estimatedRowBytes,
+                        range,
+                        limitPerRange,
+                        outputFilePath)));
+      }
+      Exception failure = null;
+      for (Future<Long> rangeTask : rangeTasks) {
+        try {
+          rows += rangeTask.get();
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause() instanceof Exception cause ? cause : e;
+          }
         }
-        writeRecords(data, dataExportEngine);
       }
+      if (context.isStopRequested()) {
+        stopped = true;
+        throw context.stopException();
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      writeTableFile(
+          TableManifest.FILE_NAME,
+          TableManifest.builder()
+              .schema(schema)
+              .table(tableName)
+              .splitBy(splitColumn(ranges, table))
+              .rows(rows)
+              .ranges(ranges)
+              .build(),
+          schema,
+          tableName,
+          outputFilePath);
+      writeDeltaManifest(table, rows, outputFilePath);
+      context.getCheckpoints().tableCompleted(schema, tableName, rows);
+      completed = true;
+    } catch (ExtractionCancelledException e) {
+      stopped = true;
+      throw e;
     } catch (Exception e) {
-      e.printStackTrace();
+      // Ranges are not checkpointed, so the table is exported again in full on resume.
+      tableFailed(tableKey, e);
+    } finally {
+      rangeExecutor.shutdownNow();
+      if (stopped || !completed) {
+        deletePartialTableData(schema, tableName, outputFilePath);
+      }
+      context.getProgress().tableFinished(tableKey);
+      plan.tableFinished(schema, tableName, rows, outcome(completed, stopped));
+    }
+  }
+
+  private static ExtractionPlan.Outcome outcome(boolean completed, boolean stopped) {
+    if (completed) {
+      return ExtractionPlan.Outcome.COMPLETED;
+    }
+    return stopped ? ExtractionPlan.Outcome.STOPPED : ExtractionPlan.Outcome.FAILED;
+  }
+
+  private Long exportRange(
+      CatalogTable table,
+      List<ColumnInfo> columnInfoList,
+      long estimatedRowBytes,
+      TableRange range,
+      long limit,
+      String outputFilePath)
+      throws Exception {
+    String schema = table.getSchema();
+    String tableName = table.getName();
+    String title = String.format("%s-r%03d", tableDataName(schema, tableName), range.getIndex());
+    String query =
+        source.getRangeSelectQuery(
+            schema, tableName, columnInfoList, range.getPredicate(), scanFilter(table), limit);
+    long rows;
+    try (Connection connection = source.borrowConnection()) {
+      connection.setAutoCommit(false);
+      if (isCopyOutEnabled(table)) {
+        try (CopyOutWriter writer =
+            getCopyOutWriter(title, schema, tableName, columnInfoList, outputFilePath, 0)) {
+          rows = copyRows(connection, query, writer, schema, tableName, -1, 0);
+        }
+      } else if (isBinaryCopyEnabled(table)) {
+        ColumnBatch batch = getColumnBatch(table, columnInfoList, estimatedRowBytes);
+        ExportEngine dataExportEngine =
+            getDataExportEngine(title, schema, tableName, columnInfoList, outputFilePath, 0);
+        try {
+          rows =
+              binaryCopyRows(
+                  connection, query, batch, dataExportEngine, schema, tableName, -1, 0);
+        } finally {
+          dataExportEngine.handleDataEnd();
+          dataExportEngine.generateReport();
+        }
+      } else {
+        rows =
+            fetchRange(
+                connection,
+                query,
+                title,
+                schema,
+                tableName,
+                columnInfoList,
+                estimatedRowBytes,
+                getBlobWriter(
+                    table, outputFilePath, String.format("r%03d-", range.getIndex()), 0),
+                outputFilePath);
+      }
+    } catch (SQLException e) {
+      if (context.isStopRequested()) {
+        throw context.stopException();
+      }
+      throw e;
+    }
+    range.setRows(rows);
+    range.setFiles(rangeFiles(title, schema, tableName, outputFilePath));
+    return rows;
+  }
+
+  private long fetchRange(
+      Connection connection,
+      String query,
+      String title,
+      String schema,
+      String tableName,
+      List<ColumnInfo> columnInfoList,
+      long estimatedRowBytes,
+      BlobWriter blobWriter,
+      String outputFilePath)
+      throws Exception {
+    ExportEngine dataExportEngine =
+        getDataExportEngine(title, schema, tableName, columnInfoList, outputFilePath, 0);
+    long rows = 0;
+    try (Statement statement = connection.createStatement()) {
+      AdaptiveFetchSizer fetchSizer = getFetchSizer(statement, estimatedRowBytes);
+      context.registerStatement(statement);
+      try (ResultSet resultSet = statement.executeQuery(query);
+          RowPipeline pipeline =
+              readRows(
+                  resultSet, columnInfoList, estimatedRowBytes, null, fetchSizer, blobWriter)) {
+        RowBatch batch;
+        while ((batch = pipeline.next()) != null) {
+          for (int i = 0; i < batch.getSize(); i++) {
+            if (context.isStopRequested()) {
+              throw context.stopException();
+            }
+            writeRecords(batch.getRow(i), dataExportEngine);
+            rows++;
+          }
+        }
+      } finally {
+        context.unregisterStatement(statement);
+      }
     } finally {
       dataExportEngine.handleDataEnd();
       dataExportEngine.generateReport();
-      deleteFolderIfEmpty(tableName, outputFilePath);
     }
+    return rows;
+  }
+
+  /**
+   * Fetch sizer of a select read through a cursor, already applied to {@code statement}, or {@code
+   * null} when the source reads plain result sets. The cursor gets half of its share of the fetch
+   * budget, the rows queued in its {@link RowPipeline} the other half.
+   */
+  private AdaptiveFetchSizer getFetchSizer(Statement statement, long estimatedRowBytes)
+      throws SQLException {
+    if (!source.usesCursor()) {
+      return null;
+    }
+    AdaptiveFetchSizer fetchSizer =
+        new AdaptiveFetchSizer(cursorBudgetBytes / 2, estimatedRowBytes);
+    statement.setFetchSize(fetchSizer.getFetchSize());
+    return fetchSizer;
+  }
+
+  /**
+   * Starts reading {@code resultSet} on a reader thread, so the caller only writes the rows. The
+   * batches in flight hold about as many rows as one fetch of the cursor.
+   *
+   * @param keyColumn column whose value is kept with each row for checkpoints, or {@code null}
+   */
+  private RowPipeline readRows(
+      ResultSet resultSet,
+      List<ColumnInfo> columnInfoList,
+      long estimatedRowBytes,
+      String keyColumn,
+      AdaptiveFetchSizer fetchSizer,
+      BlobWriter blobWriter) {
+    int batches = Math.max(2, context.getPipelineBatches());
+    int queuedRows =
+        new AdaptiveFetchSizer(cursorBudgetBytes / 2, estimatedRowBytes).getFetchSize();
+    return new RowPipeline(
+        rowReaders,
+        batches,
+        Math.max(1, queuedRows / batches),
+        columnInfoList.size(),
+        batch -> readBatch(resultSet, batch, columnInfoList, keyColumn, fetchSizer, blobWriter));
+  }
+
+  /** Fills {@code batch} from the result set; runs on the reader thread of a pipeline. */
+  private boolean readBatch(
+      ResultSet resultSet,
+      RowBatch batch,
+      List<ColumnInfo> columnInfoList,
+      String keyColumn,
+      AdaptiveFetchSizer fetchSizer,
+      BlobWriter blobWriter)
+      throws SQLException, IOException {
+    while (!batch.isFull()) {
+      if (!resultSet.next()) {
+        return false;
+      }
+      ExportRow row = batch.addRow();
+      readRow(resultSet, columnInfoList, row, blobWriter);
+      long streamedBytes = blobWriter == null ? 0 : blobWriter.rowDone();
+      if (keyColumn != null) {
+        batch.setKey(resultSet.getString(keyColumn));
+      }
+      if (fetchSizer != null && fetchSizer.observe(row, streamedBytes)) {
+        resultSet.setFetchSize(fetchSizer.getFetchSize());
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads the current row in the native type of each column, in select-list order. Binary columns
+   * are written to files by {@code blobWriter} and the row gets their references.
+   */
+  static void readRow(
+      ResultSet resultSet, List<ColumnInfo> columnInfoList, ExportRow row, BlobWriter blobWriter)
+      throws SQLException, IOException {
+    int index = 0;
+    for (ColumnInfo columnInfo : columnInfoList) {
+      DataType dataType = columnInfo.getDataType();
+      row.set(
+          index,
+          dataType == DataType.BLOB
+              ? blobWriter.write(resultSet, index + 1, columnInfo.getColumn())
+              : ColumnTypeMapper.read(resultSet, index + 1, dataType));
+      index++;
+    }
+  }
+
+  private List<String> rangeFiles(
+      String title, String schema, String tableName, String outputFilePath) {
+    File tableDir = new File(tableDataDir(outputFilePath, schema, tableName));
+    File[] files = tableDir.listFiles((dir, name) -> name.startsWith(title + "-"));
+    if (files == null) {
+      return new ArrayList<>();
+    }
+    List<String> names = new ArrayList<>();
+    for (File file : files) {
+      names.add(file.getName());
+    }
+    names.sort(null);
+    return names;
+  }
+
+  private String splitColumn(List<TableRange> ranges, CatalogTable table) {
+    String predicate = ranges.get(0).getPredicate();
+    return predicate.startsWith("ctid") ? "ctid" : table.getSingleColumnPrimaryKey();
   }
 
-  private void deleteFolderIfEmpty(String tableName, String outputFilePath) throws Exception {
-    String tableDir = outputFilePath + File.separator + "DATA" + File.separator + tableName;
+  /** Writes {@code content} as JSON into the table's data folder. */
+  private void writeTableFile(
+      String fileName, Object content, String schema, String tableName, String outputFilePath)
+      throws IOException {
+    String path = tableDataDir(outputFilePath, schema, tableName) + File.separator + fileName;
+    FileUtil.writeFile(path, new GsonBuilder().setPrettyPrinting().create().toJson(content));
+  }
+
+  /**
+   * Bounds the read of the table by its watermark column, if the job names one: up to the highest
+   * watermark committed now and, in incremental mode, above the one stored by the last completed
+   * run. A resumed table keeps the upper bound it first read up to. When the watermark has wrapped
+   * around since the last run, see {@link SourceDialect#watermarkWrapped}, the table is read in
+   * full and the new high value is stored for the next run.
+   */
+  private void planWatermark(
+      CatalogTable table, ExtractionCheckpoint checkpoint, Connection connection)
+      throws SQLException {
+    String schema = table.getSchema();
+    String tableName = table.getName();
+    String tableKey = JDBCConnection.tableKey(schema, tableName);
+    String watermarkColumn = watermarkColumns.get(tableKey);
+    if (watermarkColumn == null) {
+      return;
+    }
+    String after =
+        extractionMode == ExtractionMode.INCREMENTAL
+            ? context.getWatermarks().get(schema, tableName, watermarkColumn)
+            : null;
+    String upTo;
+    if (checkpoint != null
+        && watermarkColumn.equals(checkpoint.getWatermarkColumn())
+        && checkpoint.getWatermark() != null) {
+      upTo = checkpoint.getWatermark();
+    } else {
+      upTo = source.getWatermarkHighValue(connection, schema, tableName, watermarkColumn);
+    }
+    if (upTo == null) {
+      // Nothing to read; an empty table keeps the watermark it had.
+      upTo = after;
+    }
+    context.getCheckpoints().watermarkPlanned(schema, tableName, watermarkColumn, upTo);
+    if (after != null
+        && upTo != null
+        && source.isWatermarkWrapped(watermarkColumn, after, upTo)) {
+      log.warn(
+          "{} of {} wrapped around from {} to {}, reading the table in full",
+          watermarkColumn,
+          tableKey,
+          after,
+          upTo);
+      // Rows written before the wraparound are above upTo, so neither bound holds.
+      watermarkScans.put(tableKey, new WatermarkScan(watermarkColumn, null, null));
+      return;
+    }
+    watermarkScans.put(tableKey, new WatermarkScan(watermarkColumn, after, upTo));
+    log.info("Reading {} by {} above {} up to {}", tableKey, watermarkColumn, after, upTo);
+  }
+
+  /**
+   * Row filter of the table's selection predicate and watermark bounds, {@code null} when it is
+   * read in full.
+   */
+  private String scanFilter(CatalogTable table) {
+    String tableFilter = catalogFilter.getTableFilter(table.getSchema(), table.getName());
+    WatermarkScan scan =
+        watermarkScans.get(JDBCConnection.tableKey(table.getSchema(), table.getName()));
+    if (scan == null) {
+      return tableFilter;
+    }
+    return SourceDialect.and(
+        tableFilter, source.getWatermarkFilter(scan.column(), scan.after(), scan.upTo()));
+  }
+
+  /** Rows still to read from a table of which {@code rowsRead} have been exported already. */
+  private long rowLimit(CatalogTable table, long rowsRead) {
+    // A table read through a sample returns about the sample size by itself; the others are
+    // capped at it, which for views and unanalyzed tables means their first rows.
+    long cap =
+        tableSample(table) == null ? minLimit(maxRowsPerTable, sampleRows) : maxRowsPerTable;
+    if (cap == JDBCConnection.NO_LIMIT) {
+      return JDBCConnection.NO_LIMIT;
+    }
+    return Math.max(0, cap - rowsRead);
+  }
+
+  /** The lower of two row limits, either of which may be {@link JDBCConnection#NO_LIMIT}. */
+  private static long minLimit(long limit, long other) {
+    if (limit == JDBCConnection.NO_LIMIT) {
+      return other;
+    }
+    return other == JDBCConnection.NO_LIMIT ? limit : Math.min(limit, other);
+  }
+
+  private boolean isSampling() {
+    return sampleRows != JDBCConnection.NO_LIMIT;
+  }
+
+  /**
+   * Sample the table is read through, {@code null} when the job reads tables in full, when the
+   * source cannot sample the table or when its row estimate is no larger than the sample.
+   */
+  private TableSample tableSample(CatalogTable table) {
+    if (!isSampling() || !source.supportsTableSample(table.getType())) {
+      return null;
+    }
+    return TableSample.of(samplingMethod, sampleRows, table.getRowEstimate(), sampleSeed);
+  }
+
+  private void logSampling(CatalogTable table) {
+    if (!isSampling()) {
+      return;
+    }
+    String tableKey = JDBCConnection.tableKey(table.getSchema(), table.getName());
+    TableSample sample = tableSample(table);
+    if (sample == null) {
+      log.info("Reading up to {} rows of {} without sampling it", sampleRows, tableKey);
+      return;
+    }
+    log.info(
+        "Sampling {} with {} at {}% of an estimated {} rows",
+        tableKey,
+        sample.method(),
+        sample.percent(),
+        table.getRowEstimate());
+  }
+
+  private void writeDeltaManifest(CatalogTable table, long rows, String outputFilePath)
+      throws IOException {
+    WatermarkScan scan =
+        watermarkScans.get(JDBCConnection.tableKey(table.getSchema(), table.getName()));
+    if (scan == null) {
+      return;
+    }
+    writeTableFile(
+        DeltaManifest.FILE_NAME,
+        DeltaManifest.builder()
+            .schema(table.getSchema())
+            .table(table.getName())
+            .watermarkColumn(scan.column())
+            .after(scan.after())
+            .upTo(scan.upTo())
+            .rows(rows)
+            .build(),
+        table.getSchema(),
+        table.getName(),
+        outputFilePath);
+  }
+
+  /**
+   * Single column primary key to read a large table in order, so the table can be checkpointed at
+   * file boundaries. Small tables, tables without such a key and samples, which ordering would
+   * only add a sort to, are simply re-exported on resume.
+   */
+  private String keyColumnFor(CatalogTable table) {
+    if (isSampling()
+        || table.getRowEstimate() < context.getCheckpoints().getKeyedTableMinRows()) {
+      return null;
+    }
+    return table.getSingleColumnPrimaryKey();
+  }
+
+  /** Keeps the files covered by the table's checkpoint and drops the rest of a stopped table. */
+  private void keepCheckpointedData(String schema, String tableName, String outputFilePath) {
+    ExtractionCheckpoint checkpoint = context.getCheckpoints().get(schema, tableName);
+    if (checkpoint == null || checkpoint.getLastKey() == null) {
+      deletePartialTableData(schema, tableName, outputFilePath);
+      return;
+    }
+    deleteDataFilesAfter(schema, tableName, outputFilePath, checkpoint.getFilesCompleted());
+  }
+
+  /** Deletes data files numbered after {@code filesCompleted}, i.e. not covered by a checkpoint. */
+  private void deleteDataFilesAfter(
+      String schema, String tableName, String outputFilePath, long filesCompleted) {
+    File tableDir = new File(tableDataDir(outputFilePath, schema, tableName));
+    File[] files = tableDir.listFiles();
+    if (files == null) {
+      return;
+    }
+    Pattern dataFile =
+        Pattern.compile(Pattern.quote(tableDataName(schema, tableName)) + "-(\\d{8})\\..+");
+    for (File file : files) {
+      Matcher matcher = dataFile.matcher(file.getName());
+      if (matcher.matches() && Long.parseLong(matcher.group(1)) > filesCompleted) {
+        FileUtil.deleteFile(file.getAbsolutePath());
+      }
+    }
+  }
+
+  private void deletePartialTableData(String schema, String tableName, String outputFilePath) {
+    String tableDir = tableDataDir(outputFilePath, schema, tableName);
+    FileUtil.deleteDirectory(tableDir);
+    FileUtil.deleteDirectory(BlobWriter.tableFolder(outputFilePath, schema, tableName));
+    log.info("Deleted partial table data directory {}", tableDir);
+  }
+
+  private void deleteFolderIfEmpty(String schema, String tableName, String outputFilePath)
+      throws Exception {
+    String tableDir = tableDataDir(outputFilePath, schema, tableName);
     if (Files.isDirectory(Path.of(tableDir)) && isDirectoryEmpty(Path.of(tableDir))) {
       Files.delete(Path.of(tableDir));
-      log.info("Deleted table data directory {}", tableName);
+      log.info("Deleted table data directory {}", tableDir);
     }
   }
 
@@ -272,28 +1495,95 @@ public class ProcessExtraction {
     return ee;
   }
 
+  /**
+   * Name of the data folder of a table and title of its data files. Both carry the schema, so
+   * same-named tables of two schemas never share files, and are safe as file names.
+   */
+  static String tableDataName(String schema, String tableName) {
+    return Utility.checkValidFolder(schema) + "-" + Utility.checkValidFolder(tableName);
+  }
+
+  static String tableDataDir(String outputFilePath, String schema, String tableName) {
+    return outputFilePath
+        + File.separator
+        + DATA_FOLDER
+        + File.separator
+        + tableDataName(schema, tableName);
+  }
+
+  private ExportEngine getDataExportEngine(
+      String schema,
+      String tableName,
+      List<ColumnInfo> columnInfoList,
+      String outputFilePath,
+      long startFileIndex)
+      throws Exception {
+    return getDataExportEngine(
+        tableDataName(schema, tableName),
+        schema,
+        tableName,
+        columnInfoList,
+        outputFilePath,
+        startFileIndex);
+  }
+
   private ExportEngine getDataExportEngine(
-      String tableName, List<ColumnInfo> columnInfoList, String outputFilePath) throws Exception {
+      String title,
+      String schema,
+      String tableName,
+      List<ColumnInfo> columnInfoList,
+      String outputFilePath,
+      long startFileIndex)
+      throws Exception {
     ExportEngine ee;
-    String dataDir = outputFilePath + File.separator + "DATA";
-    FileUtil.checkCreateDirectory(dataDir);
-    String tableDataDir = dataDir + File.separator + tableName;
+    FileUtil.checkCreateDirectory(outputFilePath + File.separator + DATA_FOLDER);
+    String tableDataDir = tableDataDir(outputFilePath, schema, tableName);
     FileUtil.checkCreateDirectory(tableDataDir);
     ee =
         ExportEngine.builder()
             .basePath(tableDataDir)
-            .exportFormat(ExportFormat.csv)
-            .title(tableName)
+            .exportFormat(dataFormat)
+            .title(title)
             .columnsInfo(columnInfoList)
-            .recordPerFile(10000L)
-            .sizePerFile(50L)
+            .recordPerFile(DATA_RECORDS_PER_FILE)
+            .sizePerFile(DATA_MEGABYTES_PER_FILE)
             .fileEncoding(StandardCharsets.UTF_8.name())
+            .progressListener(context.getProgress())
+            .startFileIndex(startFileIndex)
             .build();
     ee.initialize();
     ee.handleDataStart();
     return ee;
   }
 
+  private CopyOutWriter getCopyOutWriter(
+      String title,
+      String schema,
+      String tableName,
+      List<ColumnInfo> columnInfoList,
+      String outputFilePath,
+      long startFileIndex)
+      throws Exception {
+    FileUtil.checkCreateDirectory(outputFilePath + File.separator + DATA_FOLDER);
+    String tableDataDir = tableDataDir(outputFilePath, schema, tableName);
+    FileUtil.checkCreateDirectory(tableDataDir);
+    return new CopyOutWriter(
+        tableDataDir,
+        title,
+        dataFormat,
+        columnInfoList.stream().map(ColumnInfo::getColumn).toList(),
+        DATA_RECORDS_PER_FILE,
+        DATA_MEGABYTES_PER_FILE * 1024 * 1024,
+        startFileIndex,
+        context.getProgress());
+  }
+
+  /** Where a keyed table continues: after {@code lastKey}, behind {@code filesCompleted} files. */
+  private record ResumePoint(String keyColumn, String lastKey, long rows, long filesCompleted) {}
+
+  /** Watermark bounds of a table: above {@code after} and up to {@code upTo}, either optional. */
+  private record WatermarkScan(String column, String after, String upTo) {}
+
   public void end(JDBCConnection jdbcConnection) throws SQLException {
     jdbcConnection.closeConnection();
   }
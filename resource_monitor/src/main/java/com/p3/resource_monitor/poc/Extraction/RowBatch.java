@@ -0,0 +1,59 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.p3.export.specifics.ExportRow;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed number of reusable rows passed from the reader to the writer of a {@link RowPipeline}.
+ * Rows are refilled in place batch after batch, which is safe because the export engines write a
+ * row out before taking the next one. For keyed tables the reader also keeps the
+ * key of each row, since the writer cannot touch the result set.
+ */
+public class RowBatch {
+  private final List<ExportRow> rows;
+  private final String[] keys;
+  private int size;
+
+  public RowBatch(int capacity, int columns) {
+    rows = new ArrayList<>(capacity);
+    for (int i = 0; i < capacity; i++) {
+      rows.add(new ExportRow(columns));
+    }
+    keys = new String[capacity];
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public boolean isFull() {
+    return size == rows.size();
+  }
+
+  public ExportRow getRow(int index) {
+    return rows.get(index);
+  }
+
+  /** Key of the row at {@code index}, {@code null} unless the reader set one. */
+  public String getKey(int index) {
+    return keys[index];
+  }
+
+  /** Appends a row and returns it to fill; every column of it is overwritten. */
+  ExportRow addRow() {
+    ExportRow row = rows.get(size);
+    keys[size] = null;
+    size++;
+    return row;
+  }
+
+  /** Sets the key of the row added last. */
+  void setKey(String key) {
+    keys[size - 1] = key;
+  }
+
+  void clear() {
+    size = 0;
+  }
+}
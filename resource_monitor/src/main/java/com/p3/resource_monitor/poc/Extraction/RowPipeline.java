@@ -0,0 +1,100 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads the rows of a table on a thread of its own while the calling thread writes them, so
+ * fetching from the database and encoding into the export format overlap instead of taking turns.
+ * The two sides exchange {@link RowBatch}es through a {@link RowRingBuffer}; a writer that falls
+ * behind holds the reader back once every batch is queued.
+ *
+ * <p>The calling thread drains the pipeline with {@link #next()} and must close it, also when it
+ * fails, so the reader is stopped before its result set is closed.
+ */
+public class RowPipeline implements AutoCloseable {
+  /** Fills one batch on the reader thread. */
+  @FunctionalInterface
+  public interface RowReader {
+    /**
+     * Adds rows to {@code batch} until it is full or the rows run out.
+     *
+     * @return {@code false} once there are no more rows
+     */
+    boolean read(RowBatch batch) throws Exception;
+  }
+
+  private final RowRingBuffer<RowBatch> ring;
+  private final Future<?> readerTask;
+  private volatile Exception readFailure;
+  private boolean holdingBatch;
+
+  /**
+   * Starts reading right away.
+   *
+   * @param batches batches in flight between reader and writer
+   * @param batchRows rows per batch
+   * @param columns columns per row, to size the reused row lists
+   */
+  public RowPipeline(
+      ExecutorService executor, int batches, int batchRows, int columns, RowReader reader) {
+    ring = new RowRingBuffer<>(batches, () -> new RowBatch(batchRows, columns));
+    readerTask = executor.submit(() -> read(reader));
+  }
+
+  private void read(RowReader reader) {
+    try {
+      boolean more = true;
+      while (more) {
+        RowBatch batch = ring.claim();
+        if (batch == null) {
+          // The writer gave up.
+          return;
+        }
+        batch.clear();
+        more = reader.read(batch);
+        if (batch.getSize() > 0) {
+          ring.publish();
+        }
+      }
+    } catch (Exception e) {
+      readFailure = e;
+    } finally {
+      ring.close();
+    }
+  }
+
+  /**
+   * Next batch of rows, handing the previous one back to the reader.
+   *
+   * @return the batch, or {@code null} once every row was read
+   * @throws Exception whatever the reader failed with, after the rows it read before
+   */
+  public RowBatch next() throws Exception {
+    if (holdingBatch) {
+      ring.release();
+      holdingBatch = false;
+    }
+    RowBatch batch = ring.take();
+    if (batch == null) {
+      if (readFailure != null) {
+        throw readFailure;
+      }
+      return null;
+    }
+    holdingBatch = true;
+    return batch;
+  }
+
+  /** Stops the reader if it is still running and waits for it to finish its current batch. */
+  @Override
+  public void close() throws InterruptedException {
+    ring.abort();
+    try {
+      readerTask.get();
+    } catch (ExecutionException e) {
+      // read() keeps its failures for next().
+    }
+  }
+}
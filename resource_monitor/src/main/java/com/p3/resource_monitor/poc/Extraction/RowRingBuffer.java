@@ -0,0 +1,135 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Bounded ring of reusable slots between exactly one producer thread and one consumer thread.
+ * The producer {@link #claim claims} a free slot, fills it in place and {@link #publish publishes}
+ * it; the consumer {@link #take takes} it, drains it and {@link #release releases} it back. A
+ * producer that runs ahead waits until the consumer releases a slot, so the ring also bounds the
+ * memory held between the two.
+ *
+ * <p>Each index is only written by one side, so no locks are needed. Waiting sides spin briefly,
+ * then park in short intervals instead of being signalled, which keeps the fast path free of
+ * any coordination.
+ */
+public class RowRingBuffer<T> {
+  private static final int SPINS = 100;
+  private static final long PARK_NANOS = 50_000;
+
+  private final Object[] slots;
+  private final int mask;
+
+  /** Next slot the consumer takes; written by the consumer only. */
+  private final AtomicLong head = new AtomicLong();
+
+  /** Next slot the producer claims; written by the producer only. */
+  private final AtomicLong tail = new AtomicLong();
+
+  /** Producer's last read of {@link #head}, refreshed only when the ring looks full. */
+  private long cachedHead;
+
+  /** Consumer's last read of {@link #tail}, refreshed only when the ring looks empty. */
+  private long cachedTail;
+
+  private volatile boolean closed;
+  private volatile boolean aborted;
+
+  /**
+   * @param capacity slots, rounded up to a power of two
+   * @param slotFactory creates the slots up front
+   */
+  public RowRingBuffer(int capacity, Supplier<T> slotFactory) {
+    int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+    slots = new Object[Math.max(2, size)];
+    mask = slots.length - 1;
+    for (int i = 0; i < slots.length; i++) {
+      slots[i] = slotFactory.get();
+    }
+  }
+
+  /**
+   * Producer: the next slot to fill, waiting while all slots are queued for the consumer.
+   *
+   * @return the slot, or {@code null} if the ring was aborted
+   */
+  public T claim() throws InterruptedException {
+    long next = tail.get();
+    int idle = 0;
+    while (next - cachedHead >= slots.length) {
+      if (aborted) {
+        return null;
+      }
+      cachedHead = head.get();
+      if (next - cachedHead >= slots.length) {
+        idle = idle(idle);
+      }
+    }
+    return slot(next);
+  }
+
+  /** Producer: hands the claimed slot to the consumer. */
+  public void publish() {
+    tail.lazySet(tail.get() + 1);
+  }
+
+  /** Producer: no more slots will be published. */
+  public void close() {
+    closed = true;
+  }
+
+  /**
+   * Consumer: the next published slot, waiting while there is none.
+   *
+   * @return the slot, or {@code null} once the ring is closed and drained or was aborted
+   */
+  public T take() throws InterruptedException {
+    long next = head.get();
+    int idle = 0;
+    while (next >= cachedTail) {
+      if (aborted) {
+        return null;
+      }
+      // Read before the tail: a producer closes only after its last publish.
+      boolean wasClosed = closed;
+      cachedTail = tail.get();
+      if (next < cachedTail) {
+        break;
+      }
+      if (wasClosed) {
+        return null;
+      }
+      idle = idle(idle);
+    }
+    return slot(next);
+  }
+
+  /** Consumer: gives the taken slot back to the producer. */
+  public void release() {
+    head.lazySet(head.get() + 1);
+  }
+
+  /** Either side: makes every current and later {@link #claim} and {@link #take} return null. */
+  public void abort() {
+    aborted = true;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T slot(long index) {
+    return (T) slots[(int) (index & mask)];
+  }
+
+  private static int idle(int idle) throws InterruptedException {
+    if (idle < SPINS) {
+      Thread.onSpinWait();
+    } else {
+      LockSupport.parkNanos(PARK_NANOS);
+    }
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+    return idle + 1;
+  }
+}
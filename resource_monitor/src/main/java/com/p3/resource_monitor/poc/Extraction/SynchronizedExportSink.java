@@ -0,0 +1,33 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.p3.export.operation.ExportEngine;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Shared metadata output (schemas, tables, columns) that table workers write to concurrently. The
+ * engine is created on the first row, so no empty file is produced when nothing is written.
+ */
+public class SynchronizedExportSink {
+  private final Callable<ExportEngine> engineFactory;
+  private ExportEngine engine;
+
+  public SynchronizedExportSink(Callable<ExportEngine> engineFactory) {
+    this.engineFactory = engineFactory;
+  }
+
+  public synchronized void write(List<Object> row) throws Exception {
+    if (engine == null) {
+      engine = engineFactory.call();
+    }
+    engine.iterateRows(row);
+  }
+
+  public synchronized void close() throws Exception {
+    if (engine != null) {
+      engine.handleDataEnd();
+      engine.generateReport();
+      engine = null;
+    }
+  }
+}
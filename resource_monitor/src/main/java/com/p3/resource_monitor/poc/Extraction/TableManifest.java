@@ -0,0 +1,25 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Written as {@code MANIFEST.json} next to the data files of a range-partitioned table. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TableManifest {
+  public static final String FILE_NAME = "MANIFEST.json";
+
+  private String schema;
+  private String table;
+
+  /** Split column, or {@code ctid} for block ranges. */
+  private String splitBy;
+
+  private long rows;
+  private List<TableRange> ranges;
+}
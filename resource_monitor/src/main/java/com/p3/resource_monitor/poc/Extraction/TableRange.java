@@ -0,0 +1,32 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One slice of a range-partitioned table. The first and last ranges are open ended so rows
+ * outside the bounds seen at planning time are still exported exactly once.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TableRange {
+  private int index;
+
+  /** Inclusive lower bound, {@code null} for the first range. */
+  private String lowerBound;
+
+  /** Exclusive upper bound, {@code null} for the last range. */
+  private String upperBound;
+
+  /** SQL condition selecting the rows of this range. */
+  private String predicate;
+
+  @Builder.Default private List<String> files = new ArrayList<>();
+  private long rows;
+}
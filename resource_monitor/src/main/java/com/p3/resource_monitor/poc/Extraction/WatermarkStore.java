@@ -0,0 +1,99 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import com.p3.resource_monitor.poc.beans.ConnectionBean;
+import com.p3.resource_monitor.poc.beans.JobInputBean;
+import com.p3.resource_monitor.poc.persistance.models.ExtractionCheckpoint;
+import com.p3.resource_monitor.poc.persistance.models.TableWatermark;
+import com.p3.resource_monitor.poc.persistance.repos.TableWatermarkRepository;
+import com.p3.resource_monitor.poc.util.JDBCConnection;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Table watermarks of one scope, read when an extraction starts and advanced when it completes.
+ *
+ * <p>A table's new watermark travels in its checkpoint while the job runs and is only stored here
+ * once the whole job has completed. A job that fails or is cancelled therefore leaves the
+ * watermarks alone, and its rows are read again by the next run rather than lost.
+ */
+@Slf4j
+public class WatermarkStore {
+  private final TableWatermarkRepository repository;
+  private final String scope;
+  private final Map<String, TableWatermark> watermarks = new ConcurrentHashMap<>();
+
+  public WatermarkStore(TableWatermarkRepository repository, String scope) {
+    this.repository = repository;
+    this.scope = scope;
+  }
+
+  /** Store that keeps nothing, used when an extraction runs outside the dispatcher. */
+  public static WatermarkStore disabled() {
+    return new WatermarkStore(null, null);
+  }
+
+  /** The job's watermark scope, or the source database when it names none. */
+  public static String scopeOf(JobInputBean inputBean) {
+    if (inputBean.getWatermarkScope() != null && !inputBean.getWatermarkScope().isBlank()) {
+      return inputBean.getWatermarkScope();
+    }
+    ConnectionBean connection = inputBean.getConnection();
+    return connection.getHost() + ":" + connection.getPort() + "/" + connection.getDatabase();
+  }
+
+  public void load() {
+    watermarks.clear();
+    if (repository == null) {
+      return;
+    }
+    for (TableWatermark watermark : repository.findByScope(scope)) {
+      watermarks.put(
+          JDBCConnection.tableKey(watermark.getSchemaName(), watermark.getTableName()), watermark);
+    }
+    log.info("Loaded {} table watermarks of {}", watermarks.size(), scope);
+  }
+
+  /**
+   * Watermark of the last completed run that read the table by {@code watermarkColumn}, or {@code
+   * null} when there is none, e.g. because the table was read by another column before.
+   */
+  public String get(String schema, String tableName, String watermarkColumn) {
+    TableWatermark watermark = watermarks.get(JDBCConnection.tableKey(schema, tableName));
+    if (watermark == null || !watermarkColumn.equals(watermark.getWatermarkColumn())) {
+      return null;
+    }
+    return watermark.getLastValue();
+  }
+
+  /** Stores the watermarks of the completed tables among {@code checkpoints}. */
+  public void commit(String jobId, Collection<ExtractionCheckpoint> checkpoints) {
+    int committed = 0;
+    for (ExtractionCheckpoint checkpoint : checkpoints) {
+      if (!ExtractionCheckpoint.COMPLETED.equals(checkpoint.getStatus())
+          || checkpoint.getWatermark() == null) {
+        continue;
+      }
+      TableWatermark watermark =
+          watermarks.computeIfAbsent(
+              JDBCConnection.tableKey(checkpoint.getSchemaName(), checkpoint.getTableName()),
+              key ->
+                  TableWatermark.builder()
+                      .scope(scope)
+                      .schemaName(checkpoint.getSchemaName())
+                      .tableName(checkpoint.getTableName())
+                      .build());
+      watermark.setWatermarkColumn(checkpoint.getWatermarkColumn());
+      watermark.setLastValue(checkpoint.getWatermark());
+      watermark.setJobId(jobId);
+      watermark.setUpdatedAt(Instant.now());
+      if (repository != null) {
+        watermark.setId(repository.save(watermark).getId());
+      }
+      committed++;
+    }
+    log.info("Committed {} table watermarks of {} for job {}", committed, scope, jobId);
+  }
+}
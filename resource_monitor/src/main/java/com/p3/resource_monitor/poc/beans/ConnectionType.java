@@ -1,5 +1,6 @@
 package com.p3.resource_monitor.poc.beans;
 
 public enum ConnectionType {
-    POSTGRES
+    POSTGRES,
+    H2
 }
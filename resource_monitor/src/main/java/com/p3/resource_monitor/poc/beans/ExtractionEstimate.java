@@ -0,0 +1,55 @@
+package com.p3.resource_monitor.poc.beans;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What an extraction of a job input is projected to produce, from catalog estimates and a sample
+ * of each table encoded in the job's export format. Result of a {@link JobType#DRY_RUN} job.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExtractionEstimate {
+  private String exportFormat;
+  private long tables;
+  private long rows;
+  private long outputBytes;
+  private long files;
+
+  /** Free space on the file system of the output directory when the estimate was made. */
+  private Long freeDiskBytes;
+
+  /**
+   * Bytes per second written by recent completed extractions on the instance, {@code null} when
+   * there are none.
+   */
+  private Double observedBytesPerSecond;
+
+  /** Projected duration at the observed throughput, {@code null} without one. */
+  private Long estimatedSeconds;
+
+  @Builder.Default private List<TableEstimate> tableEstimates = new ArrayList<>();
+
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class TableEstimate {
+    private String schema;
+    private String table;
+    private long rows;
+
+    /** Rows the sample held; fewer than asked for means the table has no more rows. */
+    private long sampledRows;
+
+    private double bytesPerRow;
+    private long outputBytes;
+    private long files;
+  }
+}
@@ -0,0 +1,9 @@
+package com.p3.resource_monitor.poc.beans;
+
+/** How much of each table a job reads. */
+public enum ExtractionMode {
+    /** Every row of every table. */
+    FULL,
+    /** Only rows above the watermark stored by the last completed run, for tables that have one. */
+    INCREMENTAL
+}
@@ -0,0 +1,21 @@
+package com.p3.resource_monitor.poc.beans;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobBatchItem {
+  /** Name of the job within the batch, referenced by {@link #dependsOn} of other items. */
+  private String key;
+
+  /** Keys of jobs in the same batch that must complete before this one starts. */
+  private List<String> dependsOn;
+
+  private JobInputBean jobInput;
+}
@@ -0,0 +1,18 @@
+package com.p3.resource_monitor.poc.beans;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobBatchRequest {
+  /** Instance to run every job on; when absent each job is placed on a live instance. */
+  private String instanceId;
+
+  private List<JobBatchItem> jobs;
+}
@@ -0,0 +1,18 @@
+package com.p3.resource_monitor.poc.beans;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobBatchResponse {
+  private String batchId;
+
+  /** Job id per batch key. */
+  private Map<String, String> jobIds;
+}
@@ -1,5 +1,7 @@
 package com.p3.resource_monitor.poc.beans;
 
+import com.p3.export.formatter.ExportFormat;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,4 +15,59 @@ public class JobInputBean {
     private ConnectionType connectionType;
     private String outputDir;
     private ConnectionBean connection;
+
+    /** Higher values are dispatched first; defaults to 0 when absent. */
+    private Integer priority;
+
+    /** Submitter / tenant key used for fair sharing between callers. */
+    private String submitter;
+
+    /** Wall clock limit after which the running job is stopped as TIMED_OUT. */
+    private Integer maxRuntimeMinutes;
+
+    /** Delete the job's output directory when it is cancelled or times out, instead of marking it. */
+    private Boolean cleanupOnCancel;
+
+    /** Number of tables extracted concurrently, each on its own source connection; 1 if absent. */
+    private Integer parallelism;
+
+    /** Format of the table data files; csv if absent. Metadata files are always csv. */
+    private ExportFormat exportFormat;
+
+    /** FULL if absent. */
+    private ExtractionMode extractionMode;
+
+    /**
+     * Watermark column per table, keyed by {@code schema.table}: a column that only grows, such as
+     * updated_at or a sequence id, or {@code xmin}. Tables without one are always read in full.
+     */
+    private Map<String, String> watermarkColumns;
+
+    /** Key the table watermarks are stored under; the source host, port and database if absent. */
+    private String watermarkScope;
+
+    /** Schemas, tables, columns and rows to export; everything if absent. */
+    private TableSelection selection;
+
+    /** Rows read per table at most; unlimited if absent. */
+    private Long maxRowsPerTable;
+
+    /**
+     * Rows to sample from each table instead of reading it in full. Tables are sampled with {@code
+     * TABLESAMPLE} at the share of their row estimate this makes up, so the count is approximate;
+     * views and tables the source cannot sample get their first rows instead.
+     */
+    private Long sampleRows;
+
+    /** SYSTEM if absent. */
+    private SamplingMethod samplingMethod;
+
+    /** Seed that makes a sample repeatable while the table is unchanged; random if absent. */
+    private Long sampleSeed;
+
+    /**
+     * Projected size of the output, e.g. from a dry run of the same input. The job is only admitted
+     * when this much disk is free besides the configured minimum.
+     */
+    private Long estimatedOutputBytes;
 }
@@ -0,0 +1,28 @@
+package com.p3.resource_monitor.poc.beans;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobProgressSnapshot {
+  private String jobId;
+  private String status;
+  private Integer tablesDone;
+  private Integer tablesTotal;
+  private List<String> currentTables;
+  private Long rowsExported;
+  private Long bytesWritten;
+  private Long estimatedTotalRows;
+  private Double rowsPerSecond;
+  private Double bytesPerSecond;
+  private Long elapsedSeconds;
+  private Long estimatedSecondsRemaining;
+  private Instant lastProgressTime;
+}
@@ -0,0 +1,24 @@
+package com.p3.resource_monitor.poc.beans;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobQueueStatus {
+  private String jobId;
+  private String status;
+  private String statusReason;
+  private String submitter;
+  private Integer priority;
+  private Integer effectivePriority;
+  private Integer queuePosition;
+  private Integer queueLength;
+  private Integer runningJobs;
+  private Instant estimatedStartTime;
+}
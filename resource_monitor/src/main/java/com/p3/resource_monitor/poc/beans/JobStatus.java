@@ -0,0 +1,14 @@
+package com.p3.resource_monitor.poc.beans;
+
+public enum JobStatus {
+  /** Part of a batch and waiting for the jobs it depends on. */
+  WAITING,
+  READY,
+  RUNNING,
+  COMPLETED,
+  FAILED,
+  CANCELLED,
+  TIMED_OUT,
+  /** Not run because a job it depends on did not complete. */
+  SKIPPED
+}
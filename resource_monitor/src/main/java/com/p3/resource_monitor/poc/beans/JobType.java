@@ -0,0 +1,7 @@
+package com.p3.resource_monitor.poc.beans;
+
+public enum JobType {
+  EXTRACTION,
+  /** Estimates what an extraction of the job input would produce, without extracting it. */
+  DRY_RUN
+}
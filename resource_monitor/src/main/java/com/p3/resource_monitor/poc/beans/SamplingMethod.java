@@ -0,0 +1,9 @@
+package com.p3.resource_monitor.poc.beans;
+
+/** How rows are picked when a job samples its tables, see {@link JobInputBean#getSampleRows()}. */
+public enum SamplingMethod {
+    /** Whole random pages: reads only the sampled pages, but rows of a page come together. */
+    SYSTEM,
+    /** Each row on its own: a uniform sample, at the cost of scanning the whole table. */
+    BERNOULLI
+}
@@ -0,0 +1,40 @@
+package com.p3.resource_monitor.poc.beans;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Which part of the source a job exports. Patterns are globs ({@code *} any characters, {@code ?}
+ * one) or, prefixed with {@code regex:}, regular expressions; both must match the whole name and
+ * are case sensitive. An absent include list includes everything, excludes win over includes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TableSelection {
+    /** Patterns on schema names. */
+    private List<String> includeSchemas;
+    private List<String> excludeSchemas;
+
+    /** Patterns on {@code schema.table}, e.g. {@code sales.*} or {@code *.audit_*}. */
+    private List<String> includeTables;
+    private List<String> excludeTables;
+
+    /** Patterns on {@code schema.table.column}, for tables without an entry in tableColumns. */
+    private List<String> includeColumns;
+    private List<String> excludeColumns;
+
+    /**
+     * SQL condition per table, keyed by {@code schema.table}, that rows must match to be exported,
+     * e.g. {@code region = 'EU' AND deleted_at IS NULL}.
+     */
+    private Map<String, String> tableFilters;
+
+    /** Columns to export per table, keyed by {@code schema.table}, in the order to export them. */
+    private Map<String, List<String>> tableColumns;
+}
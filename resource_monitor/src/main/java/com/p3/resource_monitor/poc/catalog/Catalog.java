@@ -0,0 +1,49 @@
+package com.p3.resource_monitor.poc.catalog;
+
+import com.p3.resource_monitor.poc.util.JDBCConnection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * In-memory model of the schemas, tables and columns of a source database, read once per job by
+ * the source's dialect and used for both the metadata export and the data extraction.
+ */
+public class Catalog {
+  @Getter private final List<String> schemas = new ArrayList<>();
+
+  /** Tables keyed by {@link JDBCConnection#tableKey}, in schema and name order. */
+  private final Map<String, CatalogTable> tables = new LinkedHashMap<>();
+
+  private final Map<String, List<CatalogTable>> tablesBySchema = new HashMap<>();
+
+  public void addSchema(String schema) {
+    schemas.add(schema);
+  }
+
+  public void addTable(CatalogTable table) {
+    tables.put(JDBCConnection.tableKey(table.getSchema(), table.getName()), table);
+    tablesBySchema.computeIfAbsent(table.getSchema(), schema -> new ArrayList<>()).add(table);
+  }
+
+  /** Table of the catalog, or {@code null} if there is no such table. */
+  public CatalogTable getTable(String schema, String tableName) {
+    return tables.get(JDBCConnection.tableKey(schema, tableName));
+  }
+
+  public List<CatalogTable> getTables() {
+    return new ArrayList<>(tables.values());
+  }
+
+  public List<CatalogTable> getTables(String schema) {
+    return tablesBySchema.getOrDefault(schema, List.of());
+  }
+
+  public long getRowEstimate(String schema, String tableName) {
+    CatalogTable table = getTable(schema, tableName);
+    return table == null ? 0 : table.getRowEstimate();
+  }
+}
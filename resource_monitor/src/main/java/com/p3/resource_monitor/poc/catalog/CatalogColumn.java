@@ -0,0 +1,34 @@
+package com.p3.resource_monitor.poc.catalog;
+
+import java.sql.Types;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Column of a {@link CatalogTable}, with the same fields {@code DatabaseMetaData} reports. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogColumn {
+  private String name;
+  private int ordinalPosition;
+
+  /** {@link java.sql.Types} code, like {@code DATA_TYPE}. */
+  private int dataType;
+
+  private String typeName;
+
+  /** OID of the column's type, or of the base type for domains; 0 when not known. */
+  private long typeOid;
+
+  private int columnSize;
+  private int decimalDigits;
+  private boolean nullable;
+
+  /** Whether the column holds whole numbers, so its value range can be split arithmetically. */
+  public boolean isIntegral() {
+    return dataType == Types.BIGINT || dataType == Types.INTEGER || dataType == Types.SMALLINT;
+  }
+}
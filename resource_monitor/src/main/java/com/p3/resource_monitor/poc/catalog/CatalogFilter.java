@@ -0,0 +1,185 @@
+package com.p3.resource_monitor.poc.catalog;
+
+import com.p3.resource_monitor.poc.beans.TableSelection;
+import com.p3.resource_monitor.poc.util.JDBCConnection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Narrows a {@link Catalog} down to the {@link TableSelection} of a job, so tables and columns left
+ * out are neither listed in the metadata nor ever queried.
+ */
+@Slf4j
+public class CatalogFilter {
+  private static final String REGEX_PREFIX = "regex:";
+
+  private final List<Pattern> includeSchemas;
+  private final List<Pattern> excludeSchemas;
+  private final List<Pattern> includeTables;
+  private final List<Pattern> excludeTables;
+  private final List<Pattern> includeColumns;
+  private final List<Pattern> excludeColumns;
+  private final Map<String, String> tableFilters;
+  private final Map<String, List<String>> tableColumns;
+
+  /** @param selection the selection, everything when {@code null} */
+  public CatalogFilter(TableSelection selection) {
+    TableSelection nonNull = Objects.requireNonNullElseGet(selection, TableSelection::new);
+    includeSchemas = patterns(nonNull.getIncludeSchemas());
+    excludeSchemas = patterns(nonNull.getExcludeSchemas());
+    includeTables = patterns(nonNull.getIncludeTables());
+    excludeTables = patterns(nonNull.getExcludeTables());
+    includeColumns = patterns(nonNull.getIncludeColumns());
+    excludeColumns = patterns(nonNull.getExcludeColumns());
+    tableFilters = Objects.requireNonNullElse(nonNull.getTableFilters(), Map.of());
+    tableColumns = Objects.requireNonNullElse(nonNull.getTableColumns(), Map.of());
+  }
+
+  /** The selected schemas, tables and columns of {@code catalog}, in catalog order. */
+  public Catalog apply(Catalog catalog) {
+    Catalog selected = new Catalog();
+    for (String schema : catalog.getSchemas()) {
+      if (!isSelected(schema, includeSchemas, excludeSchemas)) {
+        continue;
+      }
+      List<CatalogTable> tables = new ArrayList<>();
+      for (CatalogTable table : catalog.getTables(schema)) {
+        String tableKey = JDBCConnection.tableKey(schema, table.getName());
+        if (!isSelected(tableKey, includeTables, excludeTables)) {
+          continue;
+        }
+        List<CatalogColumn> columns = selectColumns(table, tableKey);
+        if (columns.isEmpty()) {
+          log.warn("Skipping {}, none of its columns are selected", tableKey);
+          continue;
+        }
+        tables.add(copy(table, columns));
+      }
+      // Schemas whose every table was left out are left out too; empty schemas are kept.
+      if (tables.isEmpty() && !catalog.getTables(schema).isEmpty()) {
+        continue;
+      }
+      selected.addSchema(schema);
+      tables.forEach(selected::addTable);
+    }
+    warnUnknownTables(selected, tableFilters.keySet(), "filter");
+    warnUnknownTables(selected, tableColumns.keySet(), "column list");
+    log.info(
+        "Selected {} of {} tables in {} of {} schemas",
+        selected.getTables().size(),
+        catalog.getTables().size(),
+        selected.getSchemas().size(),
+        catalog.getSchemas().size());
+    return selected;
+  }
+
+  /** Condition rows of the table must match, {@code null} when all rows are exported. */
+  public String getTableFilter(String schema, String tableName) {
+    String filter = tableFilters.get(JDBCConnection.tableKey(schema, tableName));
+    return filter == null || filter.isBlank() ? null : filter;
+  }
+
+  private List<CatalogColumn> selectColumns(CatalogTable table, String tableKey) {
+    List<String> projection = tableColumns.get(tableKey);
+    List<CatalogColumn> columns = new ArrayList<>();
+    if (projection != null) {
+      for (String columnName : projection) {
+        CatalogColumn column = table.getColumn(columnName);
+        if (column == null) {
+          log.warn("Ignoring column {} selected for {}, it does not exist", columnName, tableKey);
+        } else {
+          columns.add(column);
+        }
+      }
+      return columns;
+    }
+    for (CatalogColumn column : table.getColumns()) {
+      if (isSelected(tableKey + "." + column.getName(), includeColumns, excludeColumns)) {
+        columns.add(column);
+      }
+    }
+    return columns;
+  }
+
+  /**
+   * Copy of the table with only {@code columns}. The primary key is dropped when a column of it is
+   * not exported, since it could then no longer be used to resume or split the table.
+   */
+  private static CatalogTable copy(CatalogTable table, List<CatalogColumn> columns) {
+    List<String> primaryKey = table.getPrimaryKey();
+    for (String keyColumn : primaryKey) {
+      if (columns.stream().noneMatch(column -> column.getName().equals(keyColumn))) {
+        primaryKey = List.of();
+        break;
+      }
+    }
+    return CatalogTable.builder()
+        .schema(table.getSchema())
+        .name(table.getName())
+        .type(table.getType())
+        .rowEstimate(table.getRowEstimate())
+        .sizeBytes(table.getSizeBytes())
+        .columns(columns)
+        .primaryKey(new ArrayList<>(primaryKey))
+        .build();
+  }
+
+  private static void warnUnknownTables(Catalog selected, Set<String> tableKeys, String what) {
+    Set<String> selectedKeys = new HashSet<>();
+    for (CatalogTable table : selected.getTables()) {
+      selectedKeys.add(JDBCConnection.tableKey(table.getSchema(), table.getName()));
+    }
+    for (String tableKey : tableKeys) {
+      if (!selectedKeys.contains(tableKey)) {
+        log.warn("Ignoring the {} for {}, the table is not selected", what, tableKey);
+      }
+    }
+  }
+
+  private static boolean isSelected(String name, List<Pattern> includes, List<Pattern> excludes) {
+    if (!includes.isEmpty() && includes.stream().noneMatch(p -> p.matcher(name).matches())) {
+      return false;
+    }
+    return excludes.stream().noneMatch(p -> p.matcher(name).matches());
+  }
+
+  private static List<Pattern> patterns(List<String> patterns) {
+    List<Pattern> compiled = new ArrayList<>();
+    if (patterns != null) {
+      for (String pattern : patterns) {
+        compiled.add(compile(pattern));
+      }
+    }
+    return compiled;
+  }
+
+  /** Compiles a glob, or a regular expression when it starts with {@code regex:}. */
+  static Pattern compile(String pattern) {
+    if (pattern.startsWith(REGEX_PREFIX)) {
+      return Pattern.compile(pattern.substring(REGEX_PREFIX.length()));
+    }
+    StringBuilder regex = new StringBuilder();
+    StringBuilder literal = new StringBuilder();
+    for (char c : pattern.toCharArray()) {
+      if (c == '*' || c == '?') {
+        if (literal.length() > 0) {
+          regex.append(Pattern.quote(literal.toString()));
+          literal.setLength(0);
+        }
+        regex.append(c == '*' ? ".*" : ".");
+      } else {
+        literal.append(c);
+      }
+    }
+    if (literal.length() > 0) {
+      regex.append(Pattern.quote(literal.toString()));
+    }
+    return Pattern.compile(regex.toString());
+  }
+}
@@ -0,0 +1,55 @@
+package com.p3.resource_monitor.poc.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Table or view of a {@link Catalog} with its columns and primary key. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogTable {
+  private String schema;
+  private String name;
+
+  /** {@code TABLE_TYPE} as reported by {@code DatabaseMetaData.getTables}, e.g. TABLE or VIEW. */
+  private String type;
+
+  /**
+   * Planner row estimate. Estimates come from statistics and can be stale or zero for tables that
+   * were never analyzed.
+   */
+  private long rowEstimate;
+
+  /** Size of the table data on disk, {@code 0} when the source does not report it. */
+  private long sizeBytes;
+
+  /**
+   * Version of the table's definition, {@code null} when the source reports none. It changes with
+   * the columns and primary key of the table, but not with its rows or statistics.
+   */
+  private String fingerprint;
+
+  @Builder.Default private List<CatalogColumn> columns = new ArrayList<>();
+
+  /** Primary key columns in key order, empty when there is no primary key. */
+  @Builder.Default private List<String> primaryKey = new ArrayList<>();
+
+  /** Name of the primary key column, or {@code null} if the table has no single column key. */
+  public String getSingleColumnPrimaryKey() {
+    return primaryKey.size() == 1 ? primaryKey.get(0) : null;
+  }
+
+  public CatalogColumn getColumn(String columnName) {
+    for (CatalogColumn column : columns) {
+      if (column.getName().equals(columnName)) {
+        return column;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,117 @@
+package com.p3.resource_monitor.poc.catalog;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads the catalog of any JDBC source through {@code DatabaseMetaData}: schemas, tables and the
+ * columns of all tables in one call each, primary keys per table. Meant for dialects without a
+ * catalog reader of their own, whose databases are small enough for the per-table calls.
+ */
+@Slf4j
+public class MetadataCatalogReader {
+  private final Connection connection;
+  private final String rowEstimatesQuery;
+
+  /**
+   * @param rowEstimatesQuery query returning schema, table and row estimate per table, or {@code
+   *     null} when the source has no estimates and every table counts as empty
+   */
+  public MetadataCatalogReader(Connection connection, String rowEstimatesQuery) {
+    this.connection = connection;
+    this.rowEstimatesQuery = rowEstimatesQuery;
+  }
+
+  public Catalog read() throws SQLException {
+    long started = System.currentTimeMillis();
+    Catalog catalog = new Catalog();
+    DatabaseMetaData metaData = connection.getMetaData();
+    try (ResultSet resultSet = metaData.getSchemas()) {
+      while (resultSet.next()) {
+        catalog.addSchema(resultSet.getString("TABLE_SCHEM"));
+      }
+    }
+    // getTables orders by type first; the catalog keeps tables in schema and name order.
+    List<CatalogTable> tables = new ArrayList<>();
+    try (ResultSet resultSet = metaData.getTables(null, null, "%", null)) {
+      while (resultSet.next()) {
+        tables.add(
+            CatalogTable.builder()
+                .schema(resultSet.getString("TABLE_SCHEM"))
+                .name(resultSet.getString("TABLE_NAME"))
+                .type(resultSet.getString("TABLE_TYPE"))
+                .build());
+      }
+    }
+    tables.sort(Comparator.comparing(CatalogTable::getSchema).thenComparing(CatalogTable::getName));
+    tables.forEach(catalog::addTable);
+    try (ResultSet resultSet = metaData.getColumns(null, null, "%", "%")) {
+      while (resultSet.next()) {
+        CatalogTable table =
+            catalog.getTable(resultSet.getString("TABLE_SCHEM"), resultSet.getString("TABLE_NAME"));
+        if (table == null) {
+          continue;
+        }
+        table
+            .getColumns()
+            .add(
+                CatalogColumn.builder()
+                    .name(resultSet.getString("COLUMN_NAME"))
+                    .ordinalPosition(resultSet.getInt("ORDINAL_POSITION"))
+                    .dataType(resultSet.getInt("DATA_TYPE"))
+                    .typeName(resultSet.getString("TYPE_NAME"))
+                    .columnSize(resultSet.getInt("COLUMN_SIZE"))
+                    .decimalDigits(resultSet.getInt("DECIMAL_DIGITS"))
+                    .nullable(resultSet.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls)
+                    .build());
+      }
+    }
+    for (CatalogTable table : tables) {
+      readPrimaryKey(metaData, table);
+    }
+    readRowEstimates(catalog);
+    log.info(
+        "Read catalog of {} schemas and {} tables in {} ms",
+        catalog.getSchemas().size(),
+        tables.size(),
+        System.currentTimeMillis() - started);
+    return catalog;
+  }
+
+  private void readPrimaryKey(DatabaseMetaData metaData, CatalogTable table) throws SQLException {
+    Map<Integer, String> keyColumns = new TreeMap<>();
+    try (ResultSet resultSet = metaData.getPrimaryKeys(null, table.getSchema(), table.getName())) {
+      while (resultSet.next()) {
+        keyColumns.put(resultSet.getInt("KEY_SEQ"), resultSet.getString("COLUMN_NAME"));
+      }
+    }
+    table.getPrimaryKey().addAll(keyColumns.values());
+  }
+
+  /** Estimates are only used for planning, so a source that cannot report them still extracts. */
+  private void readRowEstimates(Catalog catalog) {
+    if (rowEstimatesQuery == null) {
+      return;
+    }
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(rowEstimatesQuery)) {
+      while (resultSet.next()) {
+        CatalogTable table = catalog.getTable(resultSet.getString(1), resultSet.getString(2));
+        if (table != null) {
+          table.setRowEstimate(Math.max(0L, resultSet.getLong(3)));
+        }
+      }
+    } catch (SQLException e) {
+      log.warn("Could not read row estimates: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package com.p3.resource_monitor.poc.catalog;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.core.BaseConnection;
+import org.postgresql.core.TypeInfo;
+
+/**
+ * Reads the whole catalog of a PostgreSQL database with four set-based queries against {@code
+ * pg_catalog}, instead of one {@code DatabaseMetaData} call per schema and per table. On large
+ * databases the per-table calls take longer than extracting the data itself.
+ *
+ * <p>Only relations that can be selected from are read: tables, partitioned tables, views,
+ * materialized views and foreign tables. JDBC type codes, sizes and scales are resolved through the
+ * driver's type cache, so they match what {@code DatabaseMetaData.getColumns} reports.
+ *
+ * <p>Every table carries a fingerprint of its definition. Given the catalog of an earlier read,
+ * the columns and keys are only read for tables whose fingerprint changed.
+ */
+@Slf4j
+public class PostgresCatalogReader {
+  private static final String SELECTABLE_RELKINDS = "('r', 'p', 'v', 'm', 'f')";
+
+  private static final String SCHEMAS_QUERY =
+      "SELECT nspname FROM pg_namespace"
+          + " WHERE nspname !~ '^pg_temp_' AND nspname !~ '^pg_toast_temp_'"
+          + " ORDER BY nspname";
+
+  // The fingerprint changes whenever a column or the primary key is added, dropped or altered,
+  // since that writes new pg_attribute or pg_constraint rows, but not with statistics, which
+  // ANALYZE and VACUUM update in place.
+  private static final String TABLES_QUERY =
+      "SELECT n.nspname, c.relname, c.relkind, c.reltuples, pg_table_size(c.oid), c.oid,"
+          + " c.oid || ':' || COALESCE(a.version, '') || ':' || COALESCE(k.version, '')"
+          + " FROM pg_class c"
+          + " JOIN pg_namespace n ON n.oid = c.relnamespace"
+          + " LEFT JOIN (SELECT attrelid, count(*) || '/' || sum(xmin::text::bigint) AS version"
+          + " FROM pg_attribute WHERE attnum > 0 GROUP BY attrelid) a ON a.attrelid = c.oid"
+          + " LEFT JOIN (SELECT conrelid, count(*) || '/' || sum(xmin::text::bigint) AS version"
+          + " FROM pg_constraint WHERE contype = 'p' GROUP BY conrelid) k ON k.conrelid = c.oid"
+          + " WHERE c.relkind IN "
+          + SELECTABLE_RELKINDS
+          + " ORDER BY n.nspname, c.relname";
+
+  // Domains are reported with the type and modifier of their base type, like getColumns does.
+  private static final String COLUMNS_QUERY =
+      "SELECT n.nspname, c.relname, a.attname, a.attnum, t.typname,"
+          + " CASE WHEN t.typtype = 'd' THEN t.typbasetype ELSE a.atttypid END,"
+          + " CASE WHEN t.typtype = 'd' THEN t.typtypmod ELSE a.atttypmod END,"
+          + " NOT (a.attnotnull OR (t.typtype = 'd' AND t.typnotnull))"
+          + " FROM pg_attribute a"
+          + " JOIN pg_class c ON c.oid = a.attrelid"
+          + " JOIN pg_namespace n ON n.oid = c.relnamespace"
+          + " JOIN pg_type t ON t.oid = a.atttypid"
+          + " WHERE a.attnum > 0 AND NOT a.attisdropped AND c.relkind IN "
+          + SELECTABLE_RELKINDS;
+
+  private static final String COLUMNS_ORDER = " ORDER BY n.nspname, c.relname, a.attnum";
+
+  private static final String PRIMARY_KEYS_QUERY =
+      "SELECT n.nspname, c.relname, a.attname FROM pg_constraint k"
+          + " JOIN pg_class c ON c.oid = k.conrelid"
+          + " JOIN pg_namespace n ON n.oid = c.relnamespace"
+          + " CROSS JOIN LATERAL unnest(k.conkey) WITH ORDINALITY AS u(attnum, position)"
+          + " JOIN pg_attribute a ON a.attrelid = k.conrelid AND a.attnum = u.attnum"
+          + " WHERE k.contype = 'p'";
+
+  private static final String PRIMARY_KEYS_ORDER = " ORDER BY n.nspname, c.relname, u.position";
+
+  /** Restricts the column and key queries to the relations in the array parameter. */
+  private static final String CHANGED_TABLES = " AND c.oid::bigint = ANY (?)";
+
+  private final Connection connection;
+
+  public PostgresCatalogReader(Connection connection) {
+    this.connection = connection;
+  }
+
+  /**
+   * Reads the catalog. Tables whose fingerprint is the same in {@code cached} keep their columns
+   * and primary key from there, so on an unchanged database only the schema and table lists are
+   * read.
+   *
+   * @param cached catalog of an earlier read, or {@code null} to read every table in full
+   */
+  public Catalog read(Catalog cached) throws SQLException {
+    long started = System.currentTimeMillis();
+    Catalog catalog = new Catalog();
+    List<Long> changed = new ArrayList<>();
+    try (Statement statement = connection.createStatement()) {
+      try (ResultSet resultSet = statement.executeQuery(SCHEMAS_QUERY)) {
+        while (resultSet.next()) {
+          catalog.addSchema(resultSet.getString(1));
+        }
+      }
+      try (ResultSet resultSet = statement.executeQuery(TABLES_QUERY)) {
+        while (resultSet.next()) {
+          String schema = resultSet.getString(1);
+          CatalogTable table =
+              CatalogTable.builder()
+                  .schema(schema)
+                  .name(resultSet.getString(2))
+                  .type(tableType(schema, resultSet.getString(3)))
+                  .rowEstimate(Math.max(0L, (long) resultSet.getDouble(4)))
+                  .sizeBytes(resultSet.getLong(5))
+                  .fingerprint(resultSet.getString(7))
+                  .build();
+          CatalogTable cachedTable =
+              cached == null ? null : cached.getTable(schema, table.getName());
+          if (cachedTable != null && table.getFingerprint().equals(cachedTable.getFingerprint())) {
+            table.setColumns(new ArrayList<>(cachedTable.getColumns()));
+            table.setPrimaryKey(new ArrayList<>(cachedTable.getPrimaryKey()));
+          } else {
+            changed.add(resultSet.getLong(6));
+          }
+          catalog.addTable(table);
+        }
+      }
+    }
+    if (cached == null) {
+      readDefinitions(catalog, null);
+    } else if (!changed.isEmpty()) {
+      readDefinitions(catalog, changed);
+    }
+    log.info(
+        "Read catalog of {} schemas and {} tables, {} of them in full, in {} ms",
+        catalog.getSchemas().size(),
+        catalog.getTables().size(),
+        changed.size(),
+        System.currentTimeMillis() - started);
+    return catalog;
+  }
+
+  /**
+   * Reads the columns and primary keys of the relations with the given oids, or of all of them
+   * when {@code oids} is {@code null}.
+   */
+  private void readDefinitions(Catalog catalog, List<Long> oids) throws SQLException {
+    TypeInfo typeInfo = connection.unwrap(BaseConnection.class).getTypeInfo();
+    String restriction = oids == null ? "" : CHANGED_TABLES;
+    try (PreparedStatement columns =
+            connection.prepareStatement(COLUMNS_QUERY + restriction + COLUMNS_ORDER);
+        PreparedStatement primaryKeys =
+            connection.prepareStatement(PRIMARY_KEYS_QUERY + restriction + PRIMARY_KEYS_ORDER)) {
+      if (oids != null) {
+        Array array = connection.createArrayOf("int8", oids.toArray());
+        columns.setArray(1, array);
+        primaryKeys.setArray(1, array);
+      }
+      try (ResultSet resultSet = columns.executeQuery()) {
+        while (resultSet.next()) {
+          CatalogTable table = catalog.getTable(resultSet.getString(1), resultSet.getString(2));
+          if (table == null) {
+            // Created between the two queries.
+            continue;
+          }
+          int typeOid = (int) resultSet.getLong(6);
+          int typeModifier = resultSet.getInt(7);
+          table
+              .getColumns()
+              .add(
+                  CatalogColumn.builder()
+                      .name(resultSet.getString(3))
+                      .ordinalPosition(resultSet.getInt(4))
+                      .typeName(resultSet.getString(5))
+                      .typeOid(resultSet.getLong(6))
+                      .dataType(typeInfo.getSQLType(typeOid))
+                      .columnSize(typeInfo.getPrecision(typeOid, typeModifier))
+                      .decimalDigits(typeInfo.getScale(typeOid, typeModifier))
+                      .nullable(resultSet.getBoolean(8))
+                      .build());
+        }
+      }
+      try (ResultSet resultSet = primaryKeys.executeQuery()) {
+        while (resultSet.next()) {
+          CatalogTable table = catalog.getTable(resultSet.getString(1), resultSet.getString(2));
+          if (table != null) {
+            table.getPrimaryKey().add(resultSet.getString(3));
+          }
+        }
+      }
+    }
+  }
+
+  /** {@code TABLE_TYPE} names used by the PostgreSQL driver's {@code getTables}. */
+  private static String tableType(String schema, String relkind) {
+    boolean system = schema.startsWith("pg_") || schema.equals("information_schema");
+    switch (relkind) {
+      case "r":
+        return system ? "SYSTEM TABLE" : "TABLE";
+      case "p":
+        return "PARTITIONED TABLE";
+      case "v":
+        return system ? "SYSTEM VIEW" : "VIEW";
+      case "m":
+        return "MATERIALIZED VIEW";
+      case "f":
+        return "FOREIGN TABLE";
+      default:
+        return relkind;
+    }
+  }
+}
@@ -1,6 +1,11 @@
 package com.p3.resource_monitor.poc.controller;
 
+import com.p3.resource_monitor.poc.beans.ExtractionEstimate;
+import com.p3.resource_monitor.poc.beans.JobBatchRequest;
+import com.p3.resource_monitor.poc.beans.JobBatchResponse;
 import com.p3.resource_monitor.poc.beans.JobInputBean;
+import com.p3.resource_monitor.poc.beans.JobProgressSnapshot;
+import com.p3.resource_monitor.poc.beans.JobQueueStatus;
 import com.p3.resource_monitor.poc.persistance.models.Job;
 import com.p3.resource_monitor.poc.service.JobService;
 
@@ -19,8 +24,54 @@ public class JobController {
     return jobService.initJob(jobInputBean,instanceId);
   }
 
+  @PostMapping("/init")
+  public String initJob(@RequestBody JobInputBean jobInputBean) {
+    return jobService.initJob(jobInputBean);
+  }
+
+  @PostMapping("/dry-run/{instanceId}")
+  public String initDryRun(
+      @RequestBody JobInputBean jobInputBean, @PathVariable String instanceId) {
+    return jobService.initDryRun(jobInputBean, instanceId);
+  }
+
+  @PostMapping("/dry-run")
+  public String initDryRun(@RequestBody JobInputBean jobInputBean) {
+    return jobService.initDryRun(jobInputBean);
+  }
+
+  @GetMapping("/estimate/{jobId}")
+  public ExtractionEstimate getEstimate(@PathVariable String jobId) {
+    return jobService.getEstimate(jobId);
+  }
+
+  @PostMapping("/batch")
+  public JobBatchResponse submitBatch(@RequestBody JobBatchRequest request) {
+    return jobService.submitBatch(request);
+  }
+
   @GetMapping("/instance/{instanceId}")
   public List<Job> getJobsByInstance(@PathVariable String instanceId) {
     return jobService.getJobsByInstanceId(instanceId);
   }
+
+  @GetMapping("/queue/{jobId}")
+  public JobQueueStatus getQueueStatus(@PathVariable String jobId) {
+    return jobService.getQueueStatus(jobId);
+  }
+
+  @GetMapping("/progress/{jobId}")
+  public JobProgressSnapshot getProgress(@PathVariable String jobId) {
+    return jobService.getProgress(jobId);
+  }
+
+  @PostMapping("/cancel/{jobId}")
+  public String cancelJob(@PathVariable String jobId) {
+    return jobService.cancelJob(jobId);
+  }
+
+  @PostMapping("/resume/{jobId}")
+  public String resumeJob(@PathVariable String jobId) {
+    return jobService.resumeJob(jobId);
+  }
 }
\ No newline at end of file
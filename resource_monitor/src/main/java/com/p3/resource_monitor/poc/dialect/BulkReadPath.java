@@ -0,0 +1,19 @@
+package com.p3.resource_monitor.poc.dialect;
+
+/** The way a {@link SourceDialect} reads table data fastest. */
+public enum BulkReadPath {
+  /**
+   * Streams the rows with the database's bulk export protocol, see {@link CopyOutDialect}. Formats
+   * the protocol cannot produce fall back to {@link #CURSOR}.
+   */
+  COPY,
+
+  /** Server-side cursor fetched in batches sized to the job's fetch memory budget. */
+  CURSOR,
+
+  /**
+   * Plain result set without fetch size tuning, for drivers that read the whole result at once or
+   * ignore the fetch size anyway.
+   */
+  FETCH
+}
@@ -0,0 +1,26 @@
+package com.p3.resource_monitor.poc.dialect;
+
+import com.p3.export.formatter.ExportFormat;
+import com.p3.resource_monitor.poc.Extraction.ExtractionContext;
+import java.sql.Connection;
+import java.sql.SQLException;
+import org.postgresql.copy.CopyOut;
+
+/**
+ * Dialect of a source that streams query results with the PostgreSQL {@code COPY ... TO STDOUT}
+ * protocol, its {@link BulkReadPath#COPY} read path.
+ */
+public interface CopyOutDialect extends SourceDialect {
+
+  /** COPY of a select as csv, or tab separated for {@link ExportFormat#tsv}. */
+  String copyOutQuery(String selectQuery, ExportFormat format);
+
+  /** COPY of a select in the binary tuple format, see {@code BinaryCopyReader}. */
+  String binaryCopyOutQuery(String selectQuery);
+
+  /** Starts {@code copyQuery} on the connection. */
+  CopyOut copyOut(Connection connection, String copyQuery) throws SQLException;
+
+  /** Cancels whatever the connection runs, safe to call while a copy blocks reading. */
+  ExtractionContext.QueryCanceller canceller(Connection connection) throws SQLException;
+}
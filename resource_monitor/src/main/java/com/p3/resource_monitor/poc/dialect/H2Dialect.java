@@ -0,0 +1,39 @@
+package com.p3.resource_monitor.poc.dialect;
+
+import com.p3.resource_monitor.poc.beans.ConnectionBean;
+import com.p3.resource_monitor.poc.catalog.Catalog;
+import com.p3.resource_monitor.poc.catalog.MetadataCatalogReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * H2, mainly to run extractions against a local database. Without a host the database is opened
+ * embedded, e.g. {@code mem:test} or {@code ./data/test}; with one it is reached over TCP.
+ *
+ * <p>Embedded H2 ignores the fetch size, so rows are read with a plain result set. Row estimates
+ * come from {@code INFORMATION_SCHEMA.TABLES} and only integral keys split tables into ranges.
+ */
+public class H2Dialect implements SourceDialect {
+  private static final String ROW_ESTIMATES_QUERY =
+      "SELECT TABLE_SCHEMA, TABLE_NAME, ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES";
+
+  @Override
+  public String connectionUrl(ConnectionBean connectionBean) {
+    String host = connectionBean.getHost();
+    if (host == null || host.isBlank()) {
+      return "jdbc:h2:" + connectionBean.getDatabase();
+    }
+    String port = connectionBean.getPort() == null ? "" : ":" + connectionBean.getPort();
+    return "jdbc:h2:tcp://" + host + port + "/" + connectionBean.getDatabase();
+  }
+
+  @Override
+  public Catalog readCatalog(Connection connection) throws SQLException {
+    return new MetadataCatalogReader(connection, ROW_ESTIMATES_QUERY).read();
+  }
+
+  @Override
+  public BulkReadPath getReadPath() {
+    return BulkReadPath.FETCH;
+  }
+}
@@ -0,0 +1,186 @@
+package com.p3.resource_monitor.poc.dialect;
+
+import com.p3.export.formatter.ExportFormat;
+import com.p3.resource_monitor.poc.Extraction.ExtractionContext;
+import com.p3.resource_monitor.poc.Extraction.TableRange;
+import com.p3.resource_monitor.poc.beans.ConnectionBean;
+import com.p3.resource_monitor.poc.catalog.Catalog;
+import com.p3.resource_monitor.poc.catalog.PostgresCatalogReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.copy.CopyOut;
+import org.postgresql.core.BaseConnection;
+
+/**
+ * PostgreSQL: catalog from {@code pg_catalog}, table data streamed with {@code COPY}, tables
+ * without an integral key split by {@code ctid} block on PostgreSQL 14 and later, and {@code xmin}
+ * usable as a watermark.
+ */
+@Slf4j
+public class PostgresDialect implements CopyOutDialect {
+  /**
+   * Watermark column name that tracks rows by the transaction that last wrote them. {@code xmin}
+   * holds only the low 32 bits of the transaction id and wraps around every 2^32 transactions.
+   */
+  public static final String XMIN_WATERMARK = "xmin";
+
+  /** First server version that reads {@code ctid} ranges without scanning the whole table. */
+  private static final int TID_RANGE_SCAN_VERSION = 14;
+
+  /** Relations {@code TABLESAMPLE} accepts; views and foreign tables are not among them. */
+  private static final Set<String> SAMPLED_TYPES =
+      Set.of("TABLE", "SYSTEM TABLE", "PARTITIONED TABLE", "MATERIALIZED VIEW");
+
+  @Override
+  public String connectionUrl(ConnectionBean connectionBean) {
+    return "jdbc:postgresql://"
+        + connectionBean.getHost()
+        + ":"
+        + connectionBean.getPort()
+        + "/"
+        + connectionBean.getDatabase();
+  }
+
+  @Override
+  public Catalog readCatalog(Connection connection) throws SQLException {
+    return new PostgresCatalogReader(connection).read(null);
+  }
+
+  @Override
+  public boolean supportsCatalogFingerprints() {
+    return true;
+  }
+
+  @Override
+  public Catalog readCatalog(Connection connection, Catalog cached) throws SQLException {
+    return new PostgresCatalogReader(connection).read(cached);
+  }
+
+  @Override
+  public BulkReadPath getReadPath() {
+    return BulkReadPath.COPY;
+  }
+
+  /** Lets the server infer the key type from the column instead of comparing as text. */
+  @Override
+  public void bindKey(PreparedStatement statement, int index, String key) throws SQLException {
+    statement.setObject(index, key, Types.OTHER);
+  }
+
+  @Override
+  public String watermarkExpression(String watermarkColumn) {
+    return XMIN_WATERMARK.equals(watermarkColumn)
+        ? "xmin::text::bigint"
+        : CopyOutDialect.super.watermarkExpression(watermarkColumn);
+  }
+
+  /**
+   * For {@link #XMIN_WATERMARK} the last transaction id below which every transaction has ended,
+   * so rows of transactions still running are picked up by the next run.
+   */
+  @Override
+  public String watermarkHighValueQuery(
+      String schema, String tableName, String watermarkColumn) {
+    if (XMIN_WATERMARK.equals(watermarkColumn)) {
+      // xmin holds the low 32 bits of the transaction id.
+      return "SELECT (txid_snapshot_xmin(txid_current_snapshot()) - 1) % 4294967296";
+    }
+    return CopyOutDialect.super.watermarkHighValueQuery(schema, tableName, watermarkColumn);
+  }
+
+  /**
+   * After {@code xmin} wraps around every new transaction id is below the stored watermark, so
+   * an incremental read above it would find none of the new rows.
+   */
+  @Override
+  public boolean watermarkWrapped(String watermarkColumn, String after, String upTo) {
+    if (!XMIN_WATERMARK.equals(watermarkColumn)) {
+      return CopyOutDialect.super.watermarkWrapped(watermarkColumn, after, upTo);
+    }
+    return Long.parseLong(upTo) < Long.parseLong(after);
+  }
+
+  @Override
+  public boolean supportsTableSample(String tableType) {
+    return SAMPLED_TYPES.contains(tableType);
+  }
+
+  @Override
+  public String tableSampleClause(TableSample sample) {
+    // Plain notation, tiny shares of huge tables would otherwise be written with an exponent.
+    return " TABLESAMPLE "
+        + sample.method().name()
+        + " ("
+        + BigDecimal.valueOf(sample.percent()).toPlainString()
+        + ")"
+        + (sample.seed() == null ? "" : " REPEATABLE (" + sample.seed() + ")");
+  }
+
+  /**
+   * Splits by {@code ctid} block number when there is no integral key. Only from PostgreSQL 14 on,
+   * which reads a ctid range with a TID range scan; earlier servers scan the whole table for each
+   * range, so the table is not split there.
+   */
+  @Override
+  public List<TableRange> planRanges(
+      Connection connection, String schema, String tableName, String integralKey, int count)
+      throws SQLException {
+    if (count < 2 || integralKey != null) {
+      return CopyOutDialect.super.planRanges(connection, schema, tableName, integralKey, count);
+    }
+    int serverVersion = connection.getMetaData().getDatabaseMajorVersion();
+    if (serverVersion < TID_RANGE_SCAN_VERSION) {
+      log.info(
+          "Not splitting {}.{} by ctid, PostgreSQL {} has no TID range scans",
+          schema,
+          tableName,
+          serverVersion);
+      return new ArrayList<>();
+    }
+    String query =
+        "SELECT c.relpages FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace"
+            + " WHERE n.nspname = ? AND c.relname = ?";
+    try (PreparedStatement statement = connection.prepareStatement(query)) {
+      statement.setString(1, schema);
+      statement.setString(2, tableName);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        if (!resultSet.next() || resultSet.getLong(1) <= 0) {
+          return new ArrayList<>();
+        }
+        return RangeSplitter.split(
+            "ctid", 0, resultSet.getLong(1), count, block -> "'(" + block + ",0)'::tid");
+      }
+    }
+  }
+
+  /** NULLs are written as empty fields and empty strings as {@code ""}. */
+  @Override
+  public String copyOutQuery(String selectQuery, ExportFormat format) {
+    String delimiter = format == ExportFormat.tsv ? ", DELIMITER E'\\t'" : "";
+    return "COPY (" + selectQuery + ") TO STDOUT WITH (FORMAT csv" + delimiter + ")";
+  }
+
+  @Override
+  public String binaryCopyOutQuery(String selectQuery) {
+    return "COPY (" + selectQuery + ") TO STDOUT WITH (FORMAT binary)";
+  }
+
+  @Override
+  public CopyOut copyOut(Connection connection, String copyQuery) throws SQLException {
+    return connection.unwrap(BaseConnection.class).getCopyAPI().copyOut(copyQuery);
+  }
+
+  /** Cancel requests go over a separate socket, so they reach the server mid-copy. */
+  @Override
+  public ExtractionContext.QueryCanceller canceller(Connection connection) throws SQLException {
+    return connection.unwrap(BaseConnection.class)::cancelQuery;
+  }
+}
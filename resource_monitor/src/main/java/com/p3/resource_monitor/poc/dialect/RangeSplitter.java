@@ -0,0 +1,61 @@
+package com.p3.resource_monitor.poc.dialect;
+
+import com.p3.resource_monitor.poc.Extraction.TableRange;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/** Splits a numeric span of a column into contiguous, half open {@link TableRange}s. */
+final class RangeSplitter {
+  private RangeSplitter() {}
+
+  /**
+   * @param column expression the range predicates compare
+   * @param min smallest value seen at planning time
+   * @param max largest value seen at planning time
+   * @param count ranges to plan at most
+   * @param literal SQL literal of a boundary value
+   */
+  static List<TableRange> split(
+      String column, long min, long max, int count, LongFunction<String> literal) {
+    List<TableRange> ranges = new ArrayList<>();
+    long step = Math.max(1, (max - min) / count + 1);
+    String lower = null;
+    for (int i = 0; i < count; i++) {
+      long boundary = min + step * (i + 1);
+      String upper = i == count - 1 || boundary > max ? null : String.valueOf(boundary);
+      ranges.add(
+          TableRange.builder()
+              .index(i)
+              .lowerBound(lower)
+              .upperBound(upper)
+              .predicate(predicate(column, lower, upper, literal))
+              .build());
+      if (upper == null) {
+        break;
+      }
+      lower = upper;
+    }
+    return ranges;
+  }
+
+  private static String predicate(
+      String column, String lower, String upper, LongFunction<String> literal) {
+    if (lower == null && upper == null) {
+      return "TRUE";
+    }
+    if (lower == null) {
+      return column + " < " + literal.apply(Long.parseLong(upper));
+    }
+    if (upper == null) {
+      return column + " >= " + literal.apply(Long.parseLong(lower));
+    }
+    return column
+        + " >= "
+        + literal.apply(Long.parseLong(lower))
+        + " AND "
+        + column
+        + " < "
+        + literal.apply(Long.parseLong(upper));
+  }
+}
@@ -0,0 +1,184 @@
+package com.p3.resource_monitor.poc.dialect;
+
+import com.p3.resource_monitor.poc.Extraction.TableRange;
+import com.p3.resource_monitor.poc.beans.ConnectionBean;
+import com.p3.resource_monitor.poc.beans.ConnectionType;
+import com.p3.resource_monitor.poc.catalog.Catalog;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * What the extraction needs to know about one kind of source database: how to connect, how to read
+ * its catalog, how to phrase its selects and how to read table data fastest. {@link
+ * com.p3.resource_monitor.poc.util.JDBCConnection} holds the dialect of its source and delegates
+ * to it.
+ *
+ * <p>The default methods produce standard SQL with double quoted identifiers and {@code LIMIT},
+ * which most databases accept. A dialect overrides what its database does differently or better.
+ */
+public interface SourceDialect {
+
+  static SourceDialect of(ConnectionType connectionType) {
+    switch (Objects.requireNonNull(connectionType)) {
+      case POSTGRES:
+        return new PostgresDialect();
+      case H2:
+        return new H2Dialect();
+      default:
+        throw new IllegalArgumentException("No dialect for connection type " + connectionType);
+    }
+  }
+
+  /** JDBC URL of the source; credentials are passed to the driver separately. */
+  String connectionUrl(ConnectionBean connectionBean);
+
+  /** Schemas, tables, columns, primary keys and row estimates of the source. */
+  Catalog readCatalog(Connection connection) throws SQLException;
+
+  /**
+   * Whether the catalog read by this dialect carries table fingerprints, so that {@link
+   * #readCatalog(Connection, Catalog)} can reuse a cached catalog.
+   */
+  default boolean supportsCatalogFingerprints() {
+    return false;
+  }
+
+  /**
+   * Like {@link #readCatalog(Connection)}, taking the columns and primary key of each table whose
+   * fingerprint is the same in {@code cached} from there instead of the database. By default the
+   * cached catalog is ignored.
+   *
+   * @param cached catalog of an earlier read, or {@code null}
+   */
+  default Catalog readCatalog(Connection connection, Catalog cached) throws SQLException {
+    return readCatalog(connection);
+  }
+
+  /** Preferred way to read table data, see {@link BulkReadPath}. */
+  BulkReadPath getReadPath();
+
+  default String quoteIdentifier(String identifier) {
+    return "\"" + identifier.replace("\"", "\"\"") + "\"";
+  }
+
+  default String qualifiedName(String schema, String tableName) {
+    return quoteIdentifier(schema) + "." + quoteIdentifier(tableName);
+  }
+
+  /** Text literal, typed by the database from the expression it is compared with. */
+  default String literal(String value) {
+    return "'" + value.replace("'", "''") + "'";
+  }
+
+  /**
+   * Select of {@code columns} from the table, sampled when {@code sample} is set, restricted to
+   * the rows matching every non-null condition, ordered by {@code orderBy} when it is set and
+   * capped at {@code limit} rows unless {@code limit} is negative.
+   */
+  default String selectQuery(
+      String schema,
+      String tableName,
+      TableSample sample,
+      List<String> columns,
+      String orderBy,
+      long limit,
+      String... conditions) {
+    String where = and(conditions);
+    return "SELECT "
+        + columns.stream().map(this::quoteIdentifier).collect(Collectors.joining(", "))
+        + " FROM "
+        + qualifiedName(schema, tableName)
+        + (sample == null ? "" : tableSampleClause(sample))
+        + (where == null ? "" : " WHERE " + where)
+        + (orderBy == null ? "" : " ORDER BY " + quoteIdentifier(orderBy))
+        + limitClause(limit);
+  }
+
+  default String limitClause(long limit) {
+    return limit < 0 ? "" : " LIMIT " + limit;
+  }
+
+  /**
+   * Whether relations of {@code tableType}, as in {@link
+   * com.p3.resource_monitor.poc.catalog.CatalogTable#getType()}, can be read with a {@link
+   * TableSample}. None can by default.
+   */
+  default boolean supportsTableSample(String tableType) {
+    return false;
+  }
+
+  /** Clause following the table name to sample it, for types that {@link #supportsTableSample}. */
+  default String tableSampleClause(TableSample sample) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot sample tables");
+  }
+
+  /** Binds a key saved as text to a parameter compared with the key column. */
+  default void bindKey(PreparedStatement statement, int index, String key) throws SQLException {
+    statement.setString(index, key);
+  }
+
+  /** Expression whose value is compared with the stored watermarks of {@code watermarkColumn}. */
+  default String watermarkExpression(String watermarkColumn) {
+    return quoteIdentifier(watermarkColumn);
+  }
+
+  /** Query returning the current highest watermark of the table as text in its only cell. */
+  default String watermarkHighValueQuery(
+      String schema, String tableName, String watermarkColumn) {
+    return "SELECT CAST(MAX("
+        + watermarkExpression(watermarkColumn)
+        + ") AS VARCHAR) FROM "
+        + qualifiedName(schema, tableName);
+  }
+
+  /**
+   * Whether the watermark counter has wrapped around between the stored watermark {@code after}
+   * and the current high value {@code upTo}, so rows written since {@code after} are no longer
+   * above it. Watermarks never wrap by default.
+   */
+  default boolean watermarkWrapped(String watermarkColumn, String after, String upTo) {
+    return false;
+  }
+
+  /**
+   * Splits a table into at most {@code count} ranges to export concurrently. By default only
+   * tables with an integral key are split, by value. Returns an empty list when the table cannot
+   * be split, e.g. because it is empty.
+   */
+  default List<TableRange> planRanges(
+      Connection connection, String schema, String tableName, String integralKey, int count)
+      throws SQLException {
+    if (count < 2 || integralKey == null) {
+      return new ArrayList<>();
+    }
+    String key = quoteIdentifier(integralKey);
+    String query =
+        "SELECT MIN(" + key + "), MAX(" + key + ") FROM " + qualifiedName(schema, tableName);
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(query)) {
+      if (!resultSet.next() || resultSet.getObject(1) == null) {
+        return new ArrayList<>();
+      }
+      return RangeSplitter.split(
+          key, resultSet.getLong(1), resultSet.getLong(2), count, String::valueOf);
+    }
+  }
+
+  /** The non-null conditions joined with {@code AND}, or {@code null} if there are none. */
+  static String and(String... conditions) {
+    String joined =
+        Arrays.stream(conditions)
+            .filter(Objects::nonNull)
+            .map(condition -> "(" + condition + ")")
+            .collect(Collectors.joining(" AND "));
+    return joined.isEmpty() ? null : joined;
+  }
+}
@@ -0,0 +1,26 @@
+package com.p3.resource_monitor.poc.dialect;
+
+import com.p3.resource_monitor.poc.beans.SamplingMethod;
+
+/**
+ * Sample of a table taken with {@code TABLESAMPLE}, see {@link SourceDialect#tableSampleClause}.
+ *
+ * @param percent share of the table to sample, above 0 and at most 100
+ * @param seed makes the sample the same on every run while the table is unchanged, a different
+ *     sample each time when {@code null}
+ */
+public record TableSample(SamplingMethod method, double percent, Long seed) {
+
+  /**
+   * Sample returning about {@code rows} of a table estimated to hold {@code rowEstimate} rows.
+   *
+   * @return the sample, or {@code null} when the estimate is unknown or no larger than {@code
+   *     rows}, so the table is better read with a plain {@code LIMIT}
+   */
+  public static TableSample of(SamplingMethod method, long rows, long rowEstimate, Long seed) {
+    if (rows <= 0 || rowEstimate <= rows) {
+      return null;
+    }
+    return new TableSample(method, 100.0 * rows / rowEstimate, seed);
+  }
+}
@@ -5,6 +5,7 @@ import com.p3.resource_monitor.poc.persistance.models.InstanceMetrics;
 import com.p3.resource_monitor.poc.persistance.repos.InstanceRepository;
 import com.p3.resource_monitor.poc.persistance.repos.InstanceMetricsRepository;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.*;
@@ -14,6 +15,7 @@ import java.util.List;
 import java.util.Objects;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
@@ -35,6 +37,10 @@ public class OverAllInstanceMetricsCollector {
   private final SystemInfo systemInfo = new SystemInfo();
   private final OperatingSystem os = systemInfo.getOperatingSystem();
 
+  /** Path whose file system free space is reported, normally the extraction output volume. */
+  @Value("${metrics.disk-path:.}")
+  private String diskPath;
+
   @Scheduled(fixedRate = 2000)
   public void collectMetrics() throws Exception {
     try {
@@ -116,6 +122,10 @@ public class OverAllInstanceMetricsCollector {
                     usedMemoryPercent, usedMemoryGB, totalMemoryGB))
             .disk(String.format("Read: %.2f MiB, Write: %.2f MiB", diskReadMB, diskWriteMB))
             .instanceRunningTime(uptime)
+            .cpuPercent(cpuLoad)
+            .residentMemoryBytes(usedMemory)
+            .totalMemoryBytes(totalVirtualMemory)
+            .freeDiskBytes(new File(diskPath).getUsableSpace())
             .timestamp(Instant.now())
             .build();
 
@@ -0,0 +1,36 @@
+package com.p3.resource_monitor.poc.persistance.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.Instant;
+
+/**
+ * Catalog of a source database as last read by a job, kept so the next job against the same
+ * database only re-reads the columns and keys of tables whose definition changed since.
+ */
+@Entity
+@Table(name = "catalog_snapshot", uniqueConstraints = @UniqueConstraint(columnNames = {"scope"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogSnapshot {
+    @Id
+    @UuidGenerator
+    private String id;
+
+    @Column(nullable = false)
+    private String scope;
+
+    /** Schemas and tables as gzipped JSON. */
+    private byte [] catalog;
+
+    private Integer tableCount;
+    private String jobId;
+    private Instant updatedAt;
+}
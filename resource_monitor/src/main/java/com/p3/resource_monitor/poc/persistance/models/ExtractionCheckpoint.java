@@ -0,0 +1,53 @@
+package com.p3.resource_monitor.poc.persistance.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.Instant;
+
+/**
+ * Restart point of one table within an extraction job. A table is either COMPLETED or
+ * IN_PROGRESS; for keyed tables an IN_PROGRESS row also records how many data files are closed
+ * and the last key they contain, so a resumed job continues after that key.
+ */
+@Entity
+@Table(
+        name = "extraction_checkpoint",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"job_id", "schema_name", "table_name"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExtractionCheckpoint {
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    @UuidGenerator
+    private String id;
+
+    @Column(name = "job_id", nullable = false)
+    private String jobId;
+
+    @Column(name = "schema_name", nullable = false)
+    private String schemaName;
+
+    @Column(name = "table_name", nullable = false)
+    private String tableName;
+
+    private String status;
+    private String keyColumn;
+    private String lastKey;
+    private Long filesCompleted;
+    private Long rowsExported;
+
+    /** Watermark the table is read up to, stored for the next incremental run once the job ends. */
+    private String watermarkColumn;
+    private String watermark;
+
+    private Instant updatedAt;
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldNameConstants;
 import org.hibernate.annotations.UuidGenerator;
@@ -11,6 +12,7 @@ import org.hibernate.annotations.UuidGenerator;
 import java.time.Instant;
 
 @Entity
+@Getter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,6 +30,12 @@ public class InstanceMetrics {
     private String instanceRunningTime;
     private Instant timestamp;
 
+    // Raw values backing the formatted columns above, used for admission decisions.
+    private Double cpuPercent;
+    private Long residentMemoryBytes;
+    private Long totalMemoryBytes;
+    private Long freeDiskBytes;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnore
     @JoinColumn(name = "instance_id", nullable = false)
@@ -23,11 +23,30 @@ public class Job {
     private String id;
 
     private String jobType;
+    private Instant submitTime;
     private Instant startTime;
     private Instant endTime;
     private String status;
+    private String statusReason;
     private byte [] jobInput;
 
+    /** ExtractionEstimate as JSON, set when a DRY_RUN job completes. */
+    private byte [] estimate;
+    private Integer priority;
+    private String submitter;
+    private Long rowsExported;
+    private Long bytesWritten;
+    private Boolean cancelRequested;
+    private String outputPath;
+    private Boolean autoPlaced;
+
+    private String batchId;
+    private String batchKey;
+
+    /** Comma separated ids of jobs in the same batch that must complete first. */
+    @Column(length = 4000)
+    private String dependsOnJobIds;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "instance_id", nullable = false)
     private Instance instance;
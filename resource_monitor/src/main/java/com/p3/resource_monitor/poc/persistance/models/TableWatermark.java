@@ -0,0 +1,44 @@
+package com.p3.resource_monitor.poc.persistance.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.Instant;
+
+/**
+ * Highest watermark of a table read by a completed incremental extraction. The next incremental
+ * run of the same scope only reads rows above it. Scopes default to the source database, so jobs
+ * that extract the same database into different places need scopes of their own.
+ */
+@Entity
+@Table(
+        name = "table_watermark",
+        uniqueConstraints =
+                @UniqueConstraint(columnNames = {"scope", "schema_name", "table_name"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TableWatermark {
+    @Id
+    @UuidGenerator
+    private String id;
+
+    @Column(nullable = false)
+    private String scope;
+
+    @Column(name = "schema_name", nullable = false)
+    private String schemaName;
+
+    @Column(name = "table_name", nullable = false)
+    private String tableName;
+
+    private String watermarkColumn;
+    private String lastValue;
+    private String jobId;
+    private Instant updatedAt;
+}
@@ -0,0 +1,10 @@
+package com.p3.resource_monitor.poc.persistance.repos;
+
+import com.p3.resource_monitor.poc.persistance.models.CatalogSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface CatalogSnapshotRepository extends JpaRepository<CatalogSnapshot, String> {
+    Optional<CatalogSnapshot> findByScope(String scope);
+}
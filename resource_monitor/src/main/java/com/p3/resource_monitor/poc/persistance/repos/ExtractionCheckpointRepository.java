@@ -0,0 +1,14 @@
+package com.p3.resource_monitor.poc.persistance.repos;
+
+import com.p3.resource_monitor.poc.persistance.models.ExtractionCheckpoint;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ExtractionCheckpointRepository extends JpaRepository<ExtractionCheckpoint, String> {
+    List<ExtractionCheckpoint> findByJobId(String jobId);
+
+    @Transactional
+    void deleteByJobId(String jobId);
+}
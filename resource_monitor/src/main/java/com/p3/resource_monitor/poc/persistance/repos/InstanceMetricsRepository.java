@@ -21,4 +21,6 @@ public interface InstanceMetricsRepository extends JpaRepository<InstanceMetrics
       "SELECT m FROM InstanceMetrics m WHERE m.instance.id = :instanceId AND m.timestamp >= :from ORDER BY m.timestamp ASC")
   List<InstanceMetrics> findMetricsForLastHour(
       @Param("instanceId") String instanceId, @Param("from") Instant from);
+
+  InstanceMetrics findTopByInstance_IdOrderByTimestampDesc(String instanceId);
 }
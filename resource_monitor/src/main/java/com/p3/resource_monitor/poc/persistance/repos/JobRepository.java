@@ -1,12 +1,74 @@
 package com.p3.resource_monitor.poc.persistance.repos;
 
 
+import com.p3.resource_monitor.poc.persistance.models.Instance;
 import com.p3.resource_monitor.poc.persistance.models.Job;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface JobRepository extends JpaRepository<Job, String> {
     List<Job> findByStatus(String ready);
     List<Job> findByInstance_Id(String instanceId);
+
+    List<Job> findByStatusAndInstance_Id(String status, String instanceId);
+
+    List<Job> findByStatusAndInstance_IpAddressAndInstance_Port(
+            String status, String ipAddress, Integer port);
+
+    List<Job> findTop20ByStatusAndInstance_IdOrderByEndTimeDesc(String status, String instanceId);
+
+    List<Job> findByStatusAndAutoPlaced(String status, Boolean autoPlaced);
+
+    long countByStatusAndInstance_Id(String status, String instanceId);
+
+    List<Job> findByBatchId(String batchId);
+
+    @Query("SELECT DISTINCT j.batchId FROM Job j"
+            + " WHERE j.status = :status AND j.batchId IS NOT NULL")
+    List<String> findBatchIdsByStatus(@Param("status") String status);
+
+    /** Conditional status change; returns 0 when the job is no longer in status {@code from}. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.status = :to, j.statusReason = :reason, j.endTime = :endTime"
+            + " WHERE j.id = :jobId AND j.status = :from")
+    int transitionStatus(
+            @Param("jobId") String jobId,
+            @Param("from") String from,
+            @Param("to") String to,
+            @Param("reason") String reason,
+            @Param("endTime") Instant endTime);
+
+    /** Moves a READY job to RUNNING; returns 0 when it left READY, e.g. was cancelled. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.status = 'RUNNING', j.statusReason = NULL,"
+            + " j.startTime = :startTime, j.outputPath = :outputPath"
+            + " WHERE j.id = :jobId AND j.status = 'READY'")
+    int markStarted(
+            @Param("jobId") String jobId,
+            @Param("startTime") Instant startTime,
+            @Param("outputPath") String outputPath);
+
+    /** Flags a RUNNING job for cancellation; returns 0 when it is no longer running. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.cancelRequested = true WHERE j.id = :jobId AND j.status = 'RUNNING'")
+    int requestCancel(@Param("jobId") String jobId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.instance = :target, j.statusReason = :reason"
+            + " WHERE j.id = :jobId AND j.status = 'READY' AND j.instance.id = :fromInstanceId")
+    int reassignReadyJob(
+            @Param("jobId") String jobId,
+            @Param("fromInstanceId") String fromInstanceId,
+            @Param("target") Instance target,
+            @Param("reason") String reason);
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.p3.resource_monitor.poc.persistance.repos;
+
+import com.p3.resource_monitor.poc.persistance.models.TableWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface TableWatermarkRepository extends JpaRepository<TableWatermark, String> {
+    List<TableWatermark> findByScope(String scope);
+}
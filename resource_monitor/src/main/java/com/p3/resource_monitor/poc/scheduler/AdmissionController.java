@@ -0,0 +1,134 @@
+package com.p3.resource_monitor.poc.scheduler;
+
+import com.p3.resource_monitor.poc.beans.JobInputBean;
+import com.p3.resource_monitor.poc.persistance.models.InstanceMetrics;
+import com.p3.resource_monitor.poc.persistance.repos.InstanceMetricsRepository;
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether one more extraction may start on this instance, based on the latest metrics the
+ * collector stored for it. Load from jobs started after that sample is not visible in it yet, so
+ * each such job is projected with a fixed per-job CPU and memory cost.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdmissionController {
+  private final InstanceMetricsRepository instanceMetricsRepository;
+
+  @Value("${job.admission.enabled:true}")
+  private boolean enabled;
+
+  @Value("${job.admission.max-cpu-percent:85}")
+  private double maxCpuPercent;
+
+  @Value("${job.admission.max-memory-percent:85}")
+  private double maxMemoryPercent;
+
+  @Value("${job.admission.memory-limit-bytes:0}")
+  private long memoryLimitBytes;
+
+  @Value("${job.admission.min-free-disk-bytes:1073741824}")
+  private long minFreeDiskBytes;
+
+  @Value("${job.admission.job-cpu-percent:15}")
+  private double jobCpuPercent;
+
+  @Value("${job.admission.job-memory-bytes:536870912}")
+  private long jobMemoryBytes;
+
+  @Value("${job.admission.metrics-max-age-seconds:30}")
+  private long metricsMaxAgeSeconds;
+
+  /**
+   * @param instanceId instance the job would run on
+   * @param input job input, used for the output directory
+   * @param recentStarts start times of jobs already started on the instance, including ones
+   *     admitted earlier in the same dispatch round
+   */
+  public AdmissionDecision evaluate(
+      String instanceId, JobInputBean input, List<Instant> recentStarts) {
+    if (!enabled) {
+      return AdmissionDecision.admit();
+    }
+    AdmissionDecision diskDecision = evaluateDisk(input);
+    if (!diskDecision.isAdmitted()) {
+      return diskDecision;
+    }
+
+    InstanceMetrics latest =
+        instanceMetricsRepository.findTopByInstance_IdOrderByTimestampDesc(instanceId);
+    if (latest == null
+        || latest.getTimestamp() == null
+        || Duration.between(latest.getTimestamp(), Instant.now()).getSeconds()
+            > metricsMaxAgeSeconds) {
+      log.warn("No recent metrics for instance {}, admitting without load check", instanceId);
+      return AdmissionDecision.admit();
+    }
+    long unreflected =
+        recentStarts.stream().filter(start -> start.isAfter(latest.getTimestamp())).count() + 1;
+
+    if (latest.getCpuPercent() != null) {
+      double projectedCpu = latest.getCpuPercent() + jobCpuPercent * unreflected;
+      if (projectedCpu > maxCpuPercent) {
+        return AdmissionDecision.defer(
+            String.format(
+                "Projected CPU %.1f%% exceeds ceiling %.1f%%", projectedCpu, maxCpuPercent));
+      }
+    }
+
+    long limit =
+        memoryLimitBytes > 0 ? memoryLimitBytes : nullToZero(latest.getTotalMemoryBytes());
+    if (latest.getResidentMemoryBytes() != null && limit > 0) {
+      long projectedRss = latest.getResidentMemoryBytes() + jobMemoryBytes * unreflected;
+      double projectedPercent = 100.0 * projectedRss / limit;
+      if (projectedPercent > maxMemoryPercent) {
+        return AdmissionDecision.defer(
+            String.format(
+                "Projected memory %.1f%% of %d bytes exceeds ceiling %.1f%%",
+                projectedPercent, limit, maxMemoryPercent));
+      }
+    }
+    return AdmissionDecision.admit();
+  }
+
+  private AdmissionDecision evaluateDisk(JobInputBean input) {
+    String outputDir = input.getOutputDir();
+    if (outputDir == null) {
+      return AdmissionDecision.admit();
+    }
+    File existing = new File(outputDir).getAbsoluteFile();
+    while (existing != null && !existing.exists()) {
+      existing = existing.getParentFile();
+    }
+    if (existing == null) {
+      return AdmissionDecision.admit();
+    }
+    long usable = existing.getUsableSpace();
+    if (usable < minFreeDiskBytes) {
+      return AdmissionDecision.defer(
+          String.format(
+              "Free disk %d bytes on %s is below minimum %d bytes",
+              usable, existing, minFreeDiskBytes));
+    }
+    long projected = nullToZero(input.getEstimatedOutputBytes());
+    if (usable - projected < minFreeDiskBytes) {
+      return AdmissionDecision.defer(
+          String.format(
+              "Free disk %d bytes on %s leaves less than %d bytes after the projected %d bytes",
+              usable, existing, minFreeDiskBytes, projected));
+    }
+    return AdmissionDecision.admit();
+  }
+
+  private static long nullToZero(Long value) {
+    return value == null ? 0 : value;
+  }
+}
@@ -0,0 +1,19 @@
+package com.p3.resource_monitor.poc.scheduler;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class AdmissionDecision {
+  private final boolean admitted;
+  private final String reason;
+
+  public static AdmissionDecision admit() {
+    return new AdmissionDecision(true, null);
+  }
+
+  public static AdmissionDecision defer(String reason) {
+    return new AdmissionDecision(false, reason);
+  }
+}
@@ -0,0 +1,164 @@
+package com.p3.resource_monitor.poc.scheduler;
+
+import com.p3.resource_monitor.poc.persistance.models.Job;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Weighted fair queue over READY jobs.
+ *
+ * <p>Jobs are grouped per submitter and ordered inside each group by effective priority (priority
+ * plus an aging boost for time spent waiting). Groups are then interleaved by always taking the
+ * next job from the submitter with the lowest weighted share (running + already dispatched jobs
+ * divided by the submitter weight), so one submitter flooding the queue cannot starve the others.
+ */
+@Slf4j
+@Component
+public class FairShareJobQueue {
+
+  public static final String DEFAULT_SUBMITTER = "default";
+
+  @Value("${job.dispatcher.default-priority:0}")
+  private int defaultPriority;
+
+  @Value("${job.dispatcher.aging-interval-seconds:300}")
+  private long agingIntervalSeconds;
+
+  @Value("${job.dispatcher.max-aging-boost:10}")
+  private int maxAgingBoost;
+
+  @Value("${job.dispatcher.submitter-weights:}")
+  private String submitterWeights;
+
+  /**
+   * Orders the given READY jobs in dispatch order.
+   *
+   * @param readyJobs jobs waiting to be started
+   * @param runningJobs jobs already running on the same instance, counted against their submitter
+   * @param now reference time used for aging
+   * @return ready jobs, first to be started first
+   */
+  public List<Job> order(List<Job> readyJobs, List<Job> runningJobs, Instant now) {
+    Map<String, Deque<Job>> perSubmitter = new HashMap<>();
+    Comparator<Job> withinSubmitter =
+        Comparator.comparingInt((Job job) -> effectivePriority(job, now))
+            .reversed()
+            .thenComparing(FairShareJobQueue::queuedSince);
+    readyJobs.stream()
+        .sorted(withinSubmitter)
+        .forEach(
+            job ->
+                perSubmitter.computeIfAbsent(submitterOf(job), k -> new ArrayDeque<>()).add(job));
+
+    Map<String, Integer> share = new HashMap<>();
+    for (Job running : runningJobs) {
+      share.merge(submitterOf(running), 1, Integer::sum);
+    }
+    Map<String, Double> weights = parseWeights();
+
+    List<Job> ordered = new ArrayList<>(readyJobs.size());
+    while (!perSubmitter.isEmpty()) {
+      String next = null;
+      double nextShare = Double.MAX_VALUE;
+      Job nextHead = null;
+      for (Map.Entry<String, Deque<Job>> entry : perSubmitter.entrySet()) {
+        String submitter = entry.getKey();
+        Job head = entry.getValue().peekFirst();
+        double weightedShare =
+            share.getOrDefault(submitter, 0) / weights.getOrDefault(submitter, 1.0);
+        if (next == null
+            || weightedShare < nextShare
+            || (weightedShare == nextShare && withinSubmitter.compare(head, nextHead) < 0)) {
+          next = submitter;
+          nextShare = weightedShare;
+          nextHead = head;
+        }
+      }
+      Deque<Job> queue = perSubmitter.get(next);
+      ordered.add(queue.pollFirst());
+      share.merge(next, 1, Integer::sum);
+      if (queue.isEmpty()) {
+        perSubmitter.remove(next);
+      }
+    }
+    return ordered;
+  }
+
+  /** Priority plus one step per aging interval spent waiting, capped at the configured boost. */
+  public int effectivePriority(Job job, Instant now) {
+    int priority = Objects.requireNonNullElse(job.getPriority(), defaultPriority);
+    if (agingIntervalSeconds <= 0) {
+      return priority;
+    }
+    long waitedSeconds = Math.max(0, Duration.between(queuedSince(job), now).getSeconds());
+    long boost = Math.min(maxAgingBoost, waitedSeconds / agingIntervalSeconds);
+    return priority + (int) boost;
+  }
+
+  /**
+   * Estimates when the job at {@code position} will start, assuming {@code slots} concurrent jobs
+   * that each take {@code averageDuration}.
+   *
+   * @return estimated start, or {@code null} when there is no duration history yet
+   */
+  public Instant estimateStart(
+      int position, int runningJobs, int slots, Duration averageDuration, Instant now) {
+    int freeSlots = Math.max(0, slots - runningJobs);
+    if (position < freeSlots) {
+      return now;
+    }
+    if (averageDuration == null || slots <= 0) {
+      return null;
+    }
+    long waves = (position - freeSlots) / slots + 1;
+    return now.plus(averageDuration.multipliedBy(waves));
+  }
+
+  public static String submitterOf(Job job) {
+    return job.getSubmitter() == null || job.getSubmitter().isBlank()
+        ? DEFAULT_SUBMITTER
+        : job.getSubmitter();
+  }
+
+  private static Instant queuedSince(Job job) {
+    if (job.getSubmitTime() != null) {
+      return job.getSubmitTime();
+    }
+    return job.getStartTime() != null ? job.getStartTime() : Instant.EPOCH;
+  }
+
+  /** Parses {@code job.dispatcher.submitter-weights}, e.g. {@code reporting:2,adhoc:0.5}. */
+  private Map<String, Double> parseWeights() {
+    Map<String, Double> weights = new HashMap<>();
+    if (submitterWeights == null || submitterWeights.isBlank()) {
+      return weights;
+    }
+    for (String pair : submitterWeights.split(",")) {
+      String[] parts = pair.split(":");
+      if (parts.length != 2) {
+        log.warn("Ignoring malformed submitter weight: {}", pair);
+        continue;
+      }
+      try {
+        double weight = Double.parseDouble(parts[1].trim());
+        if (weight > 0) {
+          weights.put(parts[0].trim(), weight);
+        }
+      } catch (NumberFormatException e) {
+        log.warn("Ignoring malformed submitter weight: {}", pair);
+      }
+    }
+    return weights;
+  }
+}
@@ -0,0 +1,151 @@
+package com.p3.resource_monitor.poc.scheduler;
+
+import com.p3.resource_monitor.poc.beans.JobStatus;
+import com.p3.resource_monitor.poc.persistance.models.Job;
+import com.p3.resource_monitor.poc.persistance.repos.JobRepository;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Releases WAITING batch jobs once the jobs they depend on have completed, and skips them when a
+ * dependency ended any other way. Runs right after a job of a batch finishes and periodically, so
+ * batches also progress when a parent finished on an instance that then went away.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobDependencyResolver {
+  private static final Set<String> UNSUCCESSFUL =
+      Set.of(
+          JobStatus.FAILED.name(),
+          JobStatus.CANCELLED.name(),
+          JobStatus.TIMED_OUT.name(),
+          JobStatus.SKIPPED.name());
+
+  private final JobRepository jobRepository;
+
+  @Scheduled(fixedRate = 10000)
+  public void resolveWaitingBatches() {
+    for (String batchId : jobRepository.findBatchIdsByStatus(JobStatus.WAITING.name())) {
+      resolve(batchId);
+    }
+  }
+
+  /**
+   * Re-evaluates the WAITING jobs of a batch. Skips cascade, so a failure high in the graph skips
+   * every job below it in one call.
+   *
+   * @return number of jobs moved to READY
+   */
+  public int resolve(String batchId) {
+    if (batchId == null) {
+      return 0;
+    }
+    int released = 0;
+    boolean skipped = true;
+    while (skipped) {
+      skipped = false;
+      Map<String, Job> batch =
+          jobRepository.findByBatchId(batchId).stream()
+              .collect(Collectors.toMap(Job::getId, Function.identity()));
+      for (Job job : batch.values()) {
+        if (!JobStatus.WAITING.name().equals(job.getStatus())) {
+          continue;
+        }
+        String skipReason = null;
+        boolean allCompleted = true;
+        for (String parentId : parentIds(job)) {
+          Job parent = batch.get(parentId);
+          if (parent == null) {
+            skipReason = "Dependency " + parentId + " no longer exists";
+            break;
+          }
+          if (UNSUCCESSFUL.contains(parent.getStatus())) {
+            skipReason =
+                "Dependency " + describe(parent) + " ended with status " + parent.getStatus();
+            break;
+          }
+          allCompleted &= JobStatus.COMPLETED.name().equals(parent.getStatus());
+        }
+        if (skipReason != null) {
+          skipped |= transition(job, JobStatus.SKIPPED, skipReason, Instant.now()) > 0;
+        } else if (allCompleted) {
+          released += transition(job, JobStatus.READY, "Dependencies completed", null);
+        }
+      }
+    }
+    return released;
+  }
+
+  /**
+   * Puts the jobs that were skipped because of {@code resumed}, directly or through other skipped
+   * jobs, back to WAITING, then re-evaluates the batch. Dependents that also depend on another
+   * unsuccessful job are skipped again by the re-evaluation.
+   *
+   * @return number of jobs put back to WAITING
+   */
+  public int reopenDependents(Job resumed) {
+    if (resumed.getBatchId() == null) {
+      return 0;
+    }
+    List<Job> batch = jobRepository.findByBatchId(resumed.getBatchId());
+    int reopened = 0;
+    Deque<String> parents = new ArrayDeque<>(List.of(resumed.getId()));
+    Set<String> visited = new HashSet<>(parents);
+    while (!parents.isEmpty()) {
+      String parentId = parents.poll();
+      for (Job job : batch) {
+        if (!parentIds(job).contains(parentId)
+            || !JobStatus.SKIPPED.name().equals(job.getStatus())
+            || !visited.add(job.getId())) {
+          continue;
+        }
+        String reason = "Dependency " + describe(resumed) + " resumed";
+        int updated =
+            jobRepository.transitionStatus(
+                job.getId(), JobStatus.SKIPPED.name(), JobStatus.WAITING.name(), reason, null);
+        if (updated > 0) {
+          log.info("Batch job {} -> {}: {}", describe(job), JobStatus.WAITING, reason);
+          reopened++;
+          parents.add(job.getId());
+        }
+      }
+    }
+    if (reopened > 0) {
+      resolve(resumed.getBatchId());
+    }
+    return reopened;
+  }
+
+  private int transition(Job job, JobStatus to, String reason, Instant endTime) {
+    int updated =
+        jobRepository.transitionStatus(
+            job.getId(), JobStatus.WAITING.name(), to.name(), reason, endTime);
+    if (updated > 0) {
+      log.info("Batch job {} -> {}: {}", describe(job), to, reason);
+    }
+    return updated;
+  }
+
+  private static List<String> parentIds(Job job) {
+    if (job.getDependsOnJobIds() == null || job.getDependsOnJobIds().isBlank()) {
+      return List.of();
+    }
+    return List.of(job.getDependsOnJobIds().split(","));
+  }
+
+  private static String describe(Job job) {
+    return job.getBatchKey() == null ? job.getId() : job.getBatchKey();
+  }
+}
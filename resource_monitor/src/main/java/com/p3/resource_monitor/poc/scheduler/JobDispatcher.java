@@ -0,0 +1,356 @@
+package com.p3.resource_monitor.poc.scheduler;
+
+import static com.p3.resource_monitor.poc.metrics_operations.MetricUtils.getRealIpAddress;
+
+import com.google.gson.Gson;
+import com.p3.resource_monitor.poc.Extraction.CatalogCache;
+import com.p3.resource_monitor.poc.Extraction.CheckpointTracker;
+import com.p3.resource_monitor.poc.Extraction.ExtractionCancelledException;
+import com.p3.resource_monitor.poc.Extraction.ExtractionContext;
+import com.p3.resource_monitor.poc.Extraction.ExtractionEstimator;
+import com.p3.resource_monitor.poc.Extraction.ProcessExtraction;
+import com.p3.resource_monitor.poc.Extraction.WatermarkStore;
+import com.p3.resource_monitor.poc.beans.ExtractionEstimate;
+import com.p3.resource_monitor.poc.beans.JobInputBean;
+import com.p3.resource_monitor.poc.beans.JobStatus;
+import com.p3.resource_monitor.poc.beans.JobType;
+import com.p3.resource_monitor.poc.persistance.models.Job;
+import com.p3.resource_monitor.poc.persistance.repos.CatalogSnapshotRepository;
+import com.p3.resource_monitor.poc.persistance.repos.ExtractionCheckpointRepository;
+import com.p3.resource_monitor.poc.persistance.repos.JobRepository;
+import com.p3.resource_monitor.poc.persistance.repos.TableWatermarkRepository;
+import com.p3.resource_monitor.poc.util.SourceConnectionRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.File;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobDispatcher {
+  private final JobRepository jobRepository;
+  private final FairShareJobQueue fairShareJobQueue;
+  private final AdmissionController admissionController;
+  private final RunningJobRegistry runningJobRegistry;
+  private final ExtractionCheckpointRepository extractionCheckpointRepository;
+  private final JobDependencyResolver jobDependencyResolver;
+  private final TableWatermarkRepository tableWatermarkRepository;
+  private final CatalogSnapshotRepository catalogSnapshotRepository;
+
+  @Value("${server.port}")
+  private int currentPort;
+
+  @Value("${job.dispatcher.max-concurrent-jobs:4}")
+  private int maxConcurrentJobs;
+
+  @Value("${job.checkpoint.keyed-table-min-rows:100000}")
+  private long keyedTableMinRows;
+
+  @Value("${job.extraction.range-split-min-rows:5000000}")
+  private long rangeSplitMinRows;
+
+  @Value("${job.extraction.ranges-per-table:4}")
+  private int rangesPerTable;
+
+  @Value("${job.extraction.split-dominant-tables:true}")
+  private boolean splitDominantTables;
+
+  @Value("${job.extraction.fetch-memory-budget-bytes:67108864}")
+  private long fetchMemoryBudgetBytes;
+
+  @Value("${job.extraction.copy-enabled:true}")
+  private boolean copyEnabled;
+
+  @Value("${job.extraction.pipeline-batches:4}")
+  private int pipelineBatches;
+
+  @Value("${job.extraction.catalog-cache-enabled:true}")
+  private boolean catalogCacheEnabled;
+
+  @Value("${job.extraction.source-pool-enabled:true}")
+  private boolean sourcePoolEnabled;
+
+  @Value("${job.extraction.source-max-connections:16}")
+  private int sourceMaxConnections;
+
+  @Value("${job.extraction.source-idle-timeout-seconds:300}")
+  private long sourceIdleTimeoutSeconds;
+
+  @Value("${job.extraction.source-connection-wait-seconds:600}")
+  private long sourceConnectionWaitSeconds;
+
+  private final AtomicInteger runningJobs = new AtomicInteger();
+  private ExecutorService jobExecutor;
+  private SourceConnectionRegistry sourceConnections = SourceConnectionRegistry.disabled();
+
+  @PostConstruct
+  public void init() {
+    jobExecutor = Executors.newFixedThreadPool(maxConcurrentJobs);
+    if (sourcePoolEnabled) {
+      sourceConnections =
+          new SourceConnectionRegistry(
+              sourceMaxConnections,
+              Duration.ofSeconds(sourceIdleTimeoutSeconds),
+              Duration.ofSeconds(sourceConnectionWaitSeconds));
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    jobExecutor.shutdownNow();
+    sourceConnections.close();
+  }
+
+  /**
+   * Jobs still marked RUNNING for this instance at startup were interrupted by a crash or restart.
+   * They are queued again and resume from their checkpoints in the same output directory.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void recoverInterruptedJobs() throws SocketException, UnknownHostException {
+    List<Job> interrupted =
+        jobRepository.findByStatusAndInstance_IpAddressAndInstance_Port(
+            JobStatus.RUNNING.name(), getRealIpAddress(), currentPort);
+    for (Job job : interrupted) {
+      log.info("Re-queueing job {} interrupted by restart", job.getId());
+      job.setStatus(JobStatus.READY.name());
+      job.setStatusReason("Interrupted by restart, resuming from checkpoint");
+    }
+    jobRepository.saveAll(interrupted);
+  }
+
+  @Scheduled(fixedRate = 3000)
+  public synchronized void processReadyJobs() throws SocketException, UnknownHostException {
+    String currentIp = getRealIpAddress();
+
+    log.info("Processing ready jobs for IP: {}, Port: {}", currentIp, currentPort);
+
+    List<Job> readyJobs =
+        jobRepository.findByStatusAndInstance_IpAddressAndInstance_Port(
+            JobStatus.READY.name(), currentIp, currentPort);
+    if (readyJobs.isEmpty()) {
+      return;
+    }
+    int freeSlots = maxConcurrentJobs - runningJobs.get();
+    if (freeSlots <= 0) {
+      log.info("All {} job slots busy, {} jobs queued", maxConcurrentJobs, readyJobs.size());
+      return;
+    }
+    List<Job> running =
+        jobRepository.findByStatusAndInstance_IpAddressAndInstance_Port(
+            JobStatus.RUNNING.name(), currentIp, currentPort);
+    List<Job> ordered = fairShareJobQueue.order(readyJobs, running, Instant.now());
+    List<Instant> recentStarts =
+        running.stream()
+            .map(Job::getStartTime)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(ArrayList::new));
+    int started = 0;
+    for (Job job : ordered) {
+      if (started >= freeSlots) {
+        break;
+      }
+      JobInputBean jobInputBean = readInput(job);
+      // A dry run only reads the catalog and a few rows per table, so it is never held back.
+      AdmissionDecision decision =
+          isDryRun(job)
+              ? AdmissionDecision.admit()
+              : admissionController.evaluate(job.getInstance().getId(), jobInputBean, recentStarts);
+      if (!decision.isAdmitted()) {
+        deferJob(job, decision.getReason());
+        continue;
+      }
+      if (startJob(job, jobInputBean)) {
+        recentStarts.add(job.getStartTime());
+        started++;
+      }
+    }
+  }
+
+  private void deferJob(Job job, String reason) {
+    log.info("Deferring job {}: {}", job.getId(), reason);
+    if (!Objects.equals(job.getStatusReason(), reason)) {
+      // Conditional, so a job cancelled meanwhile is not put back to READY.
+      jobRepository.transitionStatus(
+          job.getId(), JobStatus.READY.name(), JobStatus.READY.name(), reason, null);
+    }
+  }
+
+  /**
+   * Marks the job RUNNING and hands it to the executor, unless it left READY since it was read,
+   * e.g. because it was cancelled.
+   *
+   * @return whether the job was started
+   */
+  private boolean startJob(Job job, JobInputBean jobInputBean) {
+    Instant startTime = Instant.now();
+    String outputPath = job.getOutputPath();
+    if (outputPath == null && !isDryRun(job)) {
+      outputPath = jobInputBean.getOutputDir() + File.separator + System.currentTimeMillis();
+    }
+    if (jobRepository.markStarted(job.getId(), startTime, outputPath) == 0) {
+      log.info("Not starting job {}, it is no longer READY", job.getId());
+      return false;
+    }
+    job.setStatus(JobStatus.RUNNING.name());
+    job.setStatusReason(null);
+    job.setStartTime(startTime);
+    job.setOutputPath(outputPath);
+    runningJobs.incrementAndGet();
+    jobExecutor.submit(() -> handleJob(job, jobInputBean));
+    return true;
+  }
+
+  private JobInputBean readInput(Job job) {
+    String jobInput = new String(job.getJobInput(), StandardCharsets.UTF_8);
+    return new Gson().fromJson(jobInput, JobInputBean.class);
+  }
+
+  private void handleJob(Job job, JobInputBean jobInputBean) {
+    ExtractionContext context = runningJobRegistry.register(job.getId());
+    context.setOutputPath(job.getOutputPath());
+    context.setCheckpoints(
+        new CheckpointTracker(extractionCheckpointRepository, job.getId(), keyedTableMinRows));
+    context.setWatermarks(
+        new WatermarkStore(tableWatermarkRepository, WatermarkStore.scopeOf(jobInputBean)));
+    if (catalogCacheEnabled) {
+      context.setCatalogCache(
+          new CatalogCache(
+              catalogSnapshotRepository, CatalogCache.scopeOf(jobInputBean), job.getId()));
+    }
+    context.setSourceConnections(sourceConnections);
+    context.setRangeSplitMinRows(rangeSplitMinRows);
+    context.setRangesPerTable(rangesPerTable);
+    context.setSplitDominantTables(splitDominantTables);
+    context.setFetchMemoryBudgetBytes(fetchMemoryBudgetBytes);
+    context.setCopyEnabled(copyEnabled);
+    context.setPipelineBatches(pipelineBatches);
+    Integer maxRuntimeMinutes = jobInputBean.getMaxRuntimeMinutes();
+    if (maxRuntimeMinutes != null && maxRuntimeMinutes > 0) {
+      context.setDeadline(job.getStartTime().plus(Duration.ofMinutes(maxRuntimeMinutes)));
+    }
+    try {
+      if (isDryRun(job)) {
+        ExtractionEstimate estimate =
+            new ExtractionEstimator()
+                .estimate(
+                    jobInputBean, context, observedBytesPerSecond(job.getInstance().getId()));
+        job.setEstimate(new Gson().toJson(estimate).getBytes(StandardCharsets.UTF_8));
+        job.setStatus(JobStatus.COMPLETED.name());
+      } else {
+        new ProcessExtraction().extraction(jobInputBean, context);
+        job.setStatus(JobStatus.COMPLETED.name());
+        context.getWatermarks().commit(job.getId(), context.getCheckpoints().getAll());
+        extractionCheckpointRepository.deleteByJobId(job.getId());
+      }
+    } catch (ExtractionCancelledException e) {
+      log.info("Job {} stopped: {}", job.getId(), e.getMessage());
+      job.setStatus(e.getStatus().name());
+      job.setStatusReason(e.getMessage());
+    } catch (Exception e) {
+      log.error("Job {} failed", job.getId(), e);
+      job.setStatus(JobStatus.FAILED.name());
+      job.setStatusReason(e.getMessage());
+    } finally {
+      job.setEndTime(Instant.now());
+      job.setRowsExported(context.getProgress().getRowsExported());
+      job.setBytesWritten(context.getProgress().getBytesWritten());
+      jobRepository.save(job);
+      runningJobRegistry.unregister(job.getId());
+      runningJobs.decrementAndGet();
+    }
+    releaseDependents(job);
+  }
+
+  private static boolean isDryRun(Job job) {
+    return JobType.DRY_RUN.name().equals(job.getJobType());
+  }
+
+  /**
+   * Bytes per second written by the recent completed extractions on the instance, {@code null}
+   * when there are none to go by.
+   */
+  private Double observedBytesPerSecond(String instanceId) {
+    long bytes = 0;
+    long millis = 0;
+    for (Job done :
+        jobRepository.findTop20ByStatusAndInstance_IdOrderByEndTimeDesc(
+            JobStatus.COMPLETED.name(), instanceId)) {
+      if (isDryRun(done)
+          || done.getBytesWritten() == null
+          || done.getStartTime() == null
+          || done.getEndTime() == null) {
+        continue;
+      }
+      bytes += done.getBytesWritten();
+      millis += Duration.between(done.getStartTime(), done.getEndTime()).toMillis();
+    }
+    return bytes == 0 || millis == 0 ? null : bytes * 1000.0 / millis;
+  }
+
+  /** Starts batch jobs that were waiting on this one without waiting for the next tick. */
+  private void releaseDependents(Job job) {
+    if (job.getBatchId() == null) {
+      return;
+    }
+    try {
+      if (jobDependencyResolver.resolve(job.getBatchId()) > 0) {
+        processReadyJobs();
+      }
+    } catch (Exception e) {
+      log.warn("Could not release dependents of job {}: {}", job.getId(), e.getMessage());
+    }
+  }
+
+  /** Closes the source connection pools no job has used for the idle timeout. */
+  @Scheduled(fixedRate = 60000)
+  public void evictIdleSourceConnections() {
+    sourceConnections.evictIdle();
+  }
+
+  /**
+   * Stops running jobs that were cancelled through the API (possibly on another instance) or that
+   * have exceeded their maximum runtime. The extraction notices the stop at its next row and the
+   * in-flight query is cancelled so it does not wait for the database to finish.
+   */
+  @Scheduled(fixedRate = 5000)
+  public void enforceCancellationsAndTimeLimits() {
+    Collection<ExtractionContext> contexts = runningJobRegistry.all();
+    if (contexts.isEmpty()) {
+      return;
+    }
+    Instant now = Instant.now();
+    List<String> jobIds = contexts.stream().map(ExtractionContext::getJobId).toList();
+    for (Job job : jobRepository.findAllById(jobIds)) {
+      ExtractionContext context = runningJobRegistry.get(job.getId());
+      if (context == null || context.isStopRequested()) {
+        continue;
+      }
+      if (Boolean.TRUE.equals(job.getCancelRequested())) {
+        context.requestStop(JobStatus.CANCELLED, "Cancelled by user");
+      } else if (context.isPastDeadline(now)) {
+        context.requestStop(
+            JobStatus.TIMED_OUT, "Exceeded maximum runtime, deadline was " + context.getDeadline());
+      }
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package com.p3.resource_monitor.poc.scheduler;
+
+import com.p3.resource_monitor.poc.beans.JobStatus;
+import com.p3.resource_monitor.poc.persistance.models.Instance;
+import com.p3.resource_monitor.poc.persistance.models.InstanceMetrics;
+import com.p3.resource_monitor.poc.persistance.models.Job;
+import com.p3.resource_monitor.poc.persistance.repos.InstanceMetricsRepository;
+import com.p3.resource_monitor.poc.persistance.repos.InstanceRepository;
+import com.p3.resource_monitor.poc.persistance.repos.JobRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks the instance for jobs submitted without one, and moves such jobs elsewhere when their
+ * instance stops reporting metrics before the job started.
+ *
+ * <p>An instance counts as live while its latest metrics sample is recent. Its load is the higher
+ * of its CPU and memory use plus its running and queued jobs relative to the job slots. By default
+ * two live instances are sampled at random and the less loaded one wins (power of two choices):
+ * metrics lag behind submissions, and always taking the single least loaded instance would send a
+ * burst of submissions to the same target.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobPlacer {
+  public static final String STRATEGY_LEAST_LOADED = "least-loaded";
+
+  private final InstanceRepository instanceRepository;
+  private final InstanceMetricsRepository instanceMetricsRepository;
+  private final JobRepository jobRepository;
+
+  @Value("${job.placement.strategy:power-of-two}")
+  private String strategy;
+
+  @Value("${job.placement.instance-timeout-seconds:30}")
+  private long instanceTimeoutSeconds;
+
+  @Value("${job.admission.min-free-disk-bytes:1073741824}")
+  private long minFreeDiskBytes;
+
+  @Value("${job.dispatcher.max-concurrent-jobs:4}")
+  private int maxConcurrentJobs;
+
+  /**
+   * @return instance to run a new job on
+   * @throws IllegalStateException when no instance is live
+   */
+  public Instance place() {
+    return place(null);
+  }
+
+  /**
+   * Places {@code count} jobs in one go, e.g. for a batch submission. Each placed job is counted
+   * against its instance before the next one is placed, so the batch is spread out.
+   */
+  public List<Instance> placeAll(int count) {
+    List<Candidate> candidates = liveCandidates();
+    if (candidates.isEmpty()) {
+      throw new IllegalStateException("No live instance available for job placement");
+    }
+    double slotLoad = 1.0 / Math.max(1, maxConcurrentJobs);
+    List<Instance> placements = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int chosen = choose(candidates);
+      Candidate candidate = candidates.get(chosen);
+      placements.add(candidate.instance());
+      candidates.set(chosen, new Candidate(candidate.instance(), candidate.load() + slotLoad));
+    }
+    return placements;
+  }
+
+  private Instance place(String excludedInstanceId) {
+    List<Candidate> candidates = liveCandidates();
+    if (excludedInstanceId != null) {
+      candidates.removeIf(candidate -> candidate.instance().getId().equals(excludedInstanceId));
+    }
+    if (candidates.isEmpty()) {
+      throw new IllegalStateException("No live instance available for job placement");
+    }
+    Candidate chosen = candidates.get(choose(candidates));
+    log.info("Placing job on instance {} with load {}", chosen.instance().getId(), chosen.load());
+    return chosen.instance();
+  }
+
+  /** Index of the candidate to use according to the configured strategy. */
+  private int choose(List<Candidate> candidates) {
+    if (STRATEGY_LEAST_LOADED.equals(strategy) || candidates.size() < 3) {
+      int best = 0;
+      for (int i = 1; i < candidates.size(); i++) {
+        if (candidates.get(i).load() < candidates.get(best).load()) {
+          best = i;
+        }
+      }
+      return best;
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(candidates.size());
+    int second = random.nextInt(candidates.size() - 1);
+    if (second >= first) {
+      second++;
+    }
+    return candidates.get(first).load() <= candidates.get(second).load() ? first : second;
+  }
+
+  /** Moves READY auto-placed jobs off instances that are no longer live. */
+  @Scheduled(fixedRate = 15000)
+  public void replaceOrphanedJobs() {
+    List<Job> waiting = jobRepository.findByStatusAndAutoPlaced(JobStatus.READY.name(), true);
+    if (waiting.isEmpty()) {
+      return;
+    }
+    List<String> liveIds =
+        liveCandidates().stream().map(candidate -> candidate.instance().getId()).toList();
+    for (Job job : waiting) {
+      String currentInstanceId = job.getInstance().getId();
+      if (liveIds.contains(currentInstanceId)) {
+        continue;
+      }
+      Instance target;
+      try {
+        target = place(currentInstanceId);
+      } catch (IllegalStateException e) {
+        log.warn("Instance of job {} is gone and no other instance is live", job.getId());
+        return;
+      }
+      // Conditional update: another instance may be re-placing or starting the same job.
+      int moved =
+          jobRepository.reassignReadyJob(
+              job.getId(), currentInstanceId, target, "Re-placed from unavailable instance");
+      if (moved > 0) {
+        log.info("Re-placed job {} from {} to {}", job.getId(), currentInstanceId, target.getId());
+      }
+    }
+  }
+
+  private List<Candidate> liveCandidates() {
+    Instant cutoff = Instant.now().minus(Duration.ofSeconds(instanceTimeoutSeconds));
+    List<Candidate> candidates = new ArrayList<>();
+    for (Instance instance : instanceRepository.findAll()) {
+      InstanceMetrics latest =
+          instanceMetricsRepository.findTopByInstance_IdOrderByTimestampDesc(instance.getId());
+      if (latest == null
+          || latest.getTimestamp() == null
+          || latest.getTimestamp().isBefore(cutoff)) {
+        continue;
+      }
+      if (latest.getFreeDiskBytes() != null && latest.getFreeDiskBytes() < minFreeDiskBytes) {
+        continue;
+      }
+      candidates.add(new Candidate(instance, load(instance, latest)));
+    }
+    return candidates;
+  }
+
+  private double load(Instance instance, InstanceMetrics latest) {
+    double cpu = latest.getCpuPercent() == null ? 0 : latest.getCpuPercent() / 100;
+    double memory =
+        latest.getResidentMemoryBytes() == null
+                || latest.getTotalMemoryBytes() == null
+                || latest.getTotalMemoryBytes() == 0
+            ? 0
+            : (double) latest.getResidentMemoryBytes() / latest.getTotalMemoryBytes();
+    long assigned =
+        jobRepository.countByStatusAndInstance_Id(JobStatus.RUNNING.name(), instance.getId())
+            + jobRepository.countByStatusAndInstance_Id(JobStatus.READY.name(), instance.getId());
+    return Math.max(cpu, memory) + (double) assigned / Math.max(1, maxConcurrentJobs);
+  }
+
+  private record Candidate(Instance instance, double load) {}
+}
@@ -0,0 +1,31 @@
+package com.p3.resource_monitor.poc.scheduler;
+
+import com.p3.resource_monitor.poc.Extraction.ExtractionContext;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/** Jobs currently executing on this instance, keyed by job id. */
+@Component
+public class RunningJobRegistry {
+  private final Map<String, ExtractionContext> contexts = new ConcurrentHashMap<>();
+
+  public ExtractionContext register(String jobId) {
+    ExtractionContext context = new ExtractionContext(jobId);
+    contexts.put(jobId, context);
+    return context;
+  }
+
+  public ExtractionContext get(String jobId) {
+    return contexts.get(jobId);
+  }
+
+  public Collection<ExtractionContext> all() {
+    return contexts.values();
+  }
+
+  public void unregister(String jobId) {
+    contexts.remove(jobId);
+  }
+}
@@ -1,6 +1,11 @@
 package com.p3.resource_monitor.poc.service;
 
+import com.p3.resource_monitor.poc.beans.ExtractionEstimate;
+import com.p3.resource_monitor.poc.beans.JobBatchRequest;
+import com.p3.resource_monitor.poc.beans.JobBatchResponse;
 import com.p3.resource_monitor.poc.beans.JobInputBean;
+import com.p3.resource_monitor.poc.beans.JobProgressSnapshot;
+import com.p3.resource_monitor.poc.beans.JobQueueStatus;
 import com.p3.resource_monitor.poc.persistance.models.Job;
 
 import java.util.List;
@@ -8,5 +13,23 @@ import java.util.List;
 public interface JobService {
     String initJob(JobInputBean jobInputBean, String instanceId);
 
+    String initJob(JobInputBean jobInputBean);
+
+    String initDryRun(JobInputBean jobInputBean, String instanceId);
+
+    String initDryRun(JobInputBean jobInputBean);
+
+    ExtractionEstimate getEstimate(String jobId);
+
+    JobBatchResponse submitBatch(JobBatchRequest request);
+
     List<Job> getJobsByInstanceId(String instanceId);
-}
\ No newline at end of file
+
+    JobQueueStatus getQueueStatus(String jobId);
+
+    JobProgressSnapshot getProgress(String jobId);
+
+    String cancelJob(String jobId);
+
+    String resumeJob(String jobId);
+}
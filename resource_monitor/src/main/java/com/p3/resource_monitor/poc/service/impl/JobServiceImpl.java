@@ -1,94 +1,356 @@
 package com.p3.resource_monitor.poc.service.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
-import com.p3.resource_monitor.poc.Extraction.ProcessExtraction;
+import com.p3.resource_monitor.poc.Extraction.ExtractionContext;
+import com.p3.resource_monitor.poc.beans.ExtractionEstimate;
+import com.p3.resource_monitor.poc.beans.JobBatchItem;
+import com.p3.resource_monitor.poc.beans.JobBatchRequest;
+import com.p3.resource_monitor.poc.beans.JobBatchResponse;
 import com.p3.resource_monitor.poc.beans.JobInputBean;
+import com.p3.resource_monitor.poc.beans.JobProgressSnapshot;
+import com.p3.resource_monitor.poc.beans.JobQueueStatus;
+import com.p3.resource_monitor.poc.beans.JobStatus;
+import com.p3.resource_monitor.poc.beans.JobType;
+import com.p3.resource_monitor.poc.persistance.models.Instance;
 import com.p3.resource_monitor.poc.persistance.models.Job;
 import com.p3.resource_monitor.poc.persistance.repos.InstanceRepository;
 import com.p3.resource_monitor.poc.persistance.repos.JobRepository;
+import com.p3.resource_monitor.poc.scheduler.FairShareJobQueue;
+import com.p3.resource_monitor.poc.scheduler.JobDependencyResolver;
+import com.p3.resource_monitor.poc.scheduler.JobPlacer;
+import com.p3.resource_monitor.poc.scheduler.RunningJobRegistry;
 import com.p3.resource_monitor.poc.service.JobService;
-
-import java.net.SocketException;
-import java.net.UnknownHostException;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import static com.p3.resource_monitor.poc.metrics_operations.MetricUtils.getRealIpAddress;
-
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JobServiceImpl implements JobService {
   private final JobRepository jobRepository;
   private final InstanceRepository instanceRepository;
+  private final FairShareJobQueue fairShareJobQueue;
+  private final RunningJobRegistry runningJobRegistry;
+  private final JobPlacer jobPlacer;
+  private final JobDependencyResolver jobDependencyResolver;
+
+  @Value("${job.dispatcher.max-concurrent-jobs:4}")
+  private int maxConcurrentJobs;
 
   @Override
   public String initJob(JobInputBean jobInputBean, String instanceId) {
+    return createJob(jobInputBean, instanceRepository.findById(instanceId).orElseThrow(), false);
+  }
+
+  @Override
+  public String initJob(JobInputBean jobInputBean) {
+    return createJob(jobInputBean, jobPlacer.place(), true);
+  }
+
+  @Override
+  public String initDryRun(JobInputBean jobInputBean, String instanceId) {
+    return createDryRun(jobInputBean, instanceRepository.findById(instanceId).orElseThrow(), false);
+  }
+
+  @Override
+  public String initDryRun(JobInputBean jobInputBean) {
+    return createDryRun(jobInputBean, jobPlacer.place(), true);
+  }
+
+  private String createJob(JobInputBean jobInputBean, Instance instance, boolean autoPlaced) {
+    Job job = jobBuilder(jobInputBean, instance, autoPlaced).build();
+    jobRepository.save(job);
+    return job.getId();
+  }
+
+  private String createDryRun(JobInputBean jobInputBean, Instance instance, boolean autoPlaced) {
     Job job =
-        Job.builder()
-            .jobType("EXTRACTION")
-            .startTime(Instant.now())
-            .status("READY")
-            .jobInput(new ObjectMapper().convertValue(jobInputBean, String.class).getBytes())
-            .instance(instanceRepository.findById(instanceId).orElseThrow())
-            .build();
+        jobBuilder(jobInputBean, instance, autoPlaced).jobType(JobType.DRY_RUN.name()).build();
     jobRepository.save(job);
     return job.getId();
   }
 
+  private Job.JobBuilder jobBuilder(
+      JobInputBean jobInputBean, Instance instance, boolean autoPlaced) {
+    return Job.builder()
+        .jobType(JobType.EXTRACTION.name())
+        .submitTime(Instant.now())
+        .status(JobStatus.READY.name())
+        .priority(jobInputBean.getPriority())
+        .submitter(jobInputBean.getSubmitter())
+        .jobInput(new Gson().toJson(jobInputBean).getBytes(StandardCharsets.UTF_8))
+        .instance(instance)
+        .autoPlaced(autoPlaced);
+  }
+
+  /**
+   * Creates all jobs of the batch in one transaction. Jobs are inserted first so their ids exist,
+   * then the dependency ids are filled in; with JDBC batching enabled both steps go to the
+   * database as batched statements rather than one round trip per job.
+   */
+  @Override
+  @Transactional
+  public JobBatchResponse submitBatch(JobBatchRequest request) {
+    List<JobBatchItem> items = request.getJobs() == null ? List.of() : request.getJobs();
+    if (items.isEmpty()) {
+      throw new IllegalArgumentException("Batch contains no jobs");
+    }
+    Map<String, JobBatchItem> itemsByKey = validateBatch(items);
+    boolean autoPlaced = request.getInstanceId() == null;
+    List<Instance> instances =
+        autoPlaced
+            ? jobPlacer.placeAll(items.size())
+            : Collections.nCopies(
+                items.size(), instanceRepository.findById(request.getInstanceId()).orElseThrow());
+
+    String batchId = UUID.randomUUID().toString();
+    List<String> keys = new ArrayList<>(itemsByKey.keySet());
+    List<Job> jobs = new ArrayList<>(items.size());
+    for (int i = 0; i < keys.size(); i++) {
+      JobBatchItem item = itemsByKey.get(keys.get(i));
+      boolean waiting = item.getDependsOn() != null && !item.getDependsOn().isEmpty();
+      jobs.add(
+          jobBuilder(item.getJobInput(), instances.get(i), autoPlaced)
+              .status(waiting ? JobStatus.WAITING.name() : JobStatus.READY.name())
+              .batchId(batchId)
+              .batchKey(keys.get(i))
+              .build());
+    }
+    jobRepository.saveAll(jobs);
+
+    Map<String, String> jobIds = new LinkedHashMap<>();
+    for (Job job : jobs) {
+      jobIds.put(job.getBatchKey(), job.getId());
+    }
+    for (Job job : jobs) {
+      List<String> dependsOn = itemsByKey.get(job.getBatchKey()).getDependsOn();
+      if (dependsOn != null && !dependsOn.isEmpty()) {
+        job.setDependsOnJobIds(
+            dependsOn.stream().map(jobIds::get).collect(Collectors.joining(",")));
+      }
+    }
+    log.info("Submitted batch {} with {} jobs", batchId, jobs.size());
+    return JobBatchResponse.builder().batchId(batchId).jobIds(jobIds).build();
+  }
+
+  /**
+   * Checks keys are unique, dependencies refer to jobs in the batch and there are no cycles.
+   *
+   * @return items by key, in submission order; items without a key get their index as key
+   */
+  private Map<String, JobBatchItem> validateBatch(List<JobBatchItem> items) {
+    Map<String, JobBatchItem> itemsByKey = new LinkedHashMap<>();
+    for (int i = 0; i < items.size(); i++) {
+      JobBatchItem item = items.get(i);
+      if (item.getJobInput() == null) {
+        throw new IllegalArgumentException("Batch job " + i + " has no job input");
+      }
+      String key = item.getKey() == null ? String.valueOf(i) : item.getKey();
+      if (itemsByKey.put(key, item) != null) {
+        throw new IllegalArgumentException("Duplicate batch job key: " + key);
+      }
+    }
+    Map<String, Integer> pendingParents = new HashMap<>();
+    Map<String, List<String>> children = new HashMap<>();
+    for (Map.Entry<String, JobBatchItem> entry : itemsByKey.entrySet()) {
+      List<String> dependsOn = entry.getValue().getDependsOn();
+      List<String> parents = dependsOn == null ? List.of() : dependsOn;
+      for (String parent : parents) {
+        if (!itemsByKey.containsKey(parent)) {
+          throw new IllegalArgumentException(
+              "Batch job " + entry.getKey() + " depends on unknown job " + parent);
+        }
+        children.computeIfAbsent(parent, k -> new ArrayList<>()).add(entry.getKey());
+      }
+      pendingParents.put(entry.getKey(), parents.size());
+    }
+    // Kahn's algorithm: every job must become reachable once its parents are done.
+    Deque<String> free = new ArrayDeque<>();
+    for (Map.Entry<String, Integer> entry : pendingParents.entrySet()) {
+      if (entry.getValue() == 0) {
+        free.add(entry.getKey());
+      }
+    }
+    int visited = 0;
+    while (!free.isEmpty()) {
+      String key = free.poll();
+      visited++;
+      for (String child : children.getOrDefault(key, List.of())) {
+        if (pendingParents.merge(child, -1, Integer::sum) == 0) {
+          free.add(child);
+        }
+      }
+    }
+    if (visited != itemsByKey.size()) {
+      throw new IllegalArgumentException("Batch job dependencies contain a cycle");
+    }
+    return itemsByKey;
+  }
+
   @Override
   public List<Job> getJobsByInstanceId(String instanceId) {
     return jobRepository.findByInstance_Id(instanceId);
   }
 
-  @Scheduled(fixedRate = 3000)
-  public void processReadyJobs() throws SocketException, UnknownHostException {
-    String currentIp = getRealIpAddress();
-    int currentPort = Integer.parseInt(System.getProperty("server.port"));
+  @Override
+  public JobQueueStatus getQueueStatus(String jobId) {
+    Job job = findJob(jobId);
+    Instant now = Instant.now();
+    JobQueueStatus.JobQueueStatusBuilder status =
+        JobQueueStatus.builder()
+            .jobId(job.getId())
+            .status(job.getStatus())
+            .statusReason(job.getStatusReason())
+            .submitter(FairShareJobQueue.submitterOf(job))
+            .priority(job.getPriority())
+            .effectivePriority(fairShareJobQueue.effectivePriority(job, now));
+    if (!JobStatus.READY.name().equals(job.getStatus())) {
+      return status.build();
+    }
 
-    log.info("Processing ready jobs for IP: {}, Port: {}", currentIp, currentPort);
+    String instanceId = job.getInstance().getId();
+    List<Job> running =
+        jobRepository.findByStatusAndInstance_Id(JobStatus.RUNNING.name(), instanceId);
+    List<Job> ordered =
+        fairShareJobQueue.order(
+            jobRepository.findByStatusAndInstance_Id(JobStatus.READY.name(), instanceId),
+            running,
+            now);
+    int position = 0;
+    while (position < ordered.size() && !ordered.get(position).getId().equals(jobId)) {
+      position++;
+    }
+    return status
+        .queuePosition(position)
+        .queueLength(ordered.size())
+        .runningJobs(running.size())
+        .estimatedStartTime(
+            fairShareJobQueue.estimateStart(
+                position, running.size(), maxConcurrentJobs, averageDuration(instanceId), now))
+        .build();
+  }
 
-    List<Job> readyJobs =
-        jobRepository.findByStatus("READY").stream()
-            .filter(
-                job ->
-                    job.getInstance().getIpAddress().equals(currentIp)
-                        && job.getInstance().getPort() == currentPort)
-            .toList();
+  @Override
+  public JobProgressSnapshot getProgress(String jobId) {
+    ExtractionContext context = runningJobRegistry.get(jobId);
+    if (context != null) {
+      return context.getProgress().snapshot(jobId, JobStatus.RUNNING.name());
+    }
+    Job job = findJob(jobId);
+    Long elapsedSeconds =
+        job.getStartTime() == null || job.getEndTime() == null
+            ? null
+            : Duration.between(job.getStartTime(), job.getEndTime()).getSeconds();
+    return JobProgressSnapshot.builder()
+        .jobId(jobId)
+        .status(job.getStatus())
+        .rowsExported(job.getRowsExported())
+        .bytesWritten(job.getBytesWritten())
+        .elapsedSeconds(elapsedSeconds)
+        .lastProgressTime(job.getEndTime())
+        .build();
+  }
 
-    if (readyJobs.isEmpty()) {
-      return;
+  @Override
+  public ExtractionEstimate getEstimate(String jobId) {
+    Job job = findJob(jobId);
+    if (job.getEstimate() == null) {
+      throw new IllegalStateException(
+          "Job " + jobId + " has no estimate, its status is " + job.getStatus());
     }
-    ExecutorService executorService = Executors.newFixedThreadPool(readyJobs.size());
-    List<Future<?>> futures = new ArrayList<>();
-    for (Job job : readyJobs) {
-      Future<?> future = executorService.submit(() -> handleJob(job));
-      futures.add(future);
+    return new Gson()
+        .fromJson(new String(job.getEstimate(), StandardCharsets.UTF_8), ExtractionEstimate.class);
+  }
+
+  /**
+   * Cancels the job with conditional updates, so neither the dispatcher starting it nor the job
+   * finishing meanwhile is overwritten. Statuses are tried in the order a job moves through them.
+   */
+  @Override
+  public String cancelJob(String jobId) {
+    Job job = findJob(jobId);
+    for (JobStatus pending : List.of(JobStatus.WAITING, JobStatus.READY)) {
+      int cancelled =
+          jobRepository.transitionStatus(
+              jobId,
+              pending.name(),
+              JobStatus.CANCELLED.name(),
+              "Cancelled by user before start",
+              Instant.now());
+      if (cancelled > 0) {
+        jobDependencyResolver.resolve(job.getBatchId());
+        return "Job " + jobId + " cancelled";
+      }
+    }
+    if (jobRepository.requestCancel(jobId) == 0) {
+      return "Job " + jobId + " already finished with status " + findJob(jobId).getStatus();
+    }
+    // The flag reaches the owning instance's dispatcher; stop right away when it runs here.
+    ExtractionContext context = runningJobRegistry.get(jobId);
+    if (context != null) {
+      context.requestStop(JobStatus.CANCELLED, "Cancelled by user");
+    }
+    return "Cancellation requested for job " + jobId;
+  }
+
+  @Override
+  public String resumeJob(String jobId) {
+    Job job = findJob(jobId);
+    List<String> resumable =
+        List.of(JobStatus.FAILED.name(), JobStatus.CANCELLED.name(), JobStatus.TIMED_OUT.name());
+    if (!resumable.contains(job.getStatus())) {
+      return "Job " + jobId + " cannot be resumed from status " + job.getStatus();
+    }
+    // Keeping outputPath makes the dispatcher continue in the same directory from checkpoints.
+    job.setStatus(JobStatus.READY.name());
+    job.setStatusReason("Resume requested");
+    job.setEndTime(null);
+    job.setCancelRequested(null);
+    jobRepository.save(job);
+    int reopened = jobDependencyResolver.reopenDependents(job);
+    if (reopened > 0) {
+      return "Job " + jobId + " queued for resume, " + reopened + " skipped dependents reopened";
     }
+    return "Job " + jobId + " queued for resume";
   }
 
-  private void handleJob(Job job) {
-    try {
-      String jobInput = new String(job.getJobInput(), StandardCharsets.UTF_8);
-      JobInputBean jobInputBean = new Gson().fromJson(jobInput, JobInputBean.class);
-      new ProcessExtraction().extraction(jobInputBean);
-      job.setStatus("COMPLETED");
-    } catch (Exception e) {
-      job.setStatus("FAILED");
-      e.printStackTrace();
-    } finally {
-      job.setEndTime(Instant.now());
-      jobRepository.save(job);
+  private Job findJob(String jobId) {
+    return jobRepository
+        .findById(jobId)
+        .orElseThrow(() -> new EntityNotFoundException("Job not found with id: " + jobId));
+  }
+
+  private Duration averageDuration(String instanceId) {
+    List<Duration> durations =
+        jobRepository
+            .findTop20ByStatusAndInstance_IdOrderByEndTimeDesc(
+                JobStatus.COMPLETED.name(), instanceId)
+            .stream()
+            .filter(job -> !JobType.DRY_RUN.name().equals(job.getJobType()))
+            .filter(job -> Objects.nonNull(job.getStartTime()) && Objects.nonNull(job.getEndTime()))
+            .map(job -> Duration.between(job.getStartTime(), job.getEndTime()))
+            .toList();
+    if (durations.isEmpty()) {
+      return null;
     }
+    return durations.stream().reduce(Duration.ZERO, Duration::plus).dividedBy(durations.size());
   }
 }
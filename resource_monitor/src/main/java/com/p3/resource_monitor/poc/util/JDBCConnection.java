@@ -1,68 +1,313 @@
 package com.p3.resource_monitor.poc.util;
 
 import com.p3.export.options.ColumnInfo;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
+import com.p3.resource_monitor.poc.Extraction.TableRange;
 import com.p3.resource_monitor.poc.beans.ConnectionBean;
 import com.p3.resource_monitor.poc.beans.ConnectionType;
+import com.p3.resource_monitor.poc.catalog.Catalog;
+import com.p3.resource_monitor.poc.dialect.BulkReadPath;
+import com.p3.resource_monitor.poc.dialect.CopyOutDialect;
+import com.p3.resource_monitor.poc.dialect.SourceDialect;
+import com.p3.resource_monitor.poc.dialect.TableSample;
 import lombok.Getter;
 
+/**
+ * Connections to one source database and the SQL the extraction runs against it, phrased by the
+ * source's {@link SourceDialect}.
+ */
 public class JDBCConnection {
+  /** Row limit of a select that reads every row. */
+  public static final long NO_LIMIT = -1;
 
   private final ConnectionBean connectionBean;
-  private final ConnectionType connectionType;
+  @Getter private final SourceDialect dialect;
   @Getter private Connection connection;
+  private HikariDataSource dataSource;
+  private SourceConnectionRegistry.Lease lease;
+  private String connectionUrl;
 
   public JDBCConnection(ConnectionBean connectionBean, ConnectionType connectionType)
       throws SQLException {
+    this(connectionBean, connectionType, 1);
+  }
+
+  /**
+   * @param poolSize connections to keep open against the source; above 1 a small pool is created
+   *     and {@link #borrowConnection()} hands out connections for parallel table workers
+   */
+  public JDBCConnection(ConnectionBean connectionBean, ConnectionType connectionType, int poolSize)
+      throws SQLException {
+    this(connectionBean, connectionType, poolSize, SourceConnectionRegistry.disabled());
+  }
+
+  /**
+   * @param sourceConnections shared pools to take connections from, reserving {@code poolSize} of
+   *     them for this instance; when it is disabled the connections are opened for this instance
+   *     alone, see the constructor above
+   */
+  public JDBCConnection(
+      ConnectionBean connectionBean,
+      ConnectionType connectionType,
+      int poolSize,
+      SourceConnectionRegistry sourceConnections)
+      throws SQLException {
     this.connectionBean = connectionBean;
-    this.connectionType = connectionType;
-    this.initConnection();
-  }
-
-  private void initConnection() throws SQLException {
-    if (Objects.requireNonNull(connectionType) == ConnectionType.POSTGRES) {
-      String connectionUrl =
-          "jdbc:postgresql://"
-              + connectionBean.getHost()
-              + ":"
-              + connectionBean.getPort()
-              + "/"
-              + connectionBean.getDatabase()
-              + "?user="
-              + connectionBean.getUsername()
-              + "&password="
-              + connectionBean.getPassword();
-
-      connection = DriverManager.getConnection(connectionUrl);
+    this.dialect = SourceDialect.of(connectionType);
+    this.initConnection(poolSize, sourceConnections);
+  }
+
+  private void initConnection(int poolSize, SourceConnectionRegistry sourceConnections)
+      throws SQLException {
+    connectionUrl = dialect.connectionUrl(connectionBean);
+    if (sourceConnections.isEnabled()) {
+      lease = sourceConnections.lease(connectionUrl, connectionBean, poolSize);
+      try {
+        connection = lease.getConnection();
+      } catch (SQLException e) {
+        lease.close();
+        throw e;
+      }
+    } else if (poolSize > 1) {
+      HikariConfig config = new HikariConfig();
+      config.setJdbcUrl(connectionUrl);
+      config.setUsername(connectionBean.getUsername());
+      config.setPassword(connectionBean.getPassword());
+      config.setMaximumPoolSize(poolSize);
+      config.setMinimumIdle(0);
+      config.setPoolName("extraction-" + connectionBean.getHost() + "-" + System.nanoTime());
+      dataSource = new HikariDataSource(config);
+      connection = dataSource.getConnection();
+    } else {
+      connection = openConnection();
     }
   }
 
+  private Connection openConnection() throws SQLException {
+    return DriverManager.getConnection(
+        connectionUrl, connectionBean.getUsername(), connectionBean.getPassword());
+  }
+
+  /**
+   * Connection for one worker, taken from the shared or own pool when there is one and opened
+   * directly otherwise. The caller closes it.
+   */
+  public Connection borrowConnection() throws SQLException {
+    if (lease != null) {
+      return lease.getConnection();
+    }
+    if (dataSource == null) {
+      return openConnection();
+    }
+    return dataSource.getConnection();
+  }
+
+  /** Closes the connections, or returns them when they came from the shared pools. */
   public void closeConnection() throws SQLException {
-    if (connection != null) {
-      connection.close();
+    try {
+      if (connection != null) {
+        connection.close();
+      }
+    } finally {
+      if (lease != null) {
+        lease.close();
+      }
+      if (dataSource != null) {
+        dataSource.close();
+      }
     }
   }
 
-  public String getSampleSelectQuery(
-      String schema, String tableName, List<ColumnInfo> columnInfoList) {
-    return getSampleSelectQuery(schema, tableName, columnInfoList, 150000);
+  /** Schemas, tables, columns, primary keys and row estimates of the source. */
+  public Catalog readCatalog() throws SQLException {
+    return dialect.readCatalog(connection);
+  }
+
+  /** Catalog reusing the unchanged tables of {@code cached}, see {@link SourceDialect}. */
+  public Catalog readCatalog(Catalog cached) throws SQLException {
+    return dialect.readCatalog(connection, cached);
   }
 
+  public boolean supportsCatalogFingerprints() {
+    return dialect.supportsCatalogFingerprints();
+  }
+
+  public static String tableKey(String schema, String tableName) {
+    return schema + "." + tableName;
+  }
+
+  /**
+   * Select of the whole table, or of the rows matching {@code filter} when it is set. {@code limit}
+   * caps the rows returned, {@link #NO_LIMIT} reads them all.
+   */
+  public String getSelectQuery(
+      String schema, String tableName, List<ColumnInfo> columnInfoList, String filter, long limit) {
+    return getSampleSelectQuery(schema, tableName, columnInfoList, null, filter, limit);
+  }
+
+  /**
+   * Like {@link #getSelectQuery} over a sample of the table, or over the whole table when {@code
+   * sample} is {@code null}. Only pass a sample for a table type that {@link #supportsTableSample}.
+   */
   public String getSampleSelectQuery(
-      String schema, String tableName, List<ColumnInfo> columnInfoList, int records) {
-    if (Objects.requireNonNull(connectionType) == ConnectionType.POSTGRES) {
-      String columnList =
-          columnInfoList.stream()
-              .map(item -> "\"" + item.getColumn() + "\"")
-              .collect(Collectors.joining(", "));
-      return String.format("SELECT %s FROM \"%s\" LIMIT %d", columnList, tableName, records);
+      String schema,
+      String tableName,
+      List<ColumnInfo> columnInfoList,
+      TableSample sample,
+      String filter,
+      long limit) {
+    return dialect.selectQuery(
+        schema, tableName, sample, columnNames(columnInfoList), null, limit, filter);
+  }
+
+  /** Whether tables of {@code tableType} can be sampled, see {@link #getSampleSelectQuery}. */
+  public boolean supportsTableSample(String tableType) {
+    return dialect.supportsTableSample(tableType);
+  }
+
+  /**
+   * Select ordered by {@code keyColumn}. With {@code afterKey} the query has one parameter, bound
+   * with {@link #bindKey}, and only returns rows whose key is greater than it, which is how a
+   * checkpointed table is resumed.
+   */
+  public String getKeyedSelectQuery(
+      String schema,
+      String tableName,
+      List<ColumnInfo> columnInfoList,
+      String keyColumn,
+      boolean afterKey,
+      String filter,
+      long limit) {
+    return keyedSelectQuery(
+        schema, tableName, columnInfoList, keyColumn, afterKey ? "?" : null, filter, limit);
+  }
+
+  /**
+   * Like {@link #getKeyedSelectQuery} with the key inlined as a literal, for statements that cannot
+   * take parameters such as {@code COPY}. The literal is typed by the server from the key column.
+   */
+  public String getKeyedSelectQueryAfter(
+      String schema,
+      String tableName,
+      List<ColumnInfo> columnInfoList,
+      String keyColumn,
+      String lastKey,
+      String filter,
+      long limit) {
+    return keyedSelectQuery(
+        schema,
+        tableName,
+        columnInfoList,
+        keyColumn,
+        lastKey == null ? null : dialect.literal(lastKey),
+        filter,
+        limit);
+  }
+
+  private String keyedSelectQuery(
+      String schema,
+      String tableName,
+      List<ColumnInfo> columnInfoList,
+      String keyColumn,
+      String afterKey,
+      String filter,
+      long limit) {
+    String afterKeyCondition =
+        afterKey == null ? null : dialect.quoteIdentifier(keyColumn) + " > " + afterKey;
+    return dialect.selectQuery(
+        schema,
+        tableName,
+        null,
+        columnNames(columnInfoList),
+        keyColumn,
+        limit,
+        afterKeyCondition,
+        filter);
+  }
+
+  /** Binds the saved key of a resumed table to the parameter of {@link #getKeyedSelectQuery}. */
+  public void bindKey(PreparedStatement statement, int index, String key) throws SQLException {
+    dialect.bindKey(statement, index, key);
+  }
+
+  /** Whether table data is streamed with the dialect's {@code COPY}, see {@link #getCopyOut}. */
+  public boolean supportsCopyOut() {
+    return dialect.getReadPath() == BulkReadPath.COPY && dialect instanceof CopyOutDialect;
+  }
+
+  /** The dialect as a {@link CopyOutDialect}, only valid when {@link #supportsCopyOut()}. */
+  public CopyOutDialect getCopyOut() {
+    return (CopyOutDialect) dialect;
+  }
+
+  /** Whether plain selects are read through a cursor whose fetch size is tuned. */
+  public boolean usesCursor() {
+    return dialect.getReadPath() != BulkReadPath.FETCH;
+  }
+
+  /** Select of the rows in a range that match the table's filter, see {@link #planRanges}. */
+  public String getRangeSelectQuery(
+      String schema,
+      String tableName,
+      List<ColumnInfo> columnInfoList,
+      String predicate,
+      String filter,
+      long limit) {
+    return dialect.selectQuery(
+        schema, tableName, null, columnNames(columnInfoList), null, limit, predicate, filter);
+  }
+
+  /**
+   * Highest watermark currently in the table, see {@link SourceDialect#watermarkHighValueQuery}.
+   *
+   * @return the watermark as text, {@code null} when the table has no rows to read
+   */
+  public String getWatermarkHighValue(
+      Connection source, String schema, String tableName, String watermarkColumn)
+      throws SQLException {
+    String query = dialect.watermarkHighValueQuery(schema, tableName, watermarkColumn);
+    try (Statement statement = source.createStatement();
+        ResultSet resultSet = statement.executeQuery(query)) {
+      return resultSet.next() ? resultSet.getString(1) : null;
     }
-    return "";
+  }
+
+  /**
+   * Filter for the rows with a watermark above {@code after} and up to {@code upTo}; either bound
+   * may be {@code null}. Returns {@code null} when there is no bound at all.
+   */
+  public String getWatermarkFilter(String watermarkColumn, String after, String upTo) {
+    String expression = dialect.watermarkExpression(watermarkColumn);
+    return SourceDialect.and(
+        after == null ? null : expression + " > " + dialect.literal(after),
+        upTo == null ? null : expression + " <= " + dialect.literal(upTo));
+  }
+
+  /** See {@link SourceDialect#watermarkWrapped}. */
+  public boolean isWatermarkWrapped(String watermarkColumn, String after, String upTo) {
+    return dialect.watermarkWrapped(watermarkColumn, after, upTo);
+  }
+
+  private static List<String> columnNames(List<ColumnInfo> columnInfoList) {
+    return columnInfoList.stream().map(ColumnInfo::getColumn).toList();
+  }
+
+  /**
+   * Splits a table into {@code count} ranges, see {@link SourceDialect#planRanges}. Returns an
+   * empty list when the table cannot be split, e.g. it is empty or has no pages yet.
+   */
+  public List<TableRange> planRanges(
+      Connection source, String schema, String tableName, String integralKey, int count)
+      throws SQLException {
+    return dialect.planRanges(source, schema, tableName, integralKey, count);
   }
 }
@@ -0,0 +1,201 @@
+package com.p3.resource_monitor.poc.util;
+
+import com.p3.resource_monitor.poc.beans.ConnectionBean;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Connection pools to source databases shared by all jobs of the instance, one per database and
+ * user. Jobs against a database that was extracted recently take connections that are already
+ * open, instead of paying for the connect, TLS handshake and authentication again, and the pool
+ * bounds the connections all jobs together hold on the source.
+ *
+ * <p>Connections idle for longer than the idle timeout are closed by the pool, and pools no job
+ * has used for as long are closed by {@link #evictIdle()}. Connections that sat idle are validated
+ * with {@link Connection#isValid(int)} before they are handed out again, and the pool resets what
+ * a job changed on them, e.g. auto-commit, when they are returned.
+ *
+ * <p>A job reserves every connection it may hold at once when it takes its lease. Table workers
+ * keep their connection while their range tasks take more, so jobs that each got part of the pool
+ * could wait on each other until the connection wait ran out; with the whole budget reserved up
+ * front a job that does not fit waits for the lease instead, holding nothing.
+ */
+@Slf4j
+public class SourceConnectionRegistry implements AutoCloseable {
+  private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
+  private final int maxConnectionsPerSource;
+  private final Duration idleTimeout;
+  private final Duration connectionWait;
+  private final Map<SourceKey, Pool> pools = new HashMap<>();
+
+  /**
+   * @param maxConnectionsPerSource connections all jobs together may hold on one source
+   * @param idleTimeout how long unused connections, and pools, are kept open
+   * @param connectionWait how long a job waits for a connection while the source is at its maximum
+   */
+  public SourceConnectionRegistry(
+      int maxConnectionsPerSource, Duration idleTimeout, Duration connectionWait) {
+    this.maxConnectionsPerSource = maxConnectionsPerSource;
+    this.idleTimeout = idleTimeout;
+    this.connectionWait = connectionWait;
+  }
+
+  /** Registry that pools nothing, each job then opens and closes connections of its own. */
+  public static SourceConnectionRegistry disabled() {
+    return new SourceConnectionRegistry(0, Duration.ZERO, Duration.ZERO);
+  }
+
+  public boolean isEnabled() {
+    return maxConnectionsPerSource > 0;
+  }
+
+  /** Connections all jobs together may hold on one source, 0 when disabled. */
+  public int getMaxConnectionsPerSource() {
+    return maxConnectionsPerSource;
+  }
+
+  /**
+   * Use of the pool of the source at {@code url}, creating the pool on first use. The pool stays
+   * open at least until the lease is closed.
+   *
+   * @param connections connections the job may hold at the same time, reserved until the lease is
+   *     closed; capped at the maximum per source
+   * @throws SQLTransientConnectionException if other jobs hold the connections for longer than the
+   *     connection wait
+   */
+  public Lease lease(String url, ConnectionBean connectionBean, int connections)
+      throws SQLException {
+    SourceKey key = new SourceKey(url, connectionBean.getUsername(), connectionBean.getPassword());
+    Pool pool = acquire(key, connectionBean.getHost());
+    int reserved = Math.min(Math.max(1, connections), maxConnectionsPerSource);
+    boolean acquired = false;
+    try {
+      acquired =
+          pool.permits.tryAcquire(reserved, connectionWait.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (!acquired) {
+      release(pool);
+      throw new SQLTransientConnectionException(
+          "No "
+              + reserved
+              + " connections free on "
+              + pool.dataSource.getPoolName()
+              + " within "
+              + connectionWait);
+    }
+    return new Lease(pool, reserved);
+  }
+
+  private synchronized Pool acquire(SourceKey key, String host) {
+    Pool pool = pools.get(key);
+    if (pool == null) {
+      pool = new Pool(createDataSource(key, host), maxConnectionsPerSource);
+      pools.put(key, pool);
+      log.info("Opened connection pool {} for {}", pool.dataSource.getPoolName(), key);
+    }
+    pool.leases++;
+    return pool;
+  }
+
+  private HikariDataSource createDataSource(SourceKey key, String host) {
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(key.url());
+    config.setUsername(key.username());
+    config.setPassword(key.password());
+    config.setMaximumPoolSize(maxConnectionsPerSource);
+    config.setMinimumIdle(0);
+    config.setIdleTimeout(idleTimeout.toMillis());
+    config.setConnectionTimeout(connectionWait.toMillis());
+    config.setPoolName("source-" + host + "-" + POOL_SEQUENCE.incrementAndGet());
+    return new HikariDataSource(config);
+  }
+
+  private synchronized void release(Pool pool) {
+    pool.leases--;
+    pool.lastReleased = Instant.now();
+  }
+
+  /** Closes the pools no job has leased for longer than the idle timeout. */
+  public synchronized void evictIdle() {
+    Instant cutoff = Instant.now().minus(idleTimeout);
+    Iterator<Map.Entry<SourceKey, Pool>> entries = pools.entrySet().iterator();
+    while (entries.hasNext()) {
+      Map.Entry<SourceKey, Pool> entry = entries.next();
+      Pool pool = entry.getValue();
+      if (pool.leases == 0 && pool.lastReleased.isBefore(cutoff)) {
+        String poolName = pool.dataSource.getPoolName();
+        log.info("Closing idle connection pool {} for {}", poolName, entry.getKey());
+        pool.dataSource.close();
+        entries.remove();
+      }
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    pools.values().forEach(pool -> pool.dataSource.close());
+    pools.clear();
+  }
+
+  /** A job's use of a shared pool; closing it leaves the pool open for the next job. */
+  public final class Lease implements AutoCloseable {
+    private final Pool pool;
+    private final int reserved;
+    private boolean closed;
+
+    private Lease(Pool pool, int reserved) {
+      this.pool = pool;
+      this.reserved = reserved;
+    }
+
+    /** Connection of the pool; closing it returns it to the pool. */
+    public Connection getConnection() throws SQLException {
+      return pool.dataSource.getConnection();
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        pool.permits.release(reserved);
+        release(pool);
+      }
+    }
+  }
+
+  private static final class Pool {
+    private final HikariDataSource dataSource;
+    // Fair, so a job reserving many connections is not passed over by smaller ones forever.
+    private final Semaphore permits;
+    private int leases;
+    private Instant lastReleased = Instant.now();
+
+    private Pool(HikariDataSource dataSource, int connections) {
+      this.dataSource = dataSource;
+      this.permits = new Semaphore(connections, true);
+    }
+  }
+
+  /** Identity of a source connection; the password is part of it but never printed. */
+  private record SourceKey(String url, String username, String password) {
+    @Override
+    public String toString() {
+      return username + "@" + url;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.p3.export.specifics.ExportRow;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveFetchSizerTest {
+  @Test
+  void sizesValuesByTypeWithoutFormattingThem() {
+    assertEquals(0, AdaptiveFetchSizer.valueBytes(null));
+    assertEquals(6, AdaptiveFetchSizer.valueBytes("abc"));
+    assertEquals(10, AdaptiveFetchSizer.valueBytes(new byte[10]));
+    assertEquals(16, AdaptiveFetchSizer.valueBytes(Long.MAX_VALUE));
+    assertEquals(16, AdaptiveFetchSizer.valueBytes(Math.PI));
+    assertEquals(16, AdaptiveFetchSizer.valueBytes(new Timestamp(0)));
+  }
+
+  @Test
+  void shrinksTheFetchSizeOnceRowsTurnOutWider() {
+    AdaptiveFetchSizer sizer = new AdaptiveFetchSizer(1_000_000, 100);
+    assertEquals(AdaptiveFetchSizer.MAX_FETCH_SIZE, sizer.getFetchSize());
+    ExportRow row = new ExportRow(1);
+    char[] text = new char[10_000];
+    Arrays.fill(text, 'x');
+    row.set(0, new String(text));
+
+    for (int i = 1; i < AdaptiveFetchSizer.MAX_FETCH_SIZE; i++) {
+      assertFalse(sizer.observe(row));
+    }
+    assertTrue(sizer.observe(row));
+
+    // 48 bytes of overhead and 20,000 of characters per row.
+    assertEquals(1_000_000 / 20_048, sizer.getFetchSize());
+  }
+
+  @Test
+  void keepsTheFetchSizeForRowsOfTheEstimatedWidth() {
+    AdaptiveFetchSizer sizer = new AdaptiveFetchSizer(640_000, 64);
+    List<Object> row = List.of(42L);
+
+    for (int i = 0; i < 3 * sizer.getFetchSize(); i++) {
+      assertFalse(sizer.observe(row));
+    }
+    assertEquals(AdaptiveFetchSizer.MAX_FETCH_SIZE, sizer.getFetchSize());
+  }
+}
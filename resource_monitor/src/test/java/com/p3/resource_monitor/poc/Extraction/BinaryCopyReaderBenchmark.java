@@ -0,0 +1,183 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.p3.export.specifics.DataType;
+import com.p3.export.specifics.ExportRow;
+import com.p3.resource_monitor.poc.dialect.PostgresDialect;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.postgresql.core.BaseConnection;
+
+/**
+ * Compares the JDBC cursor path with the binary COPY path on a narrow and a wide table. Needs a
+ * PostgreSQL database and is skipped unless one is given, e.g.
+ *
+ * <pre>
+ * mvn test -Dtest=BinaryCopyReaderBenchmark -Dbenchmark.postgres.url=jdbc:postgresql://localhost/db
+ *     -Dbenchmark.postgres.user=postgres -Dbenchmark.postgres.password=secret
+ * </pre>
+ *
+ * {@code benchmark.rows} sets the table size, 500000 rows by default.
+ */
+@EnabledIfSystemProperty(named = "benchmark.postgres.url", matches = ".+")
+class BinaryCopyReaderBenchmark {
+  private static final int FETCH_SIZE = 10_000;
+  private static final int BATCH_ROWS = 1024;
+  private static final int ROUNDS = 3;
+  private static final int WIDE_COLUMN_GROUPS = 20;
+
+  private static Connection connection;
+  private static int rows;
+
+  @BeforeAll
+  static void createTables() throws SQLException {
+    connection =
+        DriverManager.getConnection(
+            System.getProperty("benchmark.postgres.url"),
+            System.getProperty("benchmark.postgres.user"),
+            System.getProperty("benchmark.postgres.password"));
+    rows = Integer.getInteger("benchmark.rows", 500_000);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(
+          "CREATE TEMP TABLE bench_narrow AS SELECT i::int8 AS id, 'name ' || i AS name,"
+              + " (i / 100.0)::numeric(12,2) AS amount FROM generate_series(1, "
+              + rows
+              + ") i");
+      // Five columns of each decoded storage kind per group: 100 columns in all.
+      StringBuilder wide = new StringBuilder("CREATE TEMP TABLE bench_wide AS SELECT ");
+      for (int group = 0; group < WIDE_COLUMN_GROUPS; group++) {
+        wide.append(group == 0 ? "" : ", ")
+            .append("i::int8 AS l")
+            .append(group)
+            .append(", i * 1.5::float8 AS d")
+            .append(group)
+            .append(", 'value ' || i AS t")
+            .append(group)
+            .append(", (i / 7.0)::numeric(14,4) AS n")
+            .append(group)
+            .append(", timestamptz '2020-01-01' + i * interval '1 second' AS ts")
+            .append(group);
+      }
+      wide.append(" FROM generate_series(1, ").append(rows).append(") i");
+      statement.execute(wide.toString());
+    }
+    connection.setAutoCommit(false);
+  }
+
+  @AfterAll
+  static void close() throws SQLException {
+    if (connection != null) {
+      connection.close();
+    }
+  }
+
+  @Test
+  void narrowTable() throws Exception {
+    compare("bench_narrow");
+  }
+
+  @Test
+  void wideTable() throws Exception {
+    compare("bench_wide");
+  }
+
+  private void compare(String table) throws Exception {
+    String query = "SELECT * FROM " + table;
+    for (int round = 1; round <= ROUNDS; round++) {
+      long start = System.nanoTime();
+      assertEquals(rows, readWithJdbc(query));
+      long jdbcNanos = System.nanoTime() - start;
+      start = System.nanoTime();
+      assertEquals(rows, readWithBinaryCopy(query));
+      long copyNanos = System.nanoTime() - start;
+      System.out.printf(
+          "%s round %d: jdbc %,d rows/s, binary copy %,d rows/s%n",
+          table, round, rowsPerSecond(jdbcNanos), rowsPerSecond(copyNanos));
+    }
+  }
+
+  /** The JDBC path of {@link ProcessExtraction}: a cursor read through {@link ColumnTypeMapper}. */
+  private long readWithJdbc(String query) throws SQLException {
+    long count = 0;
+    try (Statement statement = connection.createStatement()) {
+      statement.setFetchSize(FETCH_SIZE);
+      try (ResultSet resultSet = statement.executeQuery(query)) {
+        List<DataType> dataTypes = dataTypes(resultSet.getMetaData());
+        ExportRow row = new ExportRow(dataTypes.size());
+        while (resultSet.next()) {
+          for (int index = 0; index < dataTypes.size(); index++) {
+            row.set(index, ColumnTypeMapper.read(resultSet, index + 1, dataTypes.get(index)));
+          }
+          count++;
+        }
+      }
+    }
+    connection.commit();
+    return count;
+  }
+
+  private long readWithBinaryCopy(String query) throws Exception {
+    ColumnBatch batch = columnBatch(query);
+    ExportRow row = new ExportRow(batch.getColumnCount());
+    PostgresDialect dialect = new PostgresDialect();
+    long count = 0;
+    try (BinaryCopyReader reader =
+        new BinaryCopyReader(dialect.copyOut(connection, dialect.binaryCopyOutQuery(query)))) {
+      while (reader.read(batch) > 0) {
+        for (int index = 0; index < batch.getSize(); index++) {
+          batch.row(index, row);
+        }
+        count += batch.getSize();
+      }
+    }
+    connection.commit();
+    return count;
+  }
+
+  private ColumnBatch columnBatch(String query) throws SQLException {
+    List<BinaryColumnType> types = new ArrayList<>();
+    List<DataType> targets;
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(query + " LIMIT 0")) {
+      ResultSetMetaData metaData = resultSet.getMetaData();
+      for (int index = 1; index <= metaData.getColumnCount(); index++) {
+        int oid =
+            connection
+                .unwrap(BaseConnection.class)
+                .getTypeInfo()
+                .getPGType(metaData.getColumnTypeName(index));
+        types.add(BinaryColumnType.forOid(oid));
+      }
+      targets = dataTypes(metaData);
+    }
+    return new ColumnBatch(types, targets, BATCH_ROWS);
+  }
+
+  private static List<DataType> dataTypes(ResultSetMetaData metaData) throws SQLException {
+    List<DataType> dataTypes = new ArrayList<>();
+    for (int index = 1; index <= metaData.getColumnCount(); index++) {
+      dataTypes.add(
+          ColumnTypeMapper.dataType(
+              metaData.getColumnType(index),
+              metaData.getColumnTypeName(index),
+              metaData.getPrecision(index),
+              metaData.getScale(index)));
+    }
+    return dataTypes;
+  }
+
+  private static long rowsPerSecond(long nanos) {
+    return rows * 1_000_000_000L / Math.max(nanos, 1);
+  }
+}
@@ -0,0 +1,365 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.p3.export.specifics.DataType;
+import com.p3.export.specifics.ExportRow;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGStatement;
+
+class BinaryCopyReaderTest {
+  private static final byte[] SIGNATURE = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0
+  };
+  private static final byte[] NULL = null;
+
+  @Test
+  void decodesNumericWeightScaleAndSign() throws IOException {
+    List<Object> values =
+        column(
+            BinaryColumnType.NUMERIC,
+            DataType.STRING,
+            numeric(1, 0, 3, 1, 2345, 6780),
+            numeric(-1, 0, 4, 1),
+            numeric(0, 0x4000, 1, 1, 5000),
+            numeric(0, 0, 2),
+            numeric(1, 0, 0, 100),
+            numeric(2, 0, 0, 1234, 5678, 9012),
+            numeric(0, 0, 2, 3, 1400));
+
+    assertEquals(
+        List.of("12345.678", "0.0001", "-1.5", "0.00", "1000000", "123456789012", "3.14"), values);
+  }
+
+  @Test
+  void decodesNumericSpecialValuesAsText() throws IOException {
+    List<Object> values =
+        column(
+            BinaryColumnType.NUMERIC,
+            DataType.DECIMAL,
+            numeric(0, 0xC000, 0),
+            numeric(0, 0xD000, 0),
+            numeric(0, 0xF000, 0),
+            numeric(0, 0x4000, 2, 2, 5000));
+
+    assertEquals(List.of("NaN", "Infinity", "-Infinity", -2.5), values);
+  }
+
+  @Test
+  void decodesDatesFromThePostgresEpoch() throws IOException {
+    List<Object> values =
+        column(
+            BinaryColumnType.DATE,
+            DataType.DATE,
+            int4(0),
+            int4(-1),
+            int4(366),
+            int4(Integer.MAX_VALUE),
+            int4(Integer.MIN_VALUE));
+
+    assertEquals(Date.valueOf(LocalDate.of(2000, 1, 1)), values.get(0));
+    assertEquals(Date.valueOf(LocalDate.of(1999, 12, 31)), values.get(1));
+    assertEquals(Date.valueOf(LocalDate.of(2001, 1, 1)), values.get(2));
+    assertEquals(PGStatement.DATE_POSITIVE_INFINITY, ((Date) values.get(3)).getTime());
+    assertEquals(PGStatement.DATE_NEGATIVE_INFINITY, ((Date) values.get(4)).getTime());
+  }
+
+  @Test
+  void decodesTimestampsWithTimeZoneAsInstants() throws IOException {
+    List<Object> values =
+        column(
+            BinaryColumnType.TIMESTAMPTZ,
+            DataType.DATETIME,
+            int8(0),
+            int8(1_500_000),
+            int8(-1),
+            int8(Long.MAX_VALUE),
+            int8(Long.MIN_VALUE));
+
+    assertEquals(instant("2000-01-01T00:00:00Z"), values.get(0));
+    assertEquals(instant("2000-01-01T00:00:01.5Z"), values.get(1));
+    assertEquals(instant("1999-12-31T23:59:59.999999Z"), values.get(2));
+    assertEquals(PGStatement.DATE_POSITIVE_INFINITY, ((Timestamp) values.get(3)).getTime());
+    assertEquals(PGStatement.DATE_NEGATIVE_INFINITY, ((Timestamp) values.get(4)).getTime());
+  }
+
+  @Test
+  void decodesTimestampsWithoutTimeZoneAsWallClockTime() throws IOException {
+    long dayAndAHalf = 36L * 3600 * 1_000_000;
+
+    List<Object> values = column(BinaryColumnType.TIMESTAMP, DataType.DATETIME, int8(dayAndAHalf));
+
+    assertEquals(
+        LocalDateTime.of(2000, 1, 2, 12, 0), ((Timestamp) values.get(0)).toLocalDateTime());
+  }
+
+  @Test
+  void printsKeysInTheServersTextFormWhateverTheExportValue() throws IOException {
+    long micros = 36L * 3600 * 1_000_000 + 8;
+    byte[] data =
+        stream(
+            tuple(
+                numeric(4, 0, 1, 12, 3456, 7890, 1234, 5678, 5000),
+                int8(micros),
+                int8(micros),
+                int4(-1),
+                int8(Long.MAX_VALUE)),
+            tuple(NULL, NULL, NULL, NULL, NULL));
+    ColumnBatch batch =
+        batch(
+            List.of(
+                BinaryColumnType.NUMERIC,
+                BinaryColumnType.TIMESTAMP,
+                BinaryColumnType.TIMESTAMPTZ,
+                BinaryColumnType.DATE,
+                BinaryColumnType.TIMESTAMPTZ),
+            Collections.nCopies(5, DataType.DECIMAL),
+            2);
+
+    try (BinaryCopyReader reader = reader(data)) {
+      assertEquals(2, reader.read(batch));
+    }
+
+    ExportRow values = new ExportRow(batch.getColumnCount());
+    batch.row(0, values);
+    assertEquals(1.2345678901234568E17, values.get(0));
+    assertEquals("123456789012345678.5", batch.text(0, 0));
+    assertEquals("2000-01-02T12:00:00.000008", batch.text(1, 0));
+    assertEquals("2000-01-02T12:00:00.000008Z", batch.text(2, 0));
+    assertEquals("1999-12-31", batch.text(3, 0));
+    assertEquals("infinity", batch.text(4, 0));
+    for (int column = 0; column < batch.getColumnCount(); column++) {
+      assertNull(batch.text(column, 1));
+    }
+  }
+
+  @Test
+  void convertsToTheExportDataType() throws IOException {
+    byte[] data =
+        stream(
+            tuple(
+                int4(42),
+                int8(7),
+                float8(2.5),
+                bool(true),
+                bool(false),
+                text("héllo"),
+                bytes(new byte[] {0, (byte) 0xFF, 0x10})));
+    ColumnBatch batch =
+        batch(
+            List.of(
+                BinaryColumnType.INT4,
+                BinaryColumnType.INT8,
+                BinaryColumnType.FLOAT8,
+                BinaryColumnType.BOOL,
+                BinaryColumnType.BOOL,
+                BinaryColumnType.TEXT,
+                BinaryColumnType.BYTEA),
+            List.of(
+                DataType.NUMBER,
+                DataType.STRING,
+                DataType.DECIMAL,
+                DataType.BOOLEAN,
+                DataType.STRING,
+                DataType.STRING,
+                DataType.STRING),
+            4);
+
+    List<List<Object>> rows = readAll(data, batch);
+
+    assertEquals(List.of(List.of(42L, "7", 2.5, true, "f", "héllo", "\\x00ff10")), rows);
+  }
+
+  @Test
+  void decodesNullsAndClearsThemWhenTheBufferIsReused() throws IOException {
+    byte[] data =
+        stream(
+            tuple(NULL, text("a")),
+            tuple(int4(1), NULL),
+            tuple(NULL, NULL),
+            tuple(int4(2), text("b")));
+    ColumnBatch batch =
+        batch(
+            List.of(BinaryColumnType.INT4, BinaryColumnType.VARCHAR),
+            List.of(DataType.NUMBER, DataType.STRING),
+            2);
+
+    List<List<Object>> rows = readAll(data, batch);
+
+    assertEquals(4, rows.size());
+    assertNull(rows.get(0).get(0));
+    assertEquals("a", rows.get(0).get(1));
+    assertEquals(1L, rows.get(1).get(0));
+    assertNull(rows.get(1).get(1));
+    assertEquals(Collections.nCopies(2, null), rows.get(2));
+    assertEquals(List.of(2L, "b"), rows.get(3));
+  }
+
+  @Test
+  void returnsZeroOnceTheTrailerIsRead() throws IOException {
+    ColumnBatch batch = batch(List.of(BinaryColumnType.INT4), List.of(DataType.NUMBER), 8);
+    BinaryCopyReader reader = reader(stream(tuple(int4(1)), tuple(int4(2))));
+
+    assertEquals(2, reader.read(batch));
+    assertEquals(0, reader.read(batch));
+  }
+
+  @Test
+  void rejectsStreamsItCannotDecode() {
+    ColumnBatch batch = batch(List.of(BinaryColumnType.INT4), List.of(DataType.NUMBER), 8);
+    byte[] wrongFieldCount = stream(tuple(int4(1), int4(2)));
+    byte[] notCopy = "id\n1\n".getBytes(StandardCharsets.US_ASCII);
+    byte[] dataAfterTrailer = concat(stream(tuple(int4(1))), new byte[] {0});
+
+    assertThrows(IOException.class, () -> reader(wrongFieldCount).read(batch));
+    assertThrows(IOException.class, () -> reader(notCopy).read(batch));
+    assertThrows(IOException.class, () -> reader(dataAfterTrailer).read(batch));
+  }
+
+  private static List<Object> column(BinaryColumnType type, DataType target, byte[]... values)
+      throws IOException {
+    byte[][][] tuples = new byte[values.length][][];
+    for (int i = 0; i < values.length; i++) {
+      tuples[i] = tuple(values[i]);
+    }
+    List<Object> column = new ArrayList<>();
+    for (List<Object> row : readAll(stream(tuples), batch(List.of(type), List.of(target), 3))) {
+      column.add(row.get(0));
+    }
+    return column;
+  }
+
+  private static List<List<Object>> readAll(byte[] data, ColumnBatch batch) throws IOException {
+    List<List<Object>> rows = new ArrayList<>();
+    try (BinaryCopyReader reader = reader(data)) {
+      while (reader.read(batch) > 0) {
+        for (int row = 0; row < batch.getSize(); row++) {
+          ExportRow values = new ExportRow(batch.getColumnCount());
+          batch.row(row, values);
+          List<Object> decoded = new ArrayList<>();
+          for (int column = 0; column < batch.getColumnCount(); column++) {
+            decoded.add(values.get(column));
+          }
+          rows.add(decoded);
+        }
+      }
+    }
+    return rows;
+  }
+
+  private static ColumnBatch batch(
+      List<BinaryColumnType> types, List<DataType> targets, int capacity) {
+    return new ColumnBatch(types, targets, capacity);
+  }
+
+  private static BinaryCopyReader reader(byte[] data) {
+    return new BinaryCopyReader(new ByteArrayInputStream(data));
+  }
+
+  private static Timestamp instant(String text) {
+    return Timestamp.from(Instant.parse(text));
+  }
+
+  private static byte[][] tuple(byte[]... fields) {
+    return fields;
+  }
+
+  /** Header, tuples and trailer of a binary COPY; a {@code null} field is written as SQL null. */
+  static byte[] stream(byte[][]... tuples) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.write(SIGNATURE);
+      out.writeInt(0);
+      out.writeInt(0);
+      for (byte[][] tuple : tuples) {
+        out.writeShort(tuple.length);
+        for (byte[] field : tuple) {
+          if (field == null) {
+            out.writeInt(-1);
+          } else {
+            out.writeInt(field.length);
+            out.write(field);
+          }
+        }
+      }
+      out.writeShort(-1);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  static byte[] int4(int value) {
+    return write(out -> out.writeInt(value));
+  }
+
+  static byte[] int8(long value) {
+    return write(out -> out.writeLong(value));
+  }
+
+  static byte[] float8(double value) {
+    return write(out -> out.writeDouble(value));
+  }
+
+  static byte[] bool(boolean value) {
+    return new byte[] {(byte) (value ? 1 : 0)};
+  }
+
+  static byte[] text(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  static byte[] bytes(byte[] value) {
+    return value.clone();
+  }
+
+  /** Numeric in PostgreSQL's base-10000 form, the first digit at power {@code weight}. */
+  static byte[] numeric(int weight, int sign, int displayScale, int... digits) {
+    return write(
+        out -> {
+          out.writeShort(digits.length);
+          out.writeShort(weight);
+          out.writeShort(sign);
+          out.writeShort(displayScale);
+          for (int digit : digits) {
+            out.writeShort(digit);
+          }
+        });
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    byte[] joined = new byte[first.length + second.length];
+    System.arraycopy(first, 0, joined, 0, first.length);
+    System.arraycopy(second, 0, joined, first.length, second.length);
+    return joined;
+  }
+
+  private interface Field {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  private static byte[] write(Field field) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      field.write(out);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+}
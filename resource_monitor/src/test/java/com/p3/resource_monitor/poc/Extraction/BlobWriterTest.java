@@ -0,0 +1,87 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.p3.export.specifics.BlobKeySplitBean;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BlobWriterTest {
+  private static final byte[] VALUE = {1, 2, 3, 4, 5};
+
+  @TempDir Path outputDir;
+
+  @Test
+  void streamsTheValueIntoAFileOfItsOwn() throws Exception {
+    BlobWriter writer = writer(outputDir);
+
+    BlobKeySplitBean blob = writer.write(resultSet(new ByteArrayInputStream(VALUE)), 1, "photo");
+
+    assertNull(blob.getError());
+    assertEquals(VALUE.length, writer.rowDone());
+    List<Path> files = blobFiles();
+    assertEquals(1, files.size());
+    assertEquals(blob.getOutputFileName(), files.get(0).getFileName().toString());
+    assertArrayEquals(VALUE, Files.readAllBytes(files.get(0)));
+  }
+
+  @Test
+  void writesNothingForNull() throws Exception {
+    assertNull(writer(outputDir).write(resultSet(null), 1, "photo"));
+  }
+
+  @Test
+  void reportsAValueThatCannotBeReadInItsReference() throws Exception {
+    InputStream broken =
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            throw new IOException("stream closed by the server");
+          }
+        };
+
+    BlobKeySplitBean blob = writer(outputDir).write(resultSet(broken), 1, "photo");
+
+    assertEquals("stream closed by the server", blob.getError());
+  }
+
+  @Test
+  void failsTheTableWhenTheFileCannotBeWritten() throws Exception {
+    // A file where the output directory should be, so no folder can be created below it.
+    Path notADirectory = Files.writeString(outputDir.resolve("output"), "");
+    BlobWriter writer = writer(notADirectory);
+    ResultSet resultSet = resultSet(new ByteArrayInputStream(VALUE));
+
+    assertThrows(IOException.class, () -> writer.write(resultSet, 1, "photo"));
+  }
+
+  private static BlobWriter writer(Path output) {
+    return new BlobWriter(output.toString(), "sales", "orders", "", 0, null);
+  }
+
+  private static ResultSet resultSet(InputStream value) throws SQLException {
+    ResultSet resultSet = mock(ResultSet.class);
+    when(resultSet.getBinaryStream(1)).thenReturn(value);
+    return resultSet;
+  }
+
+  private List<Path> blobFiles() throws IOException {
+    try (Stream<Path> files = Files.walk(outputDir)) {
+      return files.filter(Files::isRegularFile).toList();
+    }
+  }
+}
@@ -0,0 +1,247 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.p3.export.formatter.ExportFormat;
+import com.p3.resource_monitor.poc.beans.ConnectionBean;
+import com.p3.resource_monitor.poc.beans.ConnectionType;
+import com.p3.resource_monitor.poc.beans.ExtractionMode;
+import com.p3.resource_monitor.poc.beans.JobInputBean;
+import com.p3.resource_monitor.poc.beans.TableSelection;
+import com.p3.resource_monitor.poc.persistance.models.ExtractionCheckpoint;
+import com.p3.resource_monitor.poc.persistance.models.TableWatermark;
+import com.p3.resource_monitor.poc.persistance.repos.ExtractionCheckpointRepository;
+import com.p3.resource_monitor.poc.persistance.repos.TableWatermarkRepository;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Runs whole extractions against an in-memory H2 database through {@code H2Dialect}. */
+class ProcessExtractionH2Test {
+  private static final int ORDERS = 20;
+
+  @TempDir Path outputDir;
+
+  private String database;
+  private Connection keepAlive;
+  private ExtractionContext context;
+
+  @BeforeEach
+  void createDatabase() throws SQLException {
+    database = "mem:extraction-" + UUID.randomUUID();
+    // The in-memory database lives as long as a connection to it is open.
+    keepAlive = DriverManager.getConnection("jdbc:h2:" + database, "sa", "");
+    try (Statement statement = keepAlive.createStatement()) {
+      statement.execute("CREATE SCHEMA SALES");
+      statement.execute(
+          "CREATE TABLE SALES.ORDERS"
+              + " (ID BIGINT PRIMARY KEY, REGION VARCHAR(8), UPDATED_SEQ BIGINT)");
+      statement.execute(
+          "INSERT INTO SALES.ORDERS SELECT X, CASE WHEN MOD(X, 2) = 1 THEN 'EU' ELSE 'US' END, X"
+              + " FROM SYSTEM_RANGE(1, "
+              + ORDERS
+              + ")");
+      statement.execute("CREATE TABLE SALES.AUDIT (ID BIGINT PRIMARY KEY, ACTION VARCHAR(16))");
+      statement.execute("INSERT INTO SALES.AUDIT VALUES (1, 'login')");
+    }
+    context = new ExtractionContext("h2-job");
+    context.setOutputPath(outputDir.resolve("run").toString());
+  }
+
+  @AfterEach
+  void dropDatabase() throws SQLException {
+    keepAlive.close();
+  }
+
+  @Test
+  void exportsTheSelectedTablesColumnsAndRows() throws Exception {
+    JobInputBean input = input();
+    input.setSelection(
+        TableSelection.builder()
+            .includeSchemas(List.of("SALES"))
+            .excludeTables(List.of("SALES.AUDIT"))
+            .tableFilters(Map.of("SALES.ORDERS", "REGION = 'EU'"))
+            .tableColumns(Map.of("SALES.ORDERS", List.of("ID", "REGION")))
+            .build());
+
+    new ProcessExtraction().extraction(input, context);
+
+    assertEquals(ids(LongStream.rangeClosed(1, ORDERS).filter(id -> id % 2 == 1)), orderIds());
+    assertTrue(orderLines().stream().allMatch(line -> line.split(",").length == 2));
+    String tables = String.join("\n", lines(run(), "TABLE-"));
+    assertTrue(tables.contains("SALES,ORDERS"));
+    assertFalse(tables.contains("AUDIT"));
+    assertFalse(tables.contains("INFORMATION_SCHEMA"));
+    assertFalse(Files.exists(Path.of(ProcessExtraction.tableDataDir(run(), "SALES", "AUDIT"))));
+  }
+
+  @Test
+  void capsTheRowsReadPerTable() throws Exception {
+    JobInputBean input = input();
+    input.setMaxRowsPerTable(4L);
+
+    new ProcessExtraction().extraction(input, context);
+
+    assertEquals(4, orderIds().size());
+  }
+
+  @Test
+  void splitsTablesWithAnIntegralKeyIntoRanges() throws Exception {
+    context.setRangeSplitMinRows(0);
+    context.setRangesPerTable(3);
+
+    new ProcessExtraction().extraction(input(), context);
+
+    assertEquals(ids(LongStream.rangeClosed(1, ORDERS)), orderIds());
+    List<String> rangeFiles;
+    try (Stream<Path> files = Files.list(Path.of(orderDir()))) {
+      rangeFiles =
+          files
+              .map(file -> file.getFileName().toString())
+              .filter(name -> name.contains("-r0") && name.endsWith(".csv"))
+              .toList();
+    }
+    assertTrue(rangeFiles.size() > 1, "range files: " + rangeFiles);
+  }
+
+  @Test
+  void readsOnlyRowsAboveTheStoredWatermark() throws Exception {
+    TableWatermarkRepository repository = mock(TableWatermarkRepository.class);
+    when(repository.findByScope("h2"))
+        .thenReturn(
+            List.of(
+                TableWatermark.builder()
+                    .scope("h2")
+                    .schemaName("SALES")
+                    .tableName("ORDERS")
+                    .watermarkColumn("UPDATED_SEQ")
+                    .lastValue("15")
+                    .build()));
+    context.setWatermarks(new WatermarkStore(repository, "h2"));
+    JobInputBean input = input();
+    input.setExtractionMode(ExtractionMode.INCREMENTAL);
+    input.setWatermarkColumns(Map.of("SALES.ORDERS", "UPDATED_SEQ"));
+
+    new ProcessExtraction().extraction(input, context);
+
+    assertEquals(ids(LongStream.rangeClosed(16, ORDERS)), orderIds());
+    String manifest = Files.readString(Path.of(orderDir(), DeltaManifest.FILE_NAME));
+    assertTrue(manifest.contains("\"after\": \"15\""), manifest);
+    assertTrue(manifest.contains("\"upTo\": \"" + ORDERS + "\""), manifest);
+  }
+
+  @Test
+  void resumesAKeyedTableAfterAnExactNumericKey() throws Exception {
+    try (Statement statement = keepAlive.createStatement()) {
+      statement.execute("CREATE TABLE SALES.LEDGER (ID DECIMAL(20, 1) PRIMARY KEY)");
+      statement.execute(
+          "INSERT INTO SALES.LEDGER VALUES (123456789012345678.4), (123456789012345678.5),"
+              + " (123456789012345678.6), (123456789012345679.0)");
+    }
+    ExtractionCheckpointRepository repository = mock(ExtractionCheckpointRepository.class);
+    when(repository.findByJobId("h2-job"))
+        .thenReturn(
+            List.of(
+                ExtractionCheckpoint.builder()
+                    .jobId("h2-job")
+                    .schemaName("SALES")
+                    .tableName("LEDGER")
+                    .status(ExtractionCheckpoint.IN_PROGRESS)
+                    .keyColumn("ID")
+                    .lastKey("123456789012345678.5")
+                    .filesCompleted(0L)
+                    .rowsExported(2L)
+                    .build()));
+    when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    context.setCheckpoints(new CheckpointTracker(repository, "h2-job", 0));
+    // A job resumes only into the output directory of the run it continues.
+    Files.createDirectories(Path.of(run()));
+    JobInputBean input = input();
+    input.setSelection(TableSelection.builder().includeTables(List.of("SALES.LEDGER")).build());
+
+    new ProcessExtraction().extraction(input, context);
+
+    List<BigDecimal> ids =
+        lines(ProcessExtraction.tableDataDir(run(), "SALES", "LEDGER"), "").stream()
+            .filter(line -> !line.isBlank() && Character.isDigit(line.charAt(0)))
+            .map(BigDecimal::new)
+            .toList();
+    assertEquals(
+        List.of(new BigDecimal("123456789012345678.6"), new BigDecimal("123456789012345679.0")),
+        ids);
+  }
+
+  private JobInputBean input() {
+    return JobInputBean.builder()
+        .connectionType(ConnectionType.H2)
+        .connection(ConnectionBean.builder().username("sa").password("").database(database).build())
+        .exportFormat(ExportFormat.csv)
+        .selection(TableSelection.builder().includeSchemas(List.of("SALES")).build())
+        .build();
+  }
+
+  private String run() {
+    return context.getOutputPath();
+  }
+
+  private String orderDir() {
+    return ProcessExtraction.tableDataDir(run(), "SALES", "ORDERS");
+  }
+
+  /** Data lines of every file of SALES.ORDERS, without headers. */
+  private List<String> orderLines() throws IOException {
+    return lines(orderDir(), "").stream()
+        .filter(line -> !line.isBlank() && Character.isDigit(line.charAt(0)))
+        .toList();
+  }
+
+  private Set<Long> orderIds() throws IOException {
+    return orderLines().stream()
+        .map(line -> Long.parseLong(line.split(",")[0]))
+        .collect(Collectors.toCollection(TreeSet::new));
+  }
+
+  /** Lines of the csv files in {@code dir} whose names start with {@code prefix}. */
+  private static List<String> lines(String dir, String prefix) throws IOException {
+    List<Path> csvFiles;
+    try (Stream<Path> files = Files.list(Path.of(dir))) {
+      csvFiles =
+          files
+              .filter(file -> file.getFileName().toString().startsWith(prefix))
+              .filter(file -> file.getFileName().toString().endsWith(".csv"))
+              .toList();
+    }
+    List<String> lines = new ArrayList<>();
+    for (Path file : csvFiles) {
+      lines.addAll(Files.readAllLines(file));
+    }
+    return lines;
+  }
+
+  private static Set<Long> ids(LongStream ids) {
+    return ids.boxed().collect(Collectors.toCollection(TreeSet::new));
+  }
+}
@@ -0,0 +1,163 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RowPipelineTest {
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void shutDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void deliversEveryRowInOrder() throws Exception {
+    List<Object> written = new ArrayList<>();
+
+    assertTimeoutPreemptively(
+        TIMEOUT,
+        () -> {
+          try (RowPipeline pipeline = new RowPipeline(executor, 3, 7, 1, counting(1000))) {
+            written.addAll(drain(pipeline));
+          }
+        });
+
+    assertEquals(1000, written.size());
+    for (int i = 0; i < written.size(); i++) {
+      assertEquals((long) i, written.get(i));
+    }
+  }
+
+  @Test
+  void holdsTheReaderBackWhileTheWriterFallsBehind() throws Exception {
+    AtomicInteger batchesRead = new AtomicInteger();
+    RowPipeline.RowReader endless =
+        batch -> {
+          batch.addRow().set(0, batchesRead.incrementAndGet());
+          return true;
+        };
+
+    try (RowPipeline pipeline = new RowPipeline(executor, 2, 1, 1, endless)) {
+      awaitValue(batchesRead, 2);
+      Thread.sleep(100);
+      assertEquals(2, batchesRead.get());
+
+      assertEquals(1, pipeline.next().getRow(0).get(0));
+      assertEquals(2, pipeline.next().getRow(0).get(0));
+      awaitValue(batchesRead, 3);
+    }
+  }
+
+  @Test
+  void passesTheReaderFailureOnAfterTheRowsReadBeforeIt() throws Exception {
+    SQLException failure = new SQLException("connection reset");
+    AtomicInteger next = new AtomicInteger();
+    RowPipeline.RowReader failing =
+        batch -> {
+          if (next.get() == 10) {
+            throw failure;
+          }
+          while (!batch.isFull() && next.get() < 10) {
+            batch.addRow().set(0, (long) next.getAndIncrement());
+          }
+          return true;
+        };
+    List<Object> written = new ArrayList<>();
+
+    try (RowPipeline pipeline = new RowPipeline(executor, 2, 4, 1, failing)) {
+      SQLException thrown =
+          assertThrows(
+              SQLException.class,
+              () -> {
+                RowBatch batch;
+                while ((batch = pipeline.next()) != null) {
+                  for (int i = 0; i < batch.getSize(); i++) {
+                    written.add(batch.getRow(i).get(0));
+                  }
+                }
+              });
+      assertSame(failure, thrown);
+    }
+
+    assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), written);
+  }
+
+  @Test
+  void closeStopsAReaderThatIsAheadOfTheWriter() throws InterruptedException {
+    AtomicInteger batchesRead = new AtomicInteger();
+    RowPipeline.RowReader endless =
+        batch -> {
+          while (!batch.isFull()) {
+            batch.addRow().set(0, batchesRead.get());
+          }
+          batchesRead.incrementAndGet();
+          return true;
+        };
+
+    assertTimeoutPreemptively(
+        TIMEOUT,
+        () -> {
+          RowPipeline pipeline = new RowPipeline(executor, 2, 16, 1, endless);
+          assertNotNull(pipeline.next());
+          pipeline.close();
+        });
+    int read = batchesRead.get();
+    Thread.sleep(50);
+
+    assertEquals(read, batchesRead.get());
+  }
+
+  @Test
+  void endsWithoutRowsForAnEmptyTable() throws Exception {
+    try (RowPipeline pipeline = new RowPipeline(executor, 2, 4, 1, batch -> false)) {
+      assertNull(pipeline.next());
+    }
+  }
+
+  /** Reader of the longs {@code 0} to {@code rows - 1}. */
+  private static RowPipeline.RowReader counting(long rows) {
+    AtomicInteger next = new AtomicInteger();
+    return batch -> {
+      while (!batch.isFull() && next.get() < rows) {
+        batch.addRow().set(0, (long) next.getAndIncrement());
+      }
+      return next.get() < rows;
+    };
+  }
+
+  private static List<Object> drain(RowPipeline pipeline) throws Exception {
+    List<Object> values = new ArrayList<>();
+    RowBatch batch;
+    while ((batch = pipeline.next()) != null) {
+      for (int i = 0; i < batch.getSize(); i++) {
+        values.add(batch.getRow(i).get(0));
+      }
+    }
+    return values;
+  }
+
+  private static void awaitValue(AtomicInteger counter, int value) throws InterruptedException {
+    long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (counter.get() < value && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(value, counter.get());
+  }
+}
@@ -0,0 +1,153 @@
+package com.p3.resource_monitor.poc.Extraction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RowRingBufferTest {
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void shutDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void roundsCapacityUpToAPowerOfTwo() {
+    RowRingBuffer<long[]> ring = new RowRingBuffer<>(3, () -> new long[1]);
+
+    assertTimeoutPreemptively(
+        TIMEOUT,
+        () -> {
+          for (int i = 0; i < 4; i++) {
+            ring.claim();
+            ring.publish();
+          }
+        });
+  }
+
+  @Test
+  void holdsTheProducerBackWhileEverySlotIsQueued() throws Exception {
+    RowRingBuffer<long[]> ring = new RowRingBuffer<>(2, () -> new long[1]);
+    AtomicInteger published = new AtomicInteger();
+    Future<?> producer =
+        executor.submit(
+            () -> {
+              for (int i = 0; i < 3; i++) {
+                ring.claim()[0] = i;
+                ring.publish();
+                published.incrementAndGet();
+              }
+              return null;
+            });
+
+    awaitValue(published, 2);
+    Thread.sleep(100);
+    assertEquals(2, published.get());
+
+    assertEquals(0, ring.take()[0]);
+    ring.release();
+    producer.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+    assertEquals(3, published.get());
+  }
+
+  @Test
+  void drainsEverySlotPublishedBeforeClose() throws Exception {
+    int values = 10_000;
+    RowRingBuffer<long[]> ring = new RowRingBuffer<>(4, () -> new long[1]);
+    executor.submit(
+        () -> {
+          for (int i = 0; i < values; i++) {
+            ring.claim()[0] = i;
+            ring.publish();
+          }
+          ring.close();
+          return null;
+        });
+
+    List<Long> taken = new ArrayList<>();
+    assertTimeoutPreemptively(
+        TIMEOUT,
+        () -> {
+          long[] slot;
+          while ((slot = ring.take()) != null) {
+            taken.add(slot[0]);
+            ring.release();
+          }
+        });
+
+    assertEquals(values, taken.size());
+    for (int i = 0; i < values; i++) {
+      assertEquals(i, taken.get(i));
+    }
+  }
+
+  @Test
+  void takeReturnsNullOnceClosedAndDrained() throws Exception {
+    RowRingBuffer<long[]> ring = new RowRingBuffer<>(2, () -> new long[1]);
+    long[] first = ring.claim();
+    ring.publish();
+    ring.close();
+
+    assertSame(first, ring.take());
+    ring.release();
+    assertNull(ring.take());
+  }
+
+  @Test
+  void abortReleasesABlockedClaim() throws Exception {
+    RowRingBuffer<long[]> ring = new RowRingBuffer<>(2, () -> new long[1]);
+    AtomicInteger published = new AtomicInteger();
+    Future<long[]> producer =
+        executor.submit(
+            () -> {
+              while (true) {
+                long[] slot = ring.claim();
+                if (slot == null) {
+                  return null;
+                }
+                ring.publish();
+                published.incrementAndGet();
+              }
+            });
+    awaitValue(published, 2);
+
+    ring.abort();
+
+    assertNull(producer.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+    assertEquals(2, published.get());
+  }
+
+  @Test
+  void abortReleasesABlockedTake() throws Exception {
+    RowRingBuffer<long[]> ring = new RowRingBuffer<>(2, () -> new long[1]);
+    Future<long[]> consumer = executor.submit(ring::take);
+    Thread.sleep(50);
+
+    ring.abort();
+
+    assertNull(consumer.get(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+  }
+
+  private static void awaitValue(AtomicInteger counter, int value) throws InterruptedException {
+    long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (counter.get() < value && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(value, counter.get());
+  }
+}
@@ -0,0 +1,166 @@
+package com.p3.resource_monitor.poc.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.p3.resource_monitor.poc.beans.TableSelection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class CatalogFilterTest {
+  @Test
+  void globsMatchWholeNamesWithRegexCharactersTakenLiterally() {
+    Pattern sales = CatalogFilter.compile("sales.*");
+    Pattern audit = CatalogFilter.compile("*.audit_?");
+
+    assertTrue(sales.matcher("sales.orders").matches());
+    assertTrue(sales.matcher("sales.").matches());
+    assertFalse(sales.matcher("salesXorders").matches());
+    assertFalse(sales.matcher("presales.orders").matches());
+    assertTrue(audit.matcher("hr.audit_1").matches());
+    assertFalse(audit.matcher("hr.audit_10").matches());
+    assertFalse(audit.matcher("hr.AUDIT_1").matches());
+    assertTrue(CatalogFilter.compile("a+b(c)").matcher("a+b(c)").matches());
+  }
+
+  @Test
+  void patternsPrefixedWithRegexAreRegularExpressions() {
+    Pattern pattern = CatalogFilter.compile("regex:sales\\.(orders|items)_\\d+");
+
+    assertTrue(pattern.matcher("sales.orders_2024").matches());
+    assertFalse(pattern.matcher("sales.orders_x").matches());
+    assertFalse(pattern.matcher("sales.invoices_1").matches());
+  }
+
+  @Test
+  void selectsEverythingWithoutASelection() {
+    Catalog selected = new CatalogFilter(null).apply(catalog());
+
+    assertEquals(catalog().getSchemas(), selected.getSchemas());
+    assertEquals(catalog().getTables().size(), selected.getTables().size());
+  }
+
+  @Test
+  void excludesWinOverIncludes() {
+    TableSelection selection =
+        TableSelection.builder()
+            .includeSchemas(List.of("*"))
+            .excludeSchemas(List.of("hr"))
+            .includeTables(List.of("sales.*"))
+            .excludeTables(List.of("*.audit_*"))
+            .build();
+
+    Catalog selected = new CatalogFilter(selection).apply(catalog());
+
+    assertEquals(List.of("sales", "staging"), selected.getSchemas());
+    assertEquals(List.of("orders"), names(selected.getTables("sales")));
+  }
+
+  @Test
+  void dropsSchemasWhoseTablesAreAllExcludedButKeepsEmptyOnes() {
+    TableSelection selection =
+        TableSelection.builder().excludeTables(List.of("hr.*", "sales.audit_log")).build();
+
+    Catalog selected = new CatalogFilter(selection).apply(catalog());
+
+    assertEquals(List.of("sales", "staging"), selected.getSchemas());
+    assertNull(selected.getTable("hr", "people"));
+  }
+
+  @Test
+  void projectionKeepsItsOrderAndDropsAPrimaryKeyItLeavesOut() {
+    TableSelection selection =
+        TableSelection.builder()
+            .tableColumns(
+                Map.of(
+                    "sales.orders", List.of("total", "customer"),
+                    "hr.people", List.of("name", "id", "missing")))
+            .build();
+
+    Catalog source = catalog();
+    Catalog selected = new CatalogFilter(selection).apply(source);
+
+    CatalogTable orders = selected.getTable("sales", "orders");
+    assertEquals(List.of("total", "customer"), columnNames(orders));
+    assertEquals(List.of(), orders.getPrimaryKey());
+    CatalogTable people = selected.getTable("hr", "people");
+    assertEquals(List.of("name", "id"), columnNames(people));
+    assertEquals(List.of("id"), people.getPrimaryKey());
+    // The source catalog is left as it was.
+    assertEquals(List.of("id"), source.getTable("sales", "orders").getPrimaryKey());
+  }
+
+  @Test
+  void columnPatternsApplyToTablesWithoutAProjection() {
+    TableSelection selection =
+        TableSelection.builder()
+            .excludeColumns(List.of("*.*.secret_*"))
+            .tableColumns(Map.of("hr.people", List.of("secret_salary")))
+            .build();
+
+    Catalog selected = new CatalogFilter(selection).apply(catalog());
+
+    assertEquals(List.of("id", "name"), columnNames(selected.getTable("sales", "audit_log")));
+    assertEquals(List.of("secret_salary"), columnNames(selected.getTable("hr", "people")));
+  }
+
+  @Test
+  void skipsTablesWithoutAnySelectedColumn() {
+    TableSelection selection =
+        TableSelection.builder().includeColumns(List.of("sales.orders.*")).build();
+
+    Catalog selected = new CatalogFilter(selection).apply(catalog());
+
+    assertEquals(List.of("sales", "staging"), selected.getSchemas());
+    assertEquals(List.of("orders"), names(selected.getTables("sales")));
+  }
+
+  @Test
+  void blankTableFiltersReadEveryRow() {
+    TableSelection selection =
+        TableSelection.builder()
+            .tableFilters(Map.of("sales.orders", "total > 0", "hr.people", " "))
+            .build();
+    CatalogFilter filter = new CatalogFilter(selection);
+
+    assertEquals("total > 0", filter.getTableFilter("sales", "orders"));
+    assertNull(filter.getTableFilter("hr", "people"));
+    assertNull(filter.getTableFilter("sales", "audit_log"));
+  }
+
+  /** hr.people, sales.audit_log and sales.orders, and an empty schema staging. */
+  private static Catalog catalog() {
+    Catalog catalog = new Catalog();
+    catalog.addSchema("hr");
+    catalog.addSchema("sales");
+    catalog.addSchema("staging");
+    catalog.addTable(table("hr", "people", "id", "name", "secret_salary"));
+    catalog.addTable(table("sales", "audit_log", "id", "name", "secret_token"));
+    catalog.addTable(table("sales", "orders", "id", "customer", "total"));
+    return catalog;
+  }
+
+  private static CatalogTable table(String schema, String name, String... columns) {
+    CatalogTable table =
+        CatalogTable.builder().schema(schema).name(name).type("TABLE").rowEstimate(10).build();
+    for (int i = 0; i < columns.length; i++) {
+      table
+          .getColumns()
+          .add(CatalogColumn.builder().name(columns[i]).ordinalPosition(i + 1).build());
+    }
+    table.getPrimaryKey().add(columns[0]);
+    return table;
+  }
+
+  private static List<String> names(List<CatalogTable> tables) {
+    return tables.stream().map(CatalogTable::getName).toList();
+  }
+
+  private static List<String> columnNames(CatalogTable table) {
+    return table.getColumns().stream().map(CatalogColumn::getName).toList();
+  }
+}
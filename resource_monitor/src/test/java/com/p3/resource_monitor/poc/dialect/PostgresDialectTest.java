@@ -0,0 +1,22 @@
+package com.p3.resource_monitor.poc.dialect;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PostgresDialectTest {
+  private final PostgresDialect dialect = new PostgresDialect();
+
+  @Test
+  void detectsXminWraparound() {
+    assertTrue(dialect.watermarkWrapped(PostgresDialect.XMIN_WATERMARK, "4294967000", "120"));
+    assertFalse(dialect.watermarkWrapped(PostgresDialect.XMIN_WATERMARK, "1000", "1000"));
+    assertFalse(dialect.watermarkWrapped(PostgresDialect.XMIN_WATERMARK, "1000", "4294967000"));
+  }
+
+  @Test
+  void otherWatermarkColumnsNeverWrap() {
+    assertFalse(dialect.watermarkWrapped("updated_at", "2025-02-01", "2025-01-01"));
+  }
+}
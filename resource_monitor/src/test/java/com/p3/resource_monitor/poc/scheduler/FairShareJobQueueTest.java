@@ -0,0 +1,108 @@
+package com.p3.resource_monitor.poc.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.p3.resource_monitor.poc.persistance.models.Job;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class FairShareJobQueueTest {
+  private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+  private FairShareJobQueue queue;
+
+  @BeforeEach
+  void setUp() {
+    queue = new FairShareJobQueue();
+    ReflectionTestUtils.setField(queue, "defaultPriority", 0);
+    ReflectionTestUtils.setField(queue, "agingIntervalSeconds", 0L);
+    ReflectionTestUtils.setField(queue, "maxAgingBoost", 10);
+    ReflectionTestUtils.setField(queue, "submitterWeights", "");
+  }
+
+  @Test
+  void ordersBySubmitterPriorityThenSubmitTime() {
+    Job low = job("low", "a", 0, 0);
+    Job high = job("high", "a", 5, 30);
+    Job older = job("older", "a", 0, -10);
+
+    List<Job> ordered = queue.order(List.of(low, high, older), List.of(), NOW);
+
+    assertEquals(List.of("high", "older", "low"), ids(ordered));
+  }
+
+  @Test
+  void interleavesSubmittersByWeightedShare() {
+    ReflectionTestUtils.setField(queue, "submitterWeights", "a:2, b:1");
+    List<Job> ready =
+        List.of(
+            job("a1", "a", 0, 0),
+            job("a2", "a", 0, 1),
+            job("a3", "a", 0, 2),
+            job("b1", "b", 0, 10),
+            job("b2", "b", 0, 11),
+            job("b3", "b", 0, 12));
+
+    assertEquals(
+        List.of("a1", "b1", "a2", "a3", "b2", "b3"), ids(queue.order(ready, List.of(), NOW)));
+  }
+
+  @Test
+  void countsRunningJobsAgainstTheirSubmitter() {
+    List<Job> running = List.of(job("r1", "a", 0, -100), job("r2", "a", 0, -100));
+    List<Job> ready = List.of(job("a1", "a", 0, 0), job("b1", "b", 0, 10), job("b2", "b", 0, 11));
+
+    assertEquals(List.of("b1", "b2", "a1"), ids(queue.order(ready, running, NOW)));
+  }
+
+  @Test
+  void jobsWithoutSubmitterShareTheDefaultQueue() {
+    Job anonymous = job("anonymous", null, 0, 0);
+    Job blank = job("blank", " ", 0, 1);
+
+    assertEquals(FairShareJobQueue.DEFAULT_SUBMITTER, FairShareJobQueue.submitterOf(anonymous));
+    assertEquals(FairShareJobQueue.DEFAULT_SUBMITTER, FairShareJobQueue.submitterOf(blank));
+  }
+
+  @Test
+  void agingRaisesPriorityUpToTheMaximumBoost() {
+    ReflectionTestUtils.setField(queue, "agingIntervalSeconds", 300L);
+    Job waitedTwentyMinutes = job("w", "a", 1, -1200);
+    Job waitedDays = job("d", "a", 1, -3 * 24 * 3600);
+    Job fresh = job("f", "a", 3, 0);
+
+    assertEquals(5, queue.effectivePriority(waitedTwentyMinutes, NOW));
+    assertEquals(11, queue.effectivePriority(waitedDays, NOW));
+    assertEquals(
+        List.of("d", "w", "f"),
+        ids(queue.order(List.of(fresh, waitedTwentyMinutes, waitedDays), List.of(), NOW)));
+  }
+
+  @Test
+  void estimatesStartInWavesOfFreeSlots() {
+    Duration average = Duration.ofMinutes(10);
+
+    assertEquals(NOW, queue.estimateStart(1, 2, 4, average, NOW));
+    assertEquals(NOW.plus(average), queue.estimateStart(2, 2, 4, average, NOW));
+    assertEquals(NOW.plus(average.multipliedBy(2)), queue.estimateStart(6, 2, 4, average, NOW));
+    assertNull(queue.estimateStart(2, 2, 4, null, NOW));
+  }
+
+  private static Job job(String id, String submitter, int priority, long submittedSecondsFromNow) {
+    return Job.builder()
+        .id(id)
+        .submitter(submitter)
+        .priority(priority)
+        .submitTime(NOW.plusSeconds(submittedSecondsFromNow))
+        .build();
+  }
+
+  private static List<String> ids(List<Job> jobs) {
+    return jobs.stream().map(Job::getId).toList();
+  }
+}
@@ -0,0 +1,120 @@
+package com.p3.resource_monitor.poc.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.p3.resource_monitor.poc.beans.JobStatus;
+import com.p3.resource_monitor.poc.persistance.models.Job;
+import com.p3.resource_monitor.poc.persistance.repos.JobRepository;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JobDependencyResolverTest {
+  private static final String BATCH = "batch";
+
+  private final Map<String, Job> jobs = new LinkedHashMap<>();
+  private JobDependencyResolver resolver;
+
+  @BeforeEach
+  void setUp() {
+    JobRepository jobRepository = mock(JobRepository.class);
+    when(jobRepository.findByBatchId(BATCH)).thenAnswer(call -> new ArrayList<>(jobs.values()));
+    // Applies the conditional update to the in-memory batch like the database would.
+    when(jobRepository.transitionStatus(any(), any(), any(), any(), any()))
+        .thenAnswer(
+            call -> {
+              Job job = jobs.get(call.<String>getArgument(0));
+              if (job == null || !job.getStatus().equals(call.getArgument(1))) {
+                return 0;
+              }
+              job.setStatus(call.getArgument(2));
+              job.setStatusReason(call.getArgument(3));
+              return 1;
+            });
+    resolver = new JobDependencyResolver(jobRepository);
+  }
+
+  @Test
+  void releasesJobsWhoseDependenciesAllCompleted() {
+    add("a", JobStatus.COMPLETED);
+    add("b", JobStatus.COMPLETED);
+    add("c", JobStatus.WAITING, "a", "b");
+
+    assertEquals(1, resolver.resolve(BATCH));
+    assertEquals(JobStatus.READY.name(), jobs.get("c").getStatus());
+  }
+
+  @Test
+  void keepsJobsWaitingWhileADependencyIsUnfinished() {
+    add("a", JobStatus.COMPLETED);
+    add("b", JobStatus.RUNNING);
+    add("c", JobStatus.WAITING, "a", "b");
+
+    assertEquals(0, resolver.resolve(BATCH));
+    assertEquals(JobStatus.WAITING.name(), jobs.get("c").getStatus());
+  }
+
+  @Test
+  void skipsEveryJobBelowAFailedDependency() {
+    add("a", JobStatus.FAILED);
+    add("b", JobStatus.WAITING, "a");
+    add("c", JobStatus.WAITING, "b");
+    add("d", JobStatus.WAITING, "c");
+    add("e", JobStatus.COMPLETED);
+    add("f", JobStatus.WAITING, "e");
+
+    assertEquals(1, resolver.resolve(BATCH));
+    assertEquals(JobStatus.SKIPPED.name(), jobs.get("b").getStatus());
+    assertEquals(JobStatus.SKIPPED.name(), jobs.get("c").getStatus());
+    assertEquals(JobStatus.SKIPPED.name(), jobs.get("d").getStatus());
+    assertEquals(JobStatus.READY.name(), jobs.get("f").getStatus());
+  }
+
+  @Test
+  void skipsJobsWhoseDependencyNoLongerExists() {
+    add("b", JobStatus.WAITING, "gone");
+
+    resolver.resolve(BATCH);
+
+    assertEquals(JobStatus.SKIPPED.name(), jobs.get("b").getStatus());
+  }
+
+  @Test
+  void reopensDependentsSkippedBecauseOfAResumedJob() {
+    add("a", JobStatus.FAILED);
+    add("b", JobStatus.WAITING, "a");
+    add("c", JobStatus.WAITING, "b");
+    add("x", JobStatus.FAILED);
+    add("d", JobStatus.WAITING, "c", "x");
+    add("y", JobStatus.FAILED);
+    add("e", JobStatus.WAITING, "y");
+    resolver.resolve(BATCH);
+
+    jobs.get("a").setStatus(JobStatus.READY.name());
+    int reopened = resolver.reopenDependents(jobs.get("a"));
+
+    assertEquals(3, reopened);
+    assertEquals(JobStatus.WAITING.name(), jobs.get("b").getStatus());
+    assertEquals(JobStatus.WAITING.name(), jobs.get("c").getStatus());
+    // d is skipped again for its other failed dependency x; e never depended on a.
+    assertEquals(JobStatus.SKIPPED.name(), jobs.get("d").getStatus());
+    assertEquals(JobStatus.SKIPPED.name(), jobs.get("e").getStatus());
+  }
+
+  private void add(String id, JobStatus status, String... dependsOn) {
+    jobs.put(
+        id,
+        Job.builder()
+            .id(id)
+            .batchId(BATCH)
+            .status(status.name())
+            .dependsOnJobIds(dependsOn.length == 0 ? null : String.join(",", List.of(dependsOn)))
+            .build());
+  }
+}
@@ -0,0 +1,78 @@
+package com.p3.resource_monitor.poc.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.p3.resource_monitor.poc.beans.JobBatchItem;
+import com.p3.resource_monitor.poc.beans.JobBatchRequest;
+import com.p3.resource_monitor.poc.beans.JobInputBean;
+import com.p3.resource_monitor.poc.persistance.repos.InstanceRepository;
+import com.p3.resource_monitor.poc.persistance.repos.JobRepository;
+import com.p3.resource_monitor.poc.scheduler.FairShareJobQueue;
+import com.p3.resource_monitor.poc.scheduler.JobDependencyResolver;
+import com.p3.resource_monitor.poc.scheduler.JobPlacer;
+import com.p3.resource_monitor.poc.scheduler.RunningJobRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JobServiceImplTest {
+  private JobRepository jobRepository;
+  private JobServiceImpl jobService;
+
+  @BeforeEach
+  void setUp() {
+    jobRepository = mock(JobRepository.class);
+    jobService =
+        new JobServiceImpl(
+            jobRepository,
+            mock(InstanceRepository.class),
+            new FairShareJobQueue(),
+            new RunningJobRegistry(),
+            mock(JobPlacer.class),
+            mock(JobDependencyResolver.class));
+  }
+
+  @Test
+  void rejectsBatchWithDependencyCycle() {
+    JobBatchRequest request =
+        batch(item("extract", "load"), item("load", "verify"), item("verify", "extract"));
+
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> jobService.submitBatch(request));
+
+    assertTrue(e.getMessage().contains("cycle"));
+    verifyNoInteractions(jobRepository);
+  }
+
+  @Test
+  void rejectsBatchDependingOnUnknownJob() {
+    JobBatchRequest request = batch(item("extract"), item("load", "transform"));
+
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> jobService.submitBatch(request));
+
+    assertTrue(e.getMessage().contains("unknown job transform"));
+  }
+
+  @Test
+  void rejectsBatchWithDuplicateKeys() {
+    JobBatchRequest request = batch(item("extract"), item("extract"));
+
+    assertThrows(IllegalArgumentException.class, () -> jobService.submitBatch(request));
+  }
+
+  private static JobBatchRequest batch(JobBatchItem... items) {
+    return JobBatchRequest.builder().instanceId("instance").jobs(List.of(items)).build();
+  }
+
+  private static JobBatchItem item(String key, String... dependsOn) {
+    return JobBatchItem.builder()
+        .key(key)
+        .dependsOn(List.of(dependsOn))
+        .jobInput(new JobInputBean())
+        .build();
+  }
+}
@@ -0,0 +1,56 @@
+package com.p3.resource_monitor.poc.util;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.p3.resource_monitor.poc.beans.ConnectionBean;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SourceConnectionRegistryTest {
+  private SourceConnectionRegistry registry;
+  private String url;
+  private ConnectionBean connectionBean;
+
+  @BeforeEach
+  void createRegistry() {
+    registry = new SourceConnectionRegistry(4, Duration.ofMinutes(1), Duration.ofMillis(300));
+    url = "jdbc:h2:mem:registry-" + UUID.randomUUID();
+    connectionBean = ConnectionBean.builder().host("h2").username("sa").password("").build();
+  }
+
+  @AfterEach
+  void closeRegistry() {
+    registry.close();
+  }
+
+  @Test
+  void aJobWaitsForItsWholeBudgetInsteadOfTakingPartOfIt() throws Exception {
+    try (SourceConnectionRegistry.Lease first = registry.lease(url, connectionBean, 3)) {
+      assertThrows(
+          SQLTransientConnectionException.class, () -> registry.lease(url, connectionBean, 2));
+      try (SourceConnectionRegistry.Lease second = registry.lease(url, connectionBean, 1);
+          Connection connection = second.getConnection()) {
+        assertTrue(connection.isValid(1));
+      }
+    }
+
+    try (SourceConnectionRegistry.Lease next = registry.lease(url, connectionBean, 4);
+        Connection connection = next.getConnection()) {
+      assertTrue(connection.isValid(1));
+    }
+  }
+
+  @Test
+  void capsTheReservationAtTheConnectionsPerSource() throws Exception {
+    try (SourceConnectionRegistry.Lease lease = registry.lease(url, connectionBean, 10);
+        Connection connection = lease.getConnection()) {
+      assertTrue(connection.isValid(1));
+    }
+  }
+}